@@ -0,0 +1,79 @@
+package com.github.jmoalves.levain.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Substitution of one command string: the regex and StringBuffer loop
+ * VariableSubstitutionService used before, against a cached
+ * {@link VariableTemplate}.
+ *
+ * Run with {@code mvn -Pjmh -DskipTests test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableTemplateBenchmark {
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    @Param({
+            "extract --strip ${pkg.jdk-21.url} ${baseDir}",
+            "setVar JAVA_HOME ${baseDir}",
+            "addPath ${baseDir}/bin",
+            "copy ${levainHome}/extra/settings.xml ${home}/.m2/settings.xml",
+            "mavenCopy --repo ${maven.repo} ${group}:${artifact}:${version} ${baseDir}/lib"
+    })
+    public String command;
+
+    private final Map<String, String> variables = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < 32; i++) {
+            variables.put("var" + i, "value-" + i);
+        }
+        variables.put("pkg.jdk-21.url", "https://example.com/jdk-21_windows-x64_bin.zip");
+        variables.put("baseDir", "/opt/levain/jdk-21");
+        variables.put("levainHome", "/opt/levain");
+        variables.put("home", "/home/user");
+        variables.put("maven.repo", "https://repo.maven.apache.org/maven2");
+        variables.put("group", "org.example");
+        variables.put("artifact", "tool");
+        variables.put("version", "1.0.0");
+    }
+
+    @Benchmark
+    public String regexStringBuffer() {
+        StringBuffer result = new StringBuffer();
+        Matcher matcher = VARIABLE_PATTERN.matcher(command);
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value != null ? value : matcher.group(0)));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return VariableTemplate.of(command).render(variables::get);
+    }
+}
@@ -9,4 +9,40 @@ public interface Action {
     String name();
 
     void execute(ActionContext context, List<String> args) throws Exception;
+
+    /**
+     * Check a command's arguments before any command of the recipe runs, so
+     * a malformed command fails the recipe before earlier commands download
+     * or extract anything.
+     *
+     * Arguments may still hold ${variable} references, which are substituted
+     * only when the command runs: check what does not depend on their values,
+     * such as required arguments and options.
+     *
+     * @param args the command's arguments, before variable substitution
+     * @throws IllegalArgumentException if the command can never succeed
+     */
+    default void validate(List<String> args) {
+    }
+
+    /**
+     * Whether a command changes the {@link com.github.jmoalves.levain.config.Config}
+     * shared by every command of a recipe, such as its variables. Such commands
+     * cannot be marked --async: the commands of a concurrent group share one
+     * Config.
+     *
+     * @param args the command's arguments, possibly before variable substitution
+     */
+    default boolean changesConfig(List<String> args) {
+        return false;
+    }
+
+    /**
+     * Whether the number of arguments is already known before substitution.
+     * A ${variable} reference may expand to several arguments, so
+     * {@link #validate(List)} should only count arguments when none holds one.
+     */
+    static boolean isPlain(List<String> args) {
+        return args.stream().noneMatch(arg -> arg.contains("${"));
+    }
 }
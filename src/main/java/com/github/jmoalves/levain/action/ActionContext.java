@@ -2,10 +2,12 @@ package com.github.jmoalves.levain.action;
 
 import com.github.jmoalves.levain.config.Config;
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.VariableScope;
 
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Context for action execution.
@@ -14,19 +16,52 @@ import java.util.Map;
  * - Configuration and recipe metadata
  * - Base and recipe directories
  * - Recipe-scoped variables (set via setVar action)
+ * - The variable layers below them, built on first substitution
+ *
+ * A command run concurrently with others gets a {@link #fork()} of the
+ * context: it reads the variables of the context it was forked from and
+ * keeps its own writes, which {@link #merge(ActionContext)} copies back.
+ * Forks share the Config: commands that change it do not run concurrently,
+ * see {@link Action#changesConfig(java.util.List)}.
  */
 public class ActionContext {
     private final Config config;
     private final Recipe recipe;
     private final Path baseDir;
     private final Path recipeDir;
+    private final ActionContext parent;
     private final Map<String, String> recipeVariables = new HashMap<>();
+    private VariableScope variableScope;
 
     public ActionContext(Config config, Recipe recipe, Path baseDir, Path recipeDir) {
+        this(config, recipe, baseDir, recipeDir, null);
+    }
+
+    private ActionContext(Config config, Recipe recipe, Path baseDir, Path recipeDir, ActionContext parent) {
         this.config = config;
         this.recipe = recipe;
         this.baseDir = baseDir;
         this.recipeDir = recipeDir;
+        this.parent = parent;
+    }
+
+    /**
+     * A context for one command of a concurrent group. It sees this
+     * context's variables; recipe variables it sets stay in the fork until
+     * merged. The Config is shared, not forked. This context must not change
+     * while the fork is in use.
+     * @return a new context forked from this one
+     */
+    public ActionContext fork() {
+        return new ActionContext(config, recipe, baseDir, recipeDir, this);
+    }
+
+    /**
+     * Copy the variables set in a fork of this context into this context.
+     * @param fork a context returned by {@link #fork()}
+     */
+    public void merge(ActionContext fork) {
+        recipeVariables.putAll(fork.recipeVariables);
     }
 
     public Config getConfig() {
@@ -47,6 +82,7 @@ public class ActionContext {
 
     /**
      * Get all recipe-scoped variables set during this recipe's execution.
+     * For a fork, only the variables set in the fork.
      * @return map of recipe variables
      */
     public Map<String, String> getRecipeVariables() {
@@ -68,7 +104,27 @@ public class ActionContext {
      * @return variable value, or null if not set
      */
     public String getRecipeVariable(String name) {
-        return recipeVariables.get(name);
+        String value = recipeVariables.get(name);
+        if (value == null && parent != null) {
+            return parent.getRecipeVariable(name);
+        }
+        return value;
+    }
+
+    /**
+     * Get the variables below the recipe-scoped ones, building them on first
+     * use. They do not change while the recipe runs.
+     * @param builder builds the scope
+     * @return the variable scope of this recipe
+     */
+    public synchronized VariableScope getVariableScope(Supplier<VariableScope> builder) {
+        if (parent != null) {
+            return parent.getVariableScope(builder);
+        }
+        if (variableScope == null) {
+            variableScope = builder.get();
+        }
+        return variableScope;
     }
 }
 
@@ -1,6 +1,7 @@
 package com.github.jmoalves.levain.action;
 
 import com.github.jmoalves.levain.service.VariableSubstitutionService;
+import com.github.jmoalves.levain.util.ProgressBar;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -11,18 +12,38 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Executes Levain DSL commands by dispatching to actions.
+ *
+ * Commands are compiled into {@link CompiledCommand}s, cached by command
+ * text, and a whole command list is validated through
+ * {@link Action#validate(List)} before its first command runs. Commands
+ * marked {@code --async} run concurrently, see
+ * {@link #executeCommands(List, ActionContext)}.
  */
 @ApplicationScoped
 public class ActionExecutor {
     private static final Logger logger = LoggerFactory.getLogger(ActionExecutor.class);
     private static final Pattern TOKEN_PATTERN = Pattern.compile("\"([^\"]*)\"|'([^']*)'|\\S+");
 
+    // Marks a command that runs concurrently with its neighbours
+    static final String ASYNC_MARKER = "--async";
+    // Default lower bound of --async commands running at once
+    static final int MIN_PARALLEL_COMMANDS = 4;
+    // Compiled commands are dropped as a whole past this many
+    static final int MAX_COMPILED = 4096;
+
     private final Map<String, Action> actions = new HashMap<>();
+    private final Map<String, CompiledCommand> compiled = new ConcurrentHashMap<>();
     private final VariableSubstitutionService variableSubstitutionService;
 
     @Inject
@@ -33,33 +54,289 @@ public class ActionExecutor {
         }
     }
 
+    /**
+     * Execute commands in order. The commands are compiled and validated
+     * first: if any command is malformed, none is executed.
+     *
+     * Consecutive commands marked {@code --async} form a group whose commands
+     * run concurrently, at most {@link #getMaxParallelCommands()} at a time.
+     * The next command without the marker, or the end of the list, waits for
+     * the whole group. A group's commands are substituted before the group
+     * starts, with the variables set by the commands before it; variables they
+     * set are visible after the group, in command order. The commands of a
+     * group share the {@link com.github.jmoalves.levain.config.Config}, so
+     * commands that change it (setEnv, addPath, checkChainDirExists --saveVar,
+     * see {@link Action#changesConfig(List)}) cannot be marked {@code --async}.
+     *
+     * @throws IllegalArgumentException if a command fails validation or names an
+     *                                  unknown action
+     */
     public void executeCommands(List<String> commands, ActionContext context) {
         if (commands == null || commands.isEmpty()) {
             return;
         }
 
-        for (String command : commands) {
-            if (command == null || command.isBlank()) {
+        List<CompiledCommand> plan = compile(commands);
+        List<CompiledCommand> group = new ArrayList<>();
+        for (CompiledCommand command : plan) {
+            if (command.async()) {
+                group.add(command);
                 continue;
             }
+            executeGroup(group, context);
+            group.clear();
+            Invocation invocation = resolve(command, context);
+            if (invocation != null) {
+                invocation.run(context);
+            }
+        }
+        executeGroup(group, context);
+    }
+
+    /**
+     * Validate commands without running any of them, the same way
+     * {@link #executeCommands} does before its first command.
+     *
+     * @throws IllegalArgumentException listing every command that fails
+     *                                  validation
+     */
+    public void validateCommands(List<String> commands) {
+        compile(commands);
+    }
+
+    /**
+     * Compile commands into a plan and validate every command of it,
+     * including that its action exists and, for {@code --async} commands,
+     * does not change the configuration. An action whose name is a variable
+     * reference is only checked once the command is substituted.
+     *
+     * @throws IllegalArgumentException listing every command that fails
+     *                                  validation
+     */
+    List<CompiledCommand> compile(List<String> commands) {
+        List<CompiledCommand> plan = new ArrayList<>(commands.size());
+        List<String> errors = new ArrayList<>();
+        for (String source : commands) {
+            if (source == null || source.isBlank()) {
+                continue;
+            }
+            CompiledCommand command = compiled.get(source);
+            if (command == null) {
+                command = compileCommand(source);
+                if (compiled.size() >= MAX_COMPILED) {
+                    compiled.clear();
+                }
+                compiled.put(source, command);
+            }
+            if (command.actionName() == null && command.isConstant()) {
+                if (command.async()) {
+                    errors.add(source + ": " + ASYNC_MARKER + " requires a command");
+                }
+                continue;
+            }
+            if (command.actionName() != null && command.action() == null) {
+                errors.add(source + ": unknown action '" + command.actionName() + "'");
+            } else if (command.action() != null) {
+                List<String> args = command.isConstant() ? command.args() : rawArgs(command.source());
+                try {
+                    command.action().validate(args);
+                    if (command.async()) {
+                        checkConcurrent(command.actionName(), command.action(), args);
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors.add(source + ": " + e.getMessage());
+                }
+            }
+            plan.add(command);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid commands:\n  " + String.join("\n  ", errors));
+        }
+        return plan;
+    }
+
+    /**
+     * The action a command names, as the plan would run it: its first word
+     * once the {@code --async} marker is stripped.
+     *
+     * @return the action name, or null for a blank command
+     */
+    public static String actionName(String command) {
+        if (command == null) {
+            return null;
+        }
+        String source = command.strip();
+        if (source.equals(ASYNC_MARKER) || source.startsWith(ASYNC_MARKER + " ")) {
+            source = source.substring(ASYNC_MARKER.length()).strip();
+        }
+        if (source.isEmpty()) {
+            return null;
+        }
+        return source.split("\\s+", 2)[0];
+    }
+
+    private CompiledCommand compileCommand(String text) {
+        String source = text.strip();
+        boolean async = source.equals(ASYNC_MARKER) || source.startsWith(ASYNC_MARKER + " ");
+        if (async) {
+            source = source.substring(ASYNC_MARKER.length()).strip();
+        }
+
+        List<String> tokens = tokenize(source);
+        if (tokens.isEmpty()) {
+            return new CompiledCommand(source, async, null, null, List.of());
+        }
+        String actionName = tokens.get(0);
+        if (actionName.contains("${")) {
+            return new CompiledCommand(source, async, null, null, null);
+        }
+        List<String> args = source.contains("${") ? null : List.copyOf(tokens.subList(1, tokens.size()));
+        return new CompiledCommand(source, async, actionName, actions.get(actionName), args);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the command cannot run in an
+     *                                  {@code --async} group
+     */
+    private static void checkConcurrent(String actionName, Action action, List<String> args) {
+        if (action.changesConfig(args)) {
+            throw new IllegalArgumentException(
+                    actionName + " changes the configuration and cannot be marked " + ASYNC_MARKER);
+        }
+    }
+
+    private List<String> rawArgs(String source) {
+        List<String> tokens = tokenize(source);
+        return tokens.subList(1, tokens.size());
+    }
 
+    /**
+     * Substitute and tokenize a command as needed.
+     *
+     * @return what to run, or null if there is nothing to run
+     */
+    private Invocation resolve(CompiledCommand command, ActionContext context) {
+        String actionName = command.actionName();
+        Action action = command.action();
+        List<String> args = command.args();
+        if (!command.isConstant()) {
             String substituted = variableSubstitutionService != null
-                    ? variableSubstitutionService.substitute(command, context)
-                    : command;
+                    ? variableSubstitutionService.substitute(command.source(), context)
+                    : command.source();
 
             List<String> tokens = tokenize(substituted);
             if (tokens.isEmpty()) {
-                continue;
+                return null;
             }
+            if (actionName == null) {
+                actionName = tokens.get(0);
+                action = actions.get(actionName);
+                if (action == null) {
+                    throw new IllegalArgumentException("Unknown action '" + actionName + "': " + substituted);
+                }
+            }
+            args = tokens.subList(1, tokens.size());
+        }
+        return new Invocation(actionName, action, args);
+    }
 
-            String actionName = tokens.get(0);
-            Action action = actions.get(actionName);
-            if (action == null) {
-                logger.warn("Unknown action '{}', skipping command: {}", actionName, substituted);
-                continue;
+    /**
+     * Run a group of {@code --async} commands, each with a fork of the
+     * context, and wait for all of them. Recipe variables set by the commands
+     * are merged in command order; the first failure, in command order, is
+     * thrown once every command has finished.
+     */
+    private void executeGroup(List<CompiledCommand> group, ActionContext context) {
+        List<Invocation> invocations = new ArrayList<>(group.size());
+        for (CompiledCommand command : group) {
+            Invocation invocation = resolve(command, context);
+            if (invocation != null) {
+                // Actions named by a variable are only known now
+                checkConcurrent(invocation.actionName(), invocation.action(), invocation.args());
+                invocations.add(invocation);
+            }
+        }
+        if (invocations.isEmpty()) {
+            return;
+        }
+        if (invocations.size() == 1) {
+            invocations.get(0).run(context);
+            return;
+        }
+        logger.debug("Running {} commands concurrently", invocations.size());
+
+        Semaphore permits = new Semaphore(getMaxParallelCommands());
+        List<ActionContext> forks = new ArrayList<>(invocations.size());
+        List<Future<?>> futures = new ArrayList<>(invocations.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Invocation invocation : invocations) {
+                ActionContext fork = context.fork();
+                forks.add(fork);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        ProgressBar.runLineOnly(() -> invocation.run(fork));
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
             }
+        } finally {
+            executor.shutdown();
+        }
+
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new RuntimeException(e.getCause().getMessage(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Interrupted while running concurrent commands", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        forks.forEach(context::merge);
+    }
+
+    /**
+     * Commands of an {@code --async} group running at once: the
+     * levain.action.parallel system property or LEVAIN_ACTION_PARALLEL
+     * environment variable, by default the number of processors but at least
+     * {@link #MIN_PARALLEL_COMMANDS}, as most such commands wait on downloads
+     * or disk.
+     */
+    static int getMaxParallelCommands() {
+        String value = System.getProperty("levain.action.parallel");
+        if (value == null) {
+            value = System.getenv("LEVAIN_ACTION_PARALLEL");
+        }
+        if (value != null && !value.isBlank()) {
+            try {
+                int parallel = Integer.parseInt(value.trim());
+                if (parallel > 0) {
+                    return parallel;
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid action parallelism: {}", value);
+            }
+        }
+        return Math.max(MIN_PARALLEL_COMMANDS, Runtime.getRuntime().availableProcessors());
+    }
+
+    private record Invocation(String actionName, Action action, List<String> args) {
 
-            List<String> args = tokens.subList(1, tokens.size());
+        void run(ActionContext context) {
             try {
                 action.execute(context, args);
             } catch (Exception e) {
@@ -27,6 +27,20 @@ public class AddPathAction implements Action {
         return "addPath";
     }
 
+    @Override
+    public void validate(List<String> args) {
+        boolean hasPath = args.stream()
+                .anyMatch(arg -> !"--permanent".equals(arg) && !"--append".equals(arg) && !"--prepend".equals(arg));
+        if (!hasPath) {
+            throw new IllegalArgumentException("addPath requires at least one path argument");
+        }
+    }
+
+    @Override
+    public boolean changesConfig(List<String> args) {
+        return true;
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         if (args == null || args.isEmpty()) {
@@ -27,6 +27,11 @@ public class CheckChainDirExistsAction implements Action {
         return "checkChainDirExists";
     }
 
+    @Override
+    public boolean changesConfig(List<String> args) {
+        return args.stream().anyMatch(arg -> "--saveVar".equals(arg) || arg.startsWith("--saveVar="));
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         if (context == null) {
@@ -0,0 +1,30 @@
+package com.github.jmoalves.levain.action;
+
+import java.util.List;
+
+/**
+ * A DSL command parsed ahead of execution by {@link ActionExecutor}.
+ *
+ * A command without ${variable} references is tokenized once: its action
+ * and arguments are final. Otherwise the command is substituted and
+ * tokenized when it runs, as variables may be set by earlier commands; its
+ * action is still resolved up front when the action name itself holds no
+ * reference.
+ *
+ * @param source     the command as written in the recipe, without the
+ *                   {@code --async} marker
+ * @param async      whether the command runs concurrently with its
+ *                   neighbouring {@code --async} commands
+ * @param actionName the action name, or null if it is only known after
+ *                   substitution
+ * @param action     the action, or null if unknown or only known after
+ *                   substitution
+ * @param args       the arguments, or null if they are only known after
+ *                   substitution
+ */
+record CompiledCommand(String source, boolean async, String actionName, Action action, List<String> args) {
+
+    boolean isConstant() {
+        return args != null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.jmoalves.levain.action;
 
+import com.github.jmoalves.levain.service.dedupe.DedupeService;
 import com.github.jmoalves.levain.util.FileCache;
 import com.github.jmoalves.levain.util.FileUtils;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -25,10 +26,12 @@ public class CopyAction implements Action {
     private static final Logger logger = LoggerFactory.getLogger(CopyAction.class);
 
     private final FileCache fileCache;
+    private final DedupeService dedupeService;
 
     @Inject
-    public CopyAction(FileCache fileCache) {
+    public CopyAction(FileCache fileCache, DedupeService dedupeService) {
         this.fileCache = fileCache;
+        this.dedupeService = dedupeService;
     }
 
     @Override
@@ -37,22 +40,18 @@ public class CopyAction implements Action {
     }
 
     @Override
-    public void execute(ActionContext context, List<String> args) throws Exception {
-        boolean verbose = false;
-        int positionalStart = 0;
-
-        // Parse optional flags
-        for (int i = 0; i < args.size(); i++) {
-            String arg = args.get(i);
-            if ("--verbose".equals(arg)) {
-                verbose = true;
-                positionalStart = i + 1;
-            } else if (!arg.startsWith("--")) {
-                break;
-            }
+    public void validate(List<String> args) {
+        boolean plain = Action.isPlain(args);
+        if (plain && positionals(args).size() != 2) {
+            throw new IllegalArgumentException("You must inform the file to copy and the destination directory");
         }
+    }
 
-        List<String> positionals = args.subList(positionalStart, args.size());
+    @Override
+    public void execute(ActionContext context, List<String> args) throws Exception {
+        List<String> positionals = positionals(args);
+        // Leading flags are skipped only when --verbose is among them
+        boolean verbose = positionals.size() < args.size();
 
         if (positionals.size() != 2) {
             throw new IllegalArgumentException("You must inform the file to copy and the destination directory");
@@ -98,6 +97,20 @@ public class CopyAction implements Action {
             Path cachedSrc = fileCache.get(srcArg);
             Files.copy(cachedSrc, targetPath, StandardCopyOption.REPLACE_EXISTING);
         }
+        dedupeService.storeIfEnabled(List.of(targetPath));
+    }
+
+    /**
+     * The arguments after the leading flags, up to the last --verbose.
+     */
+    private static List<String> positionals(List<String> args) {
+        int positionalStart = 0;
+        for (int i = 0; i < args.size() && args.get(i).startsWith("--"); i++) {
+            if ("--verbose".equals(args.get(i))) {
+                positionalStart = i + 1;
+            }
+        }
+        return args.subList(positionalStart, args.size());
     }
 
     private boolean isDirectoryPath(String arg, Path resolved) {
@@ -21,6 +21,11 @@ public class DefaultPackageAction implements Action {
         return "defaultPackage";
     }
 
+    @Override
+    public boolean changesConfig(List<String> args) {
+        return true;
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) {
         if (args == null || args.size() != 1) {
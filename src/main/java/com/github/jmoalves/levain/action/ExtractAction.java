@@ -1,7 +1,9 @@
 package com.github.jmoalves.levain.action;
 
+import com.github.jmoalves.levain.extract.EntryFilter;
 import com.github.jmoalves.levain.extract.Extractor;
 import com.github.jmoalves.levain.extract.ExtractorFactory;
+import com.github.jmoalves.levain.service.dedupe.DedupeService;
 import com.github.jmoalves.levain.util.FileCache;
 import com.github.jmoalves.levain.util.FileUtils;
 import com.github.jmoalves.levain.util.ProgressBar;
@@ -18,7 +20,10 @@ import java.util.List;
 /**
  * Extract action implementation.
  *
- * Usage: extract [--strip] [--type <type>] <src> <dst>
+ * Usage: extract [--strip] [--type <type>] [--include <glob>]... [--exclude <glob>]... <src> <dst>
+ *
+ * --include and --exclude may be repeated. Globs are matched against entry
+ * paths ('**' crosses directories); with --strip they apply to the stripped path.
  */
 @ApplicationScoped
 public class ExtractAction implements Action {
@@ -26,11 +31,13 @@ public class ExtractAction implements Action {
 
     private final FileCache fileCache;
     private final ExtractorFactory extractorFactory;
+    private final DedupeService dedupeService;
 
     @Inject
-    public ExtractAction(FileCache fileCache, ExtractorFactory extractorFactory) {
+    public ExtractAction(FileCache fileCache, ExtractorFactory extractorFactory, DedupeService dedupeService) {
         this.fileCache = fileCache;
         this.extractorFactory = extractorFactory;
+        this.dedupeService = dedupeService;
     }
 
     @Override
@@ -38,6 +45,19 @@ public class ExtractAction implements Action {
         return "extract";
     }
 
+    @Override
+    public void validate(List<String> args) {
+        ParsedArgs parsed = parseArgs(args);
+
+        boolean plain = Action.isPlain(args);
+        if (plain && parsed.positionals.size() != 2) {
+            throw new IllegalArgumentException("You must inform the file to extract and the destination directory");
+        }
+        if (parsed.type != null && !parsed.type.contains("${") && !extractorFactory.isTypeSupported(parsed.type)) {
+            throw new IllegalArgumentException("Unknown type '" + parsed.type + "'");
+        }
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         ParsedArgs parsed = parseArgs(args);
@@ -72,7 +92,9 @@ public class ExtractAction implements Action {
         Extractor extractor = extractorFactory.createExtractor(cachedSrc, parsed.type);
         long totalBytes = Files.exists(cachedSrc) ? Files.size(cachedSrc) : -1;
         ProgressBar progress = new ProgressBar("Extracting " + cachedSrc.getFileName(), totalBytes);
-        extractor.extract(parsed.strip, cachedSrc, dstResolved, progress);
+        EntryFilter filter = EntryFilter.of(parsed.includes, parsed.excludes);
+        extractor.extract(parsed.strip, cachedSrc, dstResolved, progress, filter);
+        dedupeService.storeIfEnabled(extractor.getExtractedFiles());
     }
 
     private ParsedArgs parseArgs(List<String> args) {
@@ -94,6 +116,28 @@ public class ExtractAction implements Action {
                 parsed.type = args.get(++i);
                 continue;
             }
+            if (arg.startsWith("--include=")) {
+                parsed.includes.add(arg.substring("--include=".length()));
+                continue;
+            }
+            if ("--include".equals(arg)) {
+                if (i + 1 >= args.size()) {
+                    throw new IllegalArgumentException("--include requires a value");
+                }
+                parsed.includes.add(args.get(++i));
+                continue;
+            }
+            if (arg.startsWith("--exclude=")) {
+                parsed.excludes.add(arg.substring("--exclude=".length()));
+                continue;
+            }
+            if ("--exclude".equals(arg)) {
+                if (i + 1 >= args.size()) {
+                    throw new IllegalArgumentException("--exclude requires a value");
+                }
+                parsed.excludes.add(args.get(++i));
+                continue;
+            }
             parsed.positionals.add(arg);
         }
         return parsed;
@@ -101,6 +145,8 @@ public class ExtractAction implements Action {
 
     private static class ParsedArgs {
         private final List<String> positionals = new ArrayList<>();
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> excludes = new ArrayList<>();
         private boolean strip;
         private String type;
     }
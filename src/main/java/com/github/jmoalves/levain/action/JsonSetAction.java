@@ -68,7 +68,7 @@ public class JsonSetAction implements Action {
 
         setValue(root, tokens, valueArg);
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(filePath.toFile(), root);
+        FileUtils.writeAtomically(filePath, mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
         logger.debug("jsonSet updated {} at {}", filePath, pathArg);
     }
 
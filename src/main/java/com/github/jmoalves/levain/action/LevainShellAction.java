@@ -133,8 +133,8 @@ public class LevainShellAction implements Action {
     }
 
     private boolean isLevainShellAction(String action) {
-        String trimmed = action.trim();
-        return trimmed.equals("levainShell") || trimmed.startsWith("levainShell ");
+        // --async levainShell recurses just the same
+        return "levainShell".equals(ActionExecutor.actionName(action));
     }
 
     private Map<String, String> buildEnvironment(List<Recipe> recipes) {
@@ -27,6 +27,25 @@ public class MavenCopyAction implements Action {
         return "mavenCopy";
     }
 
+    @Override
+    public void validate(List<String> args) {
+        boolean plain = Action.isPlain(args);
+        int positionals = 0;
+        for (int i = 0; i < args.size(); i++) {
+            if ("--repo".equals(args.get(i))) {
+                if (i + 1 >= args.size()) {
+                    throw new IllegalArgumentException("--repo requires a value");
+                }
+                i++;
+            } else if (!args.get(i).startsWith("--repo=")) {
+                positionals++;
+            }
+        }
+        if (plain && positionals < 2) {
+            throw new IllegalArgumentException("mavenCopy requires: <artifact> <destinationDir>");
+        }
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         if (context == null) {
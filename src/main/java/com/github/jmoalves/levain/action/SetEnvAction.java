@@ -24,6 +24,20 @@ public class SetEnvAction implements Action {
         return "setEnv";
     }
 
+    @Override
+    public void validate(List<String> args) {
+        boolean plain = Action.isPlain(args);
+        int index = !args.isEmpty() && "--permanent".equals(args.get(0)) ? 1 : 0;
+        if (plain && args.size() - index < 2) {
+            throw new IllegalArgumentException("setEnv requires a name and value. Usage: setEnv [--permanent] <name> <value>");
+        }
+    }
+
+    @Override
+    public boolean changesConfig(List<String> args) {
+        return true;
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         if (args == null || args.isEmpty()) {
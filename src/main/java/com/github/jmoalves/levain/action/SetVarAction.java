@@ -36,14 +36,17 @@ public class SetVarAction implements Action {
         return "setVar";
     }
 
+    @Override
+    public void validate(List<String> args) {
+        if (args.size() < 2 && Action.isPlain(args)) {
+            throw missingArguments();
+        }
+    }
+
     @Override
     public void execute(ActionContext context, List<String> args) throws Exception {
         if (args.size() < 2) {
-            throw new IllegalArgumentException(
-                "setVar requires at least two arguments: name and value\n" +
-                "Usage: setVar <name> <value>\n" +
-                "Example: setVar myHome ${baseDir}"
-            );
+            throw missingArguments();
         }
 
         String varName = args.get(0);
@@ -54,4 +57,12 @@ public class SetVarAction implements Action {
 
         logger.debug("Set recipe variable: {} = {}", varName, varValue);
     }
+
+    private static IllegalArgumentException missingArguments() {
+        return new IllegalArgumentException(
+            "setVar requires at least two arguments: name and value\n" +
+            "Usage: setVar <name> <value>\n" +
+            "Example: setVar myHome ${baseDir}"
+        );
+    }
 }
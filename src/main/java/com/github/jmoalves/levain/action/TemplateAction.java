@@ -62,7 +62,7 @@ public class TemplateAction implements Action {
             content = matcher.replaceAll(replacementValue);
         }
 
-        Files.writeString(dstResolved, content, StandardCharsets.UTF_8);
+        FileUtils.writeAtomically(dstResolved, content.getBytes(StandardCharsets.UTF_8));
         logger.debug("TEMPLATE {} => {}", srcResolved, dstResolved);
     }
 
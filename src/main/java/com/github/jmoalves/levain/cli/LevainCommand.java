@@ -7,7 +7,9 @@ import com.github.jmoalves.levain.cli.commands.ShellCommand;
 import com.github.jmoalves.levain.cli.commands.ConfigCommand;
 import com.github.jmoalves.levain.cli.commands.RollbackCommand;
 import com.github.jmoalves.levain.cli.commands.CleanCommand;
+import com.github.jmoalves.levain.cli.commands.DedupeCommand;
 import com.github.jmoalves.levain.config.Config;
+import com.github.jmoalves.levain.repository.GitRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
@@ -33,7 +35,8 @@ import java.util.concurrent.Callable;
     ConfigCommand.class,
     RollbackCommand.class,
     CleanCommand.class,
-    CloneCommand.class
+    CloneCommand.class,
+    DedupeCommand.class
 })
 public class LevainCommand implements Callable<Integer> {
     private static final Logger logger = LoggerFactory.getLogger(LevainCommand.class);
@@ -56,10 +59,16 @@ public class LevainCommand implements Callable<Integer> {
     @Option(names = { "--skip-levain-updates" }, description = "Skip checking for Levain updates")
     private boolean skipLevainUpdates;
 
+    @Option(names = { "--refresh" }, description = "Update git recipe repositories before running")
+    private boolean refresh;
+
     @Inject
     private Config config;
 
     public void applyOverrides() {
+        if (refresh) {
+            System.setProperty(GitRepository.REFRESH_PROPERTY, "true");
+        }
         if (config == null) {
             return;
         }
@@ -0,0 +1,79 @@
+package com.github.jmoalves.levain.cli.commands;
+
+import com.github.jmoalves.levain.config.Config;
+import com.github.jmoalves.levain.service.dedupe.DedupeService;
+import com.github.jmoalves.levain.service.dedupe.DedupeService.DedupeResult;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Deduplicate installed packages into the shared content store.
+ * Usage: levain dedupe [directory]
+ */
+@Command(
+    name = "dedupe",
+    description = "Hardlink identical files of installed packages into a shared store",
+    mixinStandardHelpOptions = true
+)
+public class DedupeCommand implements Callable<Integer> {
+    private static final Logger console = LoggerFactory.getLogger("CONSOLE");
+
+    @Parameters(
+        index = "0",
+        arity = "0..1",
+        description = "Directory to scan (default: levain home)"
+    )
+    private Path directory;
+
+    private final DedupeService dedupeService;
+    private final Config config;
+
+    @Inject
+    public DedupeCommand(DedupeService dedupeService, Config config) {
+        this.dedupeService = dedupeService;
+        this.config = config;
+    }
+
+    @Override
+    public Integer call() {
+        Path root = directory != null ? directory : config.getLevainHome();
+        if (!Files.isDirectory(root)) {
+            console.error("✗ Directory not found: {}", root);
+            return 1;
+        }
+
+        try {
+            console.info("Deduplicating {} into {}...", root, config.getStoreDir());
+            DedupeResult result = dedupeService.dedupe(root);
+            console.info("✓ Scanned {} file(s), linked {}, freed {}",
+                    result.scannedFiles(), result.linkedFiles(), formatSize(result.savedBytes()));
+            if (result.failedFiles() > 0) {
+                console.warn("  {} file(s) could not be linked (different volume or no hardlink support?)",
+                        result.failedFiles());
+            }
+            if (!dedupeService.isEnabled()) {
+                console.info("  Tip: set \"dedupeEnabled\": true in config.json to dedupe new installs automatically");
+            }
+            return 0;
+        } catch (Exception e) {
+            console.error("✗ Dedupe failed: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    private String formatSize(long bytes) {
+        if (bytes <= 0) return "0 B";
+        final String[] units = new String[]{"B", "KB", "MB", "GB"};
+        int digitGroups = Math.min(units.length - 1, (int) (Math.log10(bytes) / Math.log10(1024)));
+        return String.format("%.1f %s",
+            bytes / Math.pow(1024, digitGroups),
+            units[digitGroups]);
+    }
+}
@@ -7,7 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.jmoalves.levain.service.RecipeService;
-import com.github.jmoalves.levain.repository.RecipeMetadata;
+import com.github.jmoalves.levain.service.RecipeService.RecipeStatus;
 
 import jakarta.inject.Inject;
 import picocli.CommandLine.Command;
@@ -68,10 +68,8 @@ public class ListCommand implements Callable<Integer> {
             return 0;
         }
 
-        // Get installation status for each recipe
-        List<RecipeStatus> recipeStatuses = recipes.stream()
-                .map(this::buildRecipeStatus)
-                .toList();
+        // Get installation status for all recipes at once
+        List<RecipeStatus> recipeStatuses = recipeService.getRecipeStatuses(recipes, showSource);
 
         // Apply filters based on options
         List<RecipeStatus> filteredRecipes = recipeStatuses;
@@ -85,10 +83,12 @@ public class ListCommand implements Callable<Integer> {
                     .toList();
         }
 
-        // Sort by recipe name
-        filteredRecipes = filteredRecipes.stream()
-                .sorted((r1, r2) -> r1.name().compareTo(r2.name()))
-                .toList();
+        // Sort by recipe name, unless a filter ranked them by relevance
+        if (filter == null) {
+            filteredRecipes = filteredRecipes.stream()
+                    .sorted((r1, r2) -> r1.name().compareTo(r2.name()))
+                    .toList();
+        }
 
         // Display results
         if (filteredRecipes.isEmpty()) {
@@ -133,34 +133,6 @@ public class ListCommand implements Callable<Integer> {
         }
     }
 
-    private RecipeStatus buildRecipeStatus(String recipeName) {
-        boolean installed = recipeService.isInstalled(recipeName);
-
-        String sourceName = null;
-        String sourceUri = null;
-        if (showSource) {
-            if (installed) {
-                RecipeMetadata metadata = recipeService.getInstalledMetadata(recipeName).orElse(null);
-                if (metadata != null) {
-                    sourceName = metadata.getSourceRepository();
-                    sourceUri = metadata.getSourceRepositoryUri();
-                }
-            } else {
-                var repo = recipeService.findSourceRepository(recipeName).orElse(null);
-                if (repo != null) {
-                    sourceName = repo.getName();
-                    sourceUri = repo.getUri();
-                }
-            }
-
-            if (sourceName == null && sourceUri == null) {
-                sourceName = "unknown";
-            }
-        }
-
-        return new RecipeStatus(recipeName, installed, sourceName, sourceUri);
-    }
-
     private String formatSource(RecipeStatus status) {
         if (status.sourceName() == null && status.sourceUri() == null) {
             return "";
@@ -184,10 +156,4 @@ public class ListCommand implements Callable<Integer> {
         }
         return sb.toString();
     }
-
-    /**
-     * Record representing a recipe with its installation status.
-     */
-    private record RecipeStatus(String name, boolean isInstalled, String sourceName, String sourceUri) {
-    }
 }
@@ -29,6 +29,7 @@ import jakarta.enterprise.context.ApplicationScoped;
  * - cache: Cache directory for downloaded artifacts
  * - shellPath: Path to preferred shell executable
  * - defaultPackage: Default package to install
+ * - dedupeEnabled: Hardlink identical installed files into a shared store
  * 
  * The config file is optional. If not present, sensible defaults are used:
  * - levainHome: ~/levain
@@ -235,6 +236,45 @@ public class Config {
         configData.backupMaxAgeDays = days;
     }
 
+    /**
+     * Get the content store directory (for deduplicated installed files).
+     * Default: ~/.levain/store
+     */
+    public Path getStoreDir() {
+        String envStore = System.getenv("LEVAIN_STORE_DIR");
+        if ((configData.storeDir == null || configData.storeDir.isEmpty())
+                && envStore != null && !envStore.isBlank()) {
+            return Paths.get(envStore);
+        }
+        if (configData.storeDir == null || configData.storeDir.isEmpty()) {
+            String userHome = System.getProperty("user.home");
+            return Paths.get(userHome).resolve(".levain/store");
+        }
+        return Paths.get(configData.storeDir);
+    }
+
+    /**
+     * Set the content store directory.
+     */
+    public void setStoreDir(String storeDir) {
+        configData.storeDir = storeDir;
+    }
+
+    /**
+     * Check if installed files are deduplicated into the content store.
+     * Default: false
+     */
+    public boolean isDedupeEnabled() {
+        return configData.dedupeEnabled != null ? configData.dedupeEnabled : false;
+    }
+
+    /**
+     * Set whether installed files are deduplicated into the content store.
+     */
+    public void setDedupeEnabled(boolean enabled) {
+        configData.dedupeEnabled = enabled;
+    }
+
     /**
      * Set the cache directory.
      */
@@ -423,6 +463,12 @@ public class Config {
         @JsonProperty("backupMaxAgeDays")
         public Integer backupMaxAgeDays;
 
+        @JsonProperty("storeDir")
+        public String storeDir;
+
+        @JsonProperty("dedupeEnabled")
+        public Boolean dedupeEnabled;
+
         @JsonProperty("shellPath")
         public String shellPath;
 
@@ -465,6 +511,8 @@ public class Config {
                     ", backupEnabled=" + backupEnabled +
                     ", backupKeepCount=" + backupKeepCount +
                     ", backupMaxAgeDays=" + backupMaxAgeDays +
+                    ", storeDir='" + storeDir + '\'' +
+                    ", dedupeEnabled=" + dedupeEnabled +
                     ", shellPath='" + shellPath + '\'' +
                     ", shellCheckForUpdate=" + shellCheckForUpdate +
                     ", autoUpdate=" + autoUpdate +
@@ -0,0 +1,131 @@
+package com.github.jmoalves.levain.extract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Include/exclude glob filter applied to archive entry names.
+ *
+ * Patterns are matched against the entry path using '/' as separator:
+ * {@code *} and {@code ?} never cross a directory boundary, {@code **} does.
+ * A trailing {@code /**} also matches the directory itself, so
+ * {@code docs/**} excludes both the {@code docs} directory and its contents.
+ *
+ * An entry is selected when it matches at least one include pattern (or no
+ * include pattern was given) and matches no exclude pattern.
+ */
+public final class EntryFilter {
+    public static final EntryFilter ALL = new EntryFilter(List.of(), List.of());
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    private EntryFilter(List<Pattern> includes, List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    public static EntryFilter of(List<String> includeGlobs, List<String> excludeGlobs) {
+        if ((includeGlobs == null || includeGlobs.isEmpty()) && (excludeGlobs == null || excludeGlobs.isEmpty())) {
+            return ALL;
+        }
+        return new EntryFilter(compile(includeGlobs), compile(excludeGlobs));
+    }
+
+    public boolean isAll() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * Check whether an entry should be extracted.
+     *
+     * @param entryName archive entry name, with or without a trailing '/'
+     * @return true if the entry passes the include and exclude patterns
+     */
+    public boolean accepts(String entryName) {
+        if (isAll()) {
+            return true;
+        }
+        String name = normalize(entryName);
+        if (name.isEmpty()) {
+            return true;
+        }
+        for (Pattern exclude : excludes) {
+            if (exclude.matcher(name).matches()) {
+                return false;
+            }
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (Pattern include : includes) {
+            if (include.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String normalize(String entryName) {
+        String name = entryName.replace('\\', '/');
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        while (name.endsWith("/")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+
+    private static List<Pattern> compile(List<String> globs) {
+        List<Pattern> patterns = new ArrayList<>();
+        if (globs == null) {
+            return patterns;
+        }
+        for (String glob : globs) {
+            if (glob != null && !glob.isBlank()) {
+                patterns.add(Pattern.compile(toRegex(normalize(glob.trim()))));
+            }
+        }
+        return patterns;
+    }
+
+    static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int length = glob.length();
+        for (int i = 0; i < length; i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                boolean doubleStar = i + 1 < length && glob.charAt(i + 1) == '*';
+                if (!doubleStar) {
+                    regex.append("[^/]*");
+                    continue;
+                }
+                i++;
+                boolean atSegmentStart = i == 1 || glob.charAt(i - 2) == '/';
+                if (atSegmentStart && i + 1 < length && glob.charAt(i + 1) == '/') {
+                    // "**/" matches zero or more leading directories
+                    regex.append("(?:.*/)?");
+                    i++;
+                } else if (atSegmentStart && i + 1 == length && i >= 2) {
+                    // trailing "/**" also matches the directory itself
+                    regex.setLength(regex.length() - 1);
+                    regex.append("(?:/.*)?");
+                } else {
+                    regex.append(".*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -8,11 +8,16 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class Extractor {
     private static final Logger logger = LoggerFactory.getLogger(Extractor.class);
     private com.github.jmoalves.levain.util.ProgressBar progress;
     private long extractedBytes = 0;
+    private EntryFilter filter = EntryFilter.ALL;
+    private boolean strip;
+    private final List<Path> extractedFiles = new ArrayList<>();
 
     public void extract(boolean strip, Path src, Path dst) throws IOException {
         extract(strip, src, dst, null);
@@ -20,8 +25,16 @@ public abstract class Extractor {
 
     public void extract(boolean strip, Path src, Path dst, com.github.jmoalves.levain.util.ProgressBar progress)
             throws IOException {
+        extract(strip, src, dst, progress, EntryFilter.ALL);
+    }
+
+    public void extract(boolean strip, Path src, Path dst, com.github.jmoalves.levain.util.ProgressBar progress,
+            EntryFilter filter) throws IOException {
         this.progress = progress;
         this.extractedBytes = 0;
+        this.filter = filter != null ? filter : EntryFilter.ALL;
+        this.strip = strip;
+        this.extractedFiles.clear();
         Path tempDir = null;
         try {
             tempDir = extractToTemp(src, dst);
@@ -38,6 +51,30 @@ public abstract class Extractor {
 
     protected abstract void extractImpl(Path src, Path dst) throws IOException;
 
+    /**
+     * Regular files written to the destination by the last extraction.
+     */
+    public List<Path> getExtractedFiles() {
+        return List.copyOf(extractedFiles);
+    }
+
+    /**
+     * Check whether an archive entry should be written. When --strip was
+     * requested, patterns are matched against the name without its first
+     * directory, i.e. the path it will have under the destination.
+     */
+    protected boolean isSelected(String entryName) {
+        if (filter.isAll()) {
+            return true;
+        }
+        String name = EntryFilter.normalize(entryName);
+        if (strip) {
+            int slash = name.indexOf('/');
+            name = slash < 0 ? "" : name.substring(slash + 1);
+        }
+        return filter.accepts(name);
+    }
+
     protected void reportBytes(long bytes) {
         if (progress == null) {
             return;
@@ -91,6 +128,7 @@ public abstract class Extractor {
                     } else {
                         Files.createDirectories(target.getParent());
                         Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+                        extractedFiles.add(target);
                     }
                 }
             }
@@ -105,6 +143,7 @@ public abstract class Extractor {
             Files.copy(src, dst, StandardCopyOption.REPLACE_EXISTING);
             Files.deleteIfExists(src);
         }
+        extractedFiles.add(dst);
     }
 
     private void deleteDirectory(Path dir) throws IOException {
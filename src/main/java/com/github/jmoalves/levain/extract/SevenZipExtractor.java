@@ -15,6 +15,10 @@ public class SevenZipExtractor extends Extractor {
             SevenZArchiveEntry entry;
             byte[] buffer = new byte[8192];
             while ((entry = sevenZFile.getNextEntry()) != null) {
+                if (!isSelected(entry.getName())) {
+                    // Unread entries are skipped lazily by SevenZFile
+                    continue;
+                }
                 Path target = dst.resolve(entry.getName()).normalize();
                 if (entry.isDirectory()) {
                     Files.createDirectories(target);
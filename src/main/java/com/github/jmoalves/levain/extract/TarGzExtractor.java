@@ -25,6 +25,10 @@ public class TarGzExtractor extends Extractor {
                     break;
                 }
                 TarArchiveEntry tarEntry = (TarArchiveEntry) entry;
+                if (!isSelected(tarEntry.getName())) {
+                    // getNextEntry() drains the unread entry data
+                    continue;
+                }
                 Path target = dst.resolve(tarEntry.getName()).normalize();
                 if (tarEntry.isDirectory()) {
                     Files.createDirectories(target);
@@ -5,7 +5,7 @@ import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 /**
  * Represents a Levain recipe for package installation.
@@ -18,7 +18,7 @@ public class Recipe {
     private Map<String, List<String>> commands;
     private String name;
     private List<String> dependencies;
-    private Map<String, Object> customAttributes = new HashMap<>();
+    private Map<String, Object> customAttributes = new LinkedHashMap<>();
 
     public Recipe() {
     }
@@ -74,7 +74,7 @@ public class Recipe {
     @JsonAnySetter
     public void addCustomAttribute(String key, Object value) {
         if (customAttributes == null) {
-            customAttributes = new HashMap<>();
+            customAttributes = new LinkedHashMap<>();
         }
         customAttributes.put(key, value);
     }
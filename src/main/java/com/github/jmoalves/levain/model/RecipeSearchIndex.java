@@ -0,0 +1,244 @@
+package com.github.jmoalves.levain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Search index over a fixed set of recipes, for {@code levain list <filter>}.
+ *
+ * Names are indexed by prefix (a sorted array) and by trigrams; descriptions
+ * and custom attributes are indexed by trigrams. A query matches, from best
+ * to worst:
+ * <ol>
+ * <li>a recipe with that exact name</li>
+ * <li>names starting with the query</li>
+ * <li>names containing the query</li>
+ * <li>descriptions or custom attributes containing the query</li>
+ * <li>names sharing enough trigrams with the query to be a likely typo
+ * ({@code mavne} finds {@code maven})</li>
+ * </ol>
+ * Matching ignores case. Within a rank, shorter names come first, then
+ * names in alphabetical order.
+ *
+ * Trigram postings only narrow down the candidates; each candidate is then
+ * checked against the query, so results never depend on trigram collisions.
+ */
+public class RecipeSearchIndex {
+    /** Minimum Dice coefficient between name and query trigrams for a fuzzy match. */
+    static final double FUZZY_THRESHOLD = 0.45;
+
+    private static final double EXACT = 100;
+    private static final double PREFIX = 80;
+    private static final double NAME = 60;
+    private static final double TEXT = 40;
+    private static final double FUZZY = 30;
+    private static final int[] NO_IDS = new int[0];
+
+    private final List<Recipe> recipes;
+    private final String[] names;
+    private final String[] texts;
+    private final int[] nameTrigramCounts;
+    private final Map<String, int[]> nameTrigrams;
+    private final Map<String, int[]> textTrigrams;
+    private final Integer[] byName;
+
+    public RecipeSearchIndex(Collection<Recipe> recipes) {
+        this.recipes = List.copyOf(recipes);
+        int size = this.recipes.size();
+        names = new String[size];
+        texts = new String[size];
+        nameTrigramCounts = new int[size];
+
+        Map<String, List<Integer>> namePostings = new HashMap<>();
+        Map<String, List<Integer>> textPostings = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            Recipe recipe = this.recipes.get(id);
+            names[id] = normalize(recipe.getName());
+            texts[id] = normalize(searchableText(recipe));
+
+            Set<String> trigrams = paddedTrigrams(names[id]);
+            nameTrigramCounts[id] = trigrams.size();
+            for (String trigram : trigrams) {
+                namePostings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(id);
+            }
+            for (String trigram : trigrams(texts[id])) {
+                textPostings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(id);
+            }
+        }
+        nameTrigrams = toArrays(namePostings);
+        textTrigrams = toArrays(textPostings);
+
+        byName = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            byName[id] = id;
+        }
+        Arrays.sort(byName, Comparator.comparing(id -> names[id]));
+    }
+
+    /**
+     * Recipes matching {@code query}, best match first. A null or blank query
+     * matches every recipe, in the order the index was built with.
+     */
+    public List<Recipe> search(String query) {
+        if (query == null || query.isBlank()) {
+            return recipes;
+        }
+        String q = normalize(query.trim());
+        double[] scores = new double[recipes.size()];
+
+        // Prefix range in the sorted names; the exact name sorts first in it
+        for (int i = firstWithPrefix(q); i < byName.length && names[byName[i]].startsWith(q); i++) {
+            int id = byName[i];
+            scores[id] = names[id].equals(q) ? EXACT : PREFIX;
+        }
+
+        for (int id : containing(q, names, nameTrigrams)) {
+            scores[id] = Math.max(scores[id], NAME);
+        }
+        for (int id : containing(q, texts, textTrigrams)) {
+            scores[id] = Math.max(scores[id], TEXT);
+        }
+
+        Set<String> queryTrigrams = paddedTrigrams(q);
+        int[] shared = new int[recipes.size()];
+        for (String trigram : queryTrigrams) {
+            for (int id : nameTrigrams.getOrDefault(trigram, NO_IDS)) {
+                shared[id]++;
+            }
+        }
+        for (int id = 0; id < shared.length; id++) {
+            if (shared[id] > 0 && scores[id] == 0) {
+                double dice = 2.0 * shared[id] / (queryTrigrams.size() + nameTrigramCounts[id]);
+                if (dice >= FUZZY_THRESHOLD) {
+                    scores[id] = FUZZY * dice;
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int id = 0; id < scores.length; id++) {
+            if (scores[id] > 0) {
+                matches.add(id);
+            }
+        }
+        matches.sort(Comparator.<Integer>comparingDouble(id -> -scores[id])
+                .thenComparingInt(id -> names[id].length())
+                .thenComparing(id -> names[id]));
+        return matches.stream().map(recipes::get).toList();
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    /**
+     * Ids of the entries of {@code values} containing {@code query}. Queries of
+     * three characters or more are looked up through their trigrams; shorter
+     * ones have no trigram and are checked against every entry.
+     */
+    private static List<Integer> containing(String query, String[] values, Map<String, int[]> postings) {
+        List<Integer> ids = new ArrayList<>();
+        if (query.length() < 3) {
+            for (int id = 0; id < values.length; id++) {
+                if (values[id].contains(query)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        // Candidates: entries having the query's rarest trigram
+        int[] candidates = null;
+        for (String trigram : trigrams(query)) {
+            int[] posting = postings.get(trigram);
+            if (posting == null) {
+                return ids;
+            }
+            if (candidates == null || posting.length < candidates.length) {
+                candidates = posting;
+            }
+        }
+        for (int id : candidates) {
+            if (values[id].contains(query)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private int firstWithPrefix(String prefix) {
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[byName[mid]].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Description and custom attribute names and values, one per line.
+     */
+    private static String searchableText(Recipe recipe) {
+        StringBuilder text = new StringBuilder();
+        if (recipe.getDescription() != null) {
+            text.append(recipe.getDescription()).append('\n');
+        }
+        Map<String, Object> attributes = recipe.getCustomAttributes();
+        if (attributes != null) {
+            attributes.forEach((key, value) -> {
+                text.append(key).append('\n');
+                appendValues(text, value);
+            });
+        }
+        return text.toString();
+    }
+
+    private static void appendValues(StringBuilder text, Object value) {
+        if (value instanceof Collection<?> values) {
+            values.forEach(item -> appendValues(text, item));
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(item -> appendValues(text, item));
+        } else if (value != null) {
+            text.append(value).append('\n');
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Trigrams of a name padded with two leading blanks and one trailing
+     * blank, so the start and end of a name weigh in fuzzy matching.
+     */
+    private static Set<String> paddedTrigrams(String value) {
+        return trigrams("  " + value + " ");
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> postings) {
+        Map<String, int[]> arrays = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, ids) -> arrays.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return arrays;
+    }
+}
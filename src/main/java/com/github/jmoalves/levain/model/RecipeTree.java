@@ -6,18 +6,32 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Manages recipe dependencies and resolution in a dependency tree.
  * All recipes implicitly depend on the "levain" recipe.
+ *
+ * A tree is either built from a complete recipe map, or backed by a lookup
+ * function that is called for each recipe the first time it is needed. A
+ * lookup-backed tree only knows the recipes it has visited, so listing and
+ * filtering only make sense on a complete tree.
  */
 public class RecipeTree {
     private final Map<String, Recipe> recipeMap;
+    private final Function<String, Optional<Recipe>> lookup;
+    private volatile RecipeSearchIndex searchIndex;
     private static final String LEVAIN_RECIPE = "levain";
 
     public RecipeTree(Map<String, Recipe> recipeMap) {
         this.recipeMap = recipeMap;
+        this.lookup = null;
+    }
+
+    public RecipeTree(Function<String, Optional<Recipe>> lookup) {
+        this.recipeMap = new ConcurrentHashMap<>();
+        this.lookup = lookup;
     }
 
     /**
@@ -82,7 +96,7 @@ public class RecipeTree {
             throw new IllegalArgumentException("Circular dependency detected involving: " + recipeName);
         }
 
-        Recipe recipe = recipeMap.get(recipeName);
+        Recipe recipe = find(recipeName);
         if (recipe == null) {
             throw new IllegalArgumentException("Recipe not found: " + recipeName);
         }
@@ -114,7 +128,7 @@ public class RecipeTree {
      * @return the recipe wrapped in Optional
      */
     public Optional<Recipe> getRecipe(String recipeName) {
-        return Optional.ofNullable(recipeMap.get(recipeName));
+        return Optional.ofNullable(find(recipeName));
     }
 
     /**
@@ -124,7 +138,7 @@ public class RecipeTree {
      * @return true if the recipe exists
      */
     public boolean hasRecipe(String recipeName) {
-        return recipeMap.containsKey(recipeName);
+        return find(recipeName) != null;
     }
 
     /**
@@ -146,18 +160,30 @@ public class RecipeTree {
     }
 
     /**
-     * Filters recipes by name substring.
+     * Searches recipes by name, description and custom attributes, ignoring
+     * case and tolerating typos in names. See {@link RecipeSearchIndex}.
      *
      * @param filter the filter string
-     * @return a list of matching recipes
+     * @return a list of matching recipes, best match first
      */
     public List<Recipe> filterRecipes(String filter) {
         if (filter == null || filter.isEmpty()) {
             return getAvailableRecipes();
         }
-        return recipeMap.values().stream()
-                .filter(r -> r.getName().contains(filter))
-                .collect(Collectors.toList());
+        return searchIndex().search(filter);
+    }
+
+    /**
+     * The search index, built on first use. It is rebuilt if a lookup-backed
+     * tree has visited more recipes since.
+     */
+    private RecipeSearchIndex searchIndex() {
+        RecipeSearchIndex index = searchIndex;
+        if (index == null || index.size() != recipeMap.size()) {
+            index = new RecipeSearchIndex(recipeMap.values());
+            searchIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -168,7 +194,7 @@ public class RecipeTree {
      * @throws IllegalArgumentException if recipe not found
      */
     public List<String> getDependencies(String recipeName) {
-        Recipe recipe = recipeMap.get(recipeName);
+        Recipe recipe = find(recipeName);
         if (recipe == null) {
             throw new IllegalArgumentException("Recipe not found: " + recipeName);
         }
@@ -184,4 +210,22 @@ public class RecipeTree {
 
         return deps;
     }
+
+    /**
+     * Gets a recipe from the map, asking the lookup function on a miss.
+     * Misses are not remembered: the recipe may be installed later.
+     */
+    private Recipe find(String recipeName) {
+        if (recipeName == null) {
+            return null;
+        }
+        Recipe recipe = recipeMap.get(recipeName);
+        if (recipe == null && lookup != null) {
+            recipe = lookup.apply(recipeName).orElse(null);
+            if (recipe != null) {
+                recipeMap.put(recipeName, recipe);
+            }
+        }
+        return recipe;
+    }
 }
@@ -7,12 +7,16 @@ import java.util.Optional;
 /**
  * Abstract base class for all repository implementations.
  * Provides common functionality like initialization tracking and recipe
- * caching.
+ * caching. The {@link #nameFilter()} is rebuilt from {@link #listRecipes()}
+ * each time a subclass marks itself initialized.
  */
 public abstract class AbstractRepository implements Repository {
+    static final String RECIPE_EXTENSION = ".levain.yaml";
+
     private final String name;
     private final String uri;
     private boolean initialized = false;
+    private volatile RecipeNameFilter nameFilter = RecipeNameFilter.ALL;
 
     protected AbstractRepository(String name, String uri) {
         this.name = name;
@@ -50,7 +54,25 @@ public abstract class AbstractRepository implements Repository {
         return String.format("%s (%s)", name, uri);
     }
 
+    @Override
+    public RecipeNameFilter nameFilter() {
+        return nameFilter;
+    }
+
+    /**
+     * Recipe name for a file name or a path inside a repository, or null if
+     * it is not a recipe file.
+     */
+    static String recipeName(String path) {
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        if (!fileName.endsWith(RECIPE_EXTENSION) || fileName.contains(RECIPE_EXTENSION + RECIPE_EXTENSION)) {
+            return null;
+        }
+        return fileName.substring(0, fileName.length() - RECIPE_EXTENSION.length());
+    }
+
     protected void setInitialized() {
+        this.nameFilter = RecipeNameFilter.of(listRecipes().stream().map(Recipe::getName).toList());
         this.initialized = true;
     }
 }
@@ -10,34 +10,65 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository that loads recipes from a file system directory.
  * Only accepts recipes with .levain.yaml extension.
+ *
+ * Parsed recipes are kept in a {@link RecipeIndexCache} keyed by the names,
+ * sizes and mtimes of the recipe files, so an unchanged directory is not
+ * parsed again. Wrappers that know a cheaper key for the directory content
+ * (e.g. a git commit) can supply it with {@link #setIndexKey(String)}.
+ *
+ * Loading also records the file each recipe came from, so reading a recipe's
+ * YAML is a single file read wherever it sits in the tree.
  */
 @Dependent
 public class DirectoryRepository extends AbstractRepository {
     private static final Logger logger = LogManager.getLogger(DirectoryRepository.class);
     private final String directoryPath;
     private final RecipeLoader recipeLoader;
+    private final RecipeIndexCache indexCache;
+    private String indexKey;
     private Map<String, Recipe> recipes = Collections.emptyMap();
+    private Map<String, Path> recipePaths = Collections.emptyMap();
 
     public DirectoryRepository(String name, String directoryPath) {
         super(name, directoryPath);
         this.directoryPath = directoryPath;
         this.recipeLoader = new RecipeLoader();
+        // Without a path there is nothing to index; init logs the failure
+        this.indexCache = directoryPath != null
+                ? new RecipeIndexCache(Paths.get(directoryPath).toAbsolutePath().normalize().toString())
+                : null;
+    }
+
+    /**
+     * Use {@code key} instead of a file listing to validate the recipe index.
+     * The key must change whenever the directory content changes.
+     */
+    void setIndexKey(String key) {
+        this.indexKey = key;
+    }
+
+    RecipeIndexCache getIndexCache() {
+        return indexCache;
     }
 
     @Override
     public void init() {
         logger.debug("Initializing DirectoryRepository: {}", directoryPath);
         try {
-            this.recipes = recipeLoader.loadRecipesFromDirectory(directoryPath);
+            loadRecipes();
             setInitialized();
             logger.info("DirectoryRepository initialized with {} recipes from {}", recipes.size(), directoryPath);
         } catch (Exception e) {
@@ -46,6 +77,53 @@ public class DirectoryRepository extends AbstractRepository {
         }
     }
 
+    /**
+     * Load recipes and their paths from the index cache when it is current,
+     * otherwise parse the recipe files and refresh the cache.
+     */
+    private void loadRecipes() {
+        Path root = Paths.get(directoryPath);
+        if (!Files.isDirectory(root)) {
+            this.recipes = recipeLoader.loadRecipesFromDirectory(directoryPath);
+            this.recipePaths = Collections.emptyMap();
+            return;
+        }
+
+        List<Path> files = null;
+        String key = indexKey;
+        if (key == null) {
+            files = recipeLoader.findRecipeFiles(directoryPath);
+            key = RecipeIndexCache.fingerprint(root, files);
+        }
+
+        Map<String, Recipe> loaded = new LinkedHashMap<>();
+        Map<String, Path> paths = new HashMap<>();
+        Optional<List<RecipeIndexCache.Entry>> cached = indexCache.read(key);
+        if (cached.isPresent()) {
+            for (RecipeIndexCache.Entry entry : cached.get()) {
+                loaded.put(entry.name(), entry.toRecipe());
+                paths.put(entry.name(), root.resolve(entry.path()));
+            }
+            logger.debug("Loaded {} recipes from index cache for {}", loaded.size(), directoryPath);
+        } else {
+            if (files == null) {
+                files = recipeLoader.findRecipeFiles(directoryPath);
+            }
+            List<RecipeIndexCache.Entry> entries = new ArrayList<>();
+            for (Map.Entry<Path, Recipe> parsed : recipeLoader.loadRecipeFiles(files).entrySet()) {
+                Recipe recipe = parsed.getValue();
+                loaded.put(recipe.getName(), recipe);
+                paths.put(recipe.getName(), parsed.getKey());
+                entries.add(RecipeIndexCache.Entry.of(root.relativize(parsed.getKey()).toString().replace('\\', '/'),
+                        recipe));
+            }
+            indexCache.write(key, entries);
+        }
+
+        this.recipes = loaded;
+        this.recipePaths = paths;
+    }
+
     @Override
     public List<Recipe> listRecipes() {
         return List.copyOf(recipes.values());
@@ -62,6 +140,17 @@ public class DirectoryRepository extends AbstractRepository {
             return Optional.empty();
         }
 
+        Path indexedPath = recipePaths.get(recipeName);
+        if (indexedPath != null) {
+            try {
+                return Optional.of(Files.readString(indexedPath));
+            } catch (IOException e) {
+                logger.error("Failed to read recipe file {}: {}", indexedPath, e.getMessage());
+                return Optional.empty();
+            }
+        }
+
+        // Not indexed: look for the file by name
         // All recipe files use .levain.yaml extension
         Path recipePath = Paths.get(directoryPath, recipeName + ".levain.yaml");
         if (Files.exists(recipePath)) {
@@ -73,8 +162,8 @@ public class DirectoryRepository extends AbstractRepository {
         }
 
         // Fallback: search subdirectories for .levain.yaml files
-        try {
-            Path result = Files.walk(Paths.get(directoryPath))
+        try (Stream<Path> walk = Files.walk(Paths.get(directoryPath))) {
+            Path result = walk
                     .filter(Files::isRegularFile)
                     .filter(p -> {
                         String fileName = p.getFileName().toString();
@@ -0,0 +1,163 @@
+package com.github.jmoalves.levain.repository;
+
+import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.RecipeLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Reads recipes straight from git objects: the {@code *.levain.yaml} blobs in
+ * a commit's tree, without a working tree.
+ */
+final class GitRecipeTree {
+    private static final Logger logger = LogManager.getLogger(GitRecipeTree.class);
+
+    private GitRecipeTree() {
+    }
+
+    /**
+     * A recipe file in a git tree.
+     */
+    record RecipeBlob(String path, String name, ObjectId blobId) {
+    }
+
+    /**
+     * A recipe parsed from a blob, with the path it was read from.
+     */
+    record ParsedRecipe(String path, Recipe recipe) {
+    }
+
+    /**
+     * List the recipe files in the tree of {@code commitId}.
+     */
+    static List<RecipeBlob> listRecipeBlobs(Repository repository, ObjectId commitId) throws IOException {
+        List<RecipeBlob> blobs = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository);
+                TreeWalk treeWalk = new TreeWalk(repository)) {
+            RevCommit commit = revWalk.parseCommit(commitId);
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create(AbstractRepository.RECIPE_EXTENSION));
+            while (treeWalk.next()) {
+                String name = AbstractRepository.recipeName(treeWalk.getNameString());
+                if (name != null) {
+                    blobs.add(new RecipeBlob(treeWalk.getPathString(), name, treeWalk.getObjectId(0)));
+                }
+            }
+        }
+        return blobs;
+    }
+
+    /**
+     * Recipe files that differ between two commits: {@code changed} holds the
+     * added or modified ones, as they are in the new commit; {@code removed}
+     * holds the paths whose old version no longer applies (modified or
+     * deleted).
+     */
+    record TreeDiff(List<RecipeBlob> changed, Set<String> removed) {
+    }
+
+    /**
+     * Compare the recipe files of two commits. Renames show up as a removal
+     * and an addition.
+     */
+    static TreeDiff diffRecipeBlobs(Repository repository, ObjectId oldCommitId, ObjectId newCommitId)
+            throws IOException {
+        List<RecipeBlob> changed = new ArrayList<>();
+        Set<String> removed = new HashSet<>();
+        try (RevWalk revWalk = new RevWalk(repository);
+                TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(oldCommitId).getTree());
+            treeWalk.addTree(revWalk.parseCommit(newCommitId).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathSuffixFilter.create(AbstractRepository.RECIPE_EXTENSION), TreeFilter.ANY_DIFF));
+            while (treeWalk.next()) {
+                if (treeWalk.getRawMode(0) != 0) {
+                    removed.add(treeWalk.getPathString());
+                }
+                String name = AbstractRepository.recipeName(treeWalk.getNameString());
+                if (treeWalk.getRawMode(1) != 0 && name != null) {
+                    changed.add(new RecipeBlob(treeWalk.getPathString(), name, treeWalk.getObjectId(1)));
+                }
+            }
+        }
+        return new TreeDiff(changed, removed);
+    }
+
+    /**
+     * Read and parse recipe blobs. Blobs are read on the calling thread (an
+     * ObjectReader is not thread-safe) and parsed in parallel. Blobs that
+     * fail to parse are logged and skipped.
+     *
+     * @return parsed recipes, in the order of {@code blobs}
+     */
+    static List<ParsedRecipe> parse(Repository repository, List<RecipeBlob> blobs) throws IOException {
+        List<String> contents = new ArrayList<>(blobs.size());
+        try (ObjectReader reader = repository.newObjectReader()) {
+            for (RecipeBlob blob : blobs) {
+                contents.add(read(reader, blob.blobId()));
+            }
+        }
+
+        List<Recipe> parsed = IntStream.range(0, blobs.size())
+                .parallel()
+                .mapToObj(i -> parseOrNull(blobs.get(i), contents.get(i)))
+                .toList();
+
+        List<ParsedRecipe> recipes = new ArrayList<>(blobs.size());
+        for (int i = 0; i < blobs.size(); i++) {
+            if (parsed.get(i) != null) {
+                recipes.add(new ParsedRecipe(blobs.get(i).path(), parsed.get(i)));
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Read the file at {@code path} in the tree of {@code commitId}.
+     */
+    static Optional<String> readFile(Repository repository, ObjectId commitId, String path) throws IOException {
+        try (RevWalk revWalk = new RevWalk(repository);
+                ObjectReader reader = repository.newObjectReader()) {
+            RevCommit commit = revWalk.parseCommit(commitId);
+            try (TreeWalk treeWalk = TreeWalk.forPath(reader, path, commit.getTree())) {
+                if (treeWalk == null) {
+                    return Optional.empty();
+                }
+                return Optional.of(read(reader, treeWalk.getObjectId(0)));
+            }
+        }
+    }
+
+    private static String read(ObjectReader reader, ObjectId blobId) throws IOException {
+        return new String(reader.open(blobId, Constants.OBJ_BLOB).getBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static Recipe parseOrNull(RecipeBlob blob, String content) {
+        try {
+            return RecipeLoader.parseRecipeYaml(content, blob.name());
+        } catch (RuntimeException e) {
+            logger.error("Failed to load recipe from {}: {}", blob.path(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -4,22 +4,36 @@ import com.github.jmoalves.levain.model.Recipe;
 import jakarta.enterprise.context.Dependent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.BranchConfig;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import com.github.jmoalves.levain.util.FileUtils;
 import com.github.jmoalves.levain.util.JGitProgressMonitor;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository that loads recipes from a Git repository.
@@ -27,25 +41,71 @@ import java.util.stream.Collectors;
  *
  * The repository is cloned or pulled to a local cache directory.
  * Recipes are then loaded from the local copy.
+ *
+ * An existing clone is not updated on every run. The time of the last
+ * successful update is kept in {@code .git/levain-refreshed}; within the
+ * refresh TTL (default 60 minutes, override with levain.git.refreshTtl or
+ * LEVAIN_GIT_REFRESH_TTL, in minutes) the local copy is used as is. Past the
+ * TTL the local copy is still used, and a fetch runs in the background; what
+ * it fetched is fast-forwarded into the clone at the start of the next run.
+ * Exit does not wait for that fetch; one cut short is simply done again.
+ * The first clone is made in a sibling directory and renamed into place only
+ * when complete, so a clone cut short is never taken for a local copy.
+ * Setting levain.repository.refresh (the {@code --refresh} option) pulls
+ * synchronously instead.
+ *
+ * With levain.git.bare (or LEVAIN_GIT_BARE) set to true, the repository is
+ * kept as a bare, depth-1 clone instead and recipes are read from the
+ * {@code *.levain.yaml} blobs of the HEAD tree; no working tree is checked
+ * out.
+ *
+ * Either way, parsed recipes are kept in the {@link RecipeIndexCache} along
+ * with the commit they were read from. When HEAD moves, the old and new trees
+ * are compared and only the recipe files that were added or modified are
+ * parsed again.
  */
 @Dependent
 public class GitRepository extends AbstractRepository {
     private static final Logger logger = LogManager.getLogger(GitRepository.class);
+    public static final String REFRESH_PROPERTY = "levain.repository.refresh";
+    static final Duration DEFAULT_REFRESH_TTL = Duration.ofMinutes(60);
+    static final String REFRESH_MARKER = "levain-refreshed";
+    // A ref lock older than this was left by a fetch cut short at exit
+    static final Duration STALE_LOCK_AGE = Duration.ofMinutes(10);
+    // Clones are made in "<dir>.clone-*" and renamed into place when complete
+    static final String CLONE_SUFFIX = ".clone-";
+    // A clone directory older than this was left by a clone cut short at exit
+    static final Duration ABANDONED_CLONE_AGE = Duration.ofDays(1);
+    // Bare mode fetches only the branch heads, replacing local ones
+    private static final String BARE_REFSPEC = "+refs/heads/*:refs/heads/*";
+    private static final String INDEX_KEY_PREFIX = "git:";
+
     private final String gitUrl;
     private final String localCachePath;
+    private final boolean bare;
     private DirectoryRepository localRepository;
     private Map<String, Recipe> recipes = Collections.emptyMap();
+    // Bare mode: commit the recipes were read from, and recipe name -> path
+    private ObjectId headCommit;
+    private Map<String, String> recipePaths = Collections.emptyMap();
 
     public GitRepository(String gitUrl) {
         super("GitRepository", gitUrl);
         this.gitUrl = gitUrl;
         this.localCachePath = getDefaultCacheDirectory(gitUrl);
+        this.bare = isBareMode();
     }
 
     @Override
     public void init() {
         logger.debug("Initializing GitRepository from: {}", gitUrl);
         try {
+            if (bare) {
+                loadFromGitObjects();
+                setInitialized();
+                logger.info("GitRepository initialized with {} recipes from {}", recipes.size(), gitUrl);
+                return;
+            }
             ensureLocalCopy();
             if (localRepository != null) {
                 localRepository.init();
@@ -74,6 +134,9 @@ public class GitRepository extends AbstractRepository {
 
     @Override
     public Optional<String> getRecipeYamlContent(String recipeName) {
+        if (bare) {
+            return readRecipeBlob(recipeName);
+        }
         // Delegate to the local directory repository
         if (localRepository != null) {
             return localRepository.getRecipeYamlContent(recipeName);
@@ -94,7 +157,9 @@ public class GitRepository extends AbstractRepository {
 
     /**
      * Ensure we have a local copy of the git repository.
-     * Clones if not present, otherwise pulls latest changes.
+     * Clones if not present. Otherwise applies what the last background fetch
+     * brought in and then, depending on the refresh TTL, uses the copy as is,
+     * starts a background fetch or pulls right away.
      */
     private void ensureLocalCopy() throws IOException {
         File localDir = new File(localCachePath);
@@ -107,16 +172,176 @@ public class GitRepository extends AbstractRepository {
                 deleteDirectory(localDir);
             }
             logger.debug("Cloning git repository from {} to {}", gitUrl, localCachePath);
-            cloneRepository(localDir);
+            cloneInto(localDir, false);
             logger.debug("Successfully cloned repository");
-        } else {
+        } else if (isRefreshForced()) {
             logger.debug("Updating existing repository at {}", localCachePath);
             pullRepository(localDir);
+            markRefreshed(gitDir);
             logger.debug("Successfully pulled latest changes");
+        } else {
+            applyFetchedChanges(localDir);
+            if (isStale(gitDir, getRefreshTtl())) {
+                startBackgroundFetch(gitDir, false);
+            } else {
+                logger.debug("Using local copy at {} (refreshed within TTL)", localCachePath);
+            }
         }
 
         // Create directory repository for the local copy
         this.localRepository = new DirectoryRepository("LocalGitRepository", localCachePath);
+        try (Repository repository = openLocal(localDir)) {
+            ObjectId head = repository.resolve("HEAD");
+            if (head != null) {
+                // The checkout matches HEAD, so the commit identifies its
+                // recipes; indexing it here leaves the directory repository a
+                // cache hit
+                localRepository.setIndexKey(INDEX_KEY_PREFIX + head.name());
+                indexCommit(repository, head, localRepository.getIndexCache());
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to index {} from git objects: {}", localCachePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Bare mode: make sure the bare clone exists and is fresh enough, then
+     * load recipes from the HEAD tree. Parsed recipes are cached per commit.
+     */
+    private void loadFromGitObjects() throws IOException {
+        File gitDir = getBareDirectory();
+        ensureBareCopy(gitDir);
+
+        try (Repository repository = openBare(gitDir)) {
+            ObjectId head = repository.resolve("HEAD");
+            if (head == null) {
+                logger.warn("Git repository {} has no commits", gitUrl);
+                return;
+            }
+
+            List<RecipeIndexCache.Entry> entries = indexCommit(repository, head,
+                    new RecipeIndexCache(gitDir.getAbsolutePath()));
+
+            Map<String, Recipe> loaded = new LinkedHashMap<>();
+            Map<String, String> paths = new HashMap<>();
+            for (RecipeIndexCache.Entry entry : entries) {
+                loaded.put(entry.name(), entry.toRecipe());
+                paths.put(entry.name(), entry.path());
+            }
+            this.recipes = loaded;
+            this.recipePaths = paths;
+            this.headCommit = head;
+        }
+    }
+
+    /**
+     * Bare mode counterpart of {@link #ensureLocalCopy()}. There is no working
+     * tree to fast-forward: a fetch moves the branch heads directly, so what a
+     * background fetch brought in is used on the next run.
+     */
+    private void ensureBareCopy(File gitDir) throws IOException {
+        if (!new File(gitDir, "HEAD").isFile()) {
+            if (gitDir.exists()) {
+                logger.debug("Deleting incomplete repository at {}", gitDir);
+                deleteDirectory(gitDir);
+            }
+            logger.debug("Cloning bare git repository from {} to {}", gitUrl, gitDir);
+            cloneInto(gitDir, true);
+        } else if (isRefreshForced()) {
+            logger.debug("Fetching into bare repository at {}", gitDir);
+            try (Repository repository = openBare(gitDir);
+                    Git git = new Git(repository)) {
+                fetch(git, true);
+            } catch (GitAPIException e) {
+                throw new IOException("Failed to fetch git repository: " + gitUrl + ": " + e.getMessage(), e);
+            }
+            markRefreshed(gitDir);
+        } else if (isStale(gitDir, getRefreshTtl())) {
+            startBackgroundFetch(gitDir, true);
+        } else {
+            logger.debug("Using bare copy at {} (refreshed within TTL)", gitDir);
+        }
+    }
+
+    private Optional<String> readRecipeBlob(String recipeName) {
+        String path = recipePaths.get(recipeName);
+        if (path == null || headCommit == null) {
+            return Optional.empty();
+        }
+        try (Repository repository = openBare(getBareDirectory())) {
+            return GitRecipeTree.readFile(repository, headCommit, path);
+        } catch (IOException e) {
+            logger.warn("Failed to read {} from {}: {}", path, gitUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private File getBareDirectory() {
+        return new File(localCachePath + ".git");
+    }
+
+    /**
+     * Recipes at commit {@code head}, from the index cache when it was built
+     * for that commit. When it was built for an older commit, only the recipe
+     * files that changed since are parsed; otherwise the whole tree is.
+     */
+    private List<RecipeIndexCache.Entry> indexCommit(Repository repository, ObjectId head, RecipeIndexCache cache)
+            throws IOException {
+        String key = INDEX_KEY_PREFIX + head.name();
+        RecipeIndexCache.Snapshot previous = cache.readSnapshot().orElse(null);
+        if (previous != null && key.equals(previous.key())) {
+            return previous.recipes();
+        }
+
+        List<RecipeIndexCache.Entry> entries = null;
+        ObjectId base = previous != null ? indexedCommit(repository, previous.key()) : null;
+        if (base != null) {
+            try {
+                GitRecipeTree.TreeDiff diff = GitRecipeTree.diffRecipeBlobs(repository, base, head);
+                entries = new ArrayList<>();
+                for (RecipeIndexCache.Entry entry : previous.recipes()) {
+                    if (!diff.removed().contains(entry.path())) {
+                        entries.add(entry);
+                    }
+                }
+                addEntries(entries, GitRecipeTree.parse(repository, diff.changed()));
+                logger.debug("Updated recipe index of {} from {} to {}: {} changed, {} removed", gitUrl,
+                        base.name(), head.name(), diff.changed().size(), diff.removed().size());
+            } catch (IOException e) {
+                // e.g. a shallow fetch dropped the old tree
+                logger.debug("Cannot diff {} against {}: {}", head.name(), base.name(), e.getMessage());
+                entries = null;
+            }
+        }
+        if (entries == null) {
+            entries = new ArrayList<>();
+            addEntries(entries, GitRecipeTree.parse(repository, GitRecipeTree.listRecipeBlobs(repository, head)));
+        }
+
+        cache.write(key, entries);
+        return entries;
+    }
+
+    private static void addEntries(List<RecipeIndexCache.Entry> entries, List<GitRecipeTree.ParsedRecipe> parsed) {
+        for (GitRecipeTree.ParsedRecipe recipe : parsed) {
+            entries.add(RecipeIndexCache.Entry.of(recipe.path(), recipe.recipe()));
+        }
+    }
+
+    /**
+     * The commit an index snapshot was built from, if it is still in the
+     * object database.
+     */
+    private static ObjectId indexedCommit(Repository repository, String key) {
+        if (!key.startsWith(INDEX_KEY_PREFIX)) {
+            return null;
+        }
+        try {
+            ObjectId commit = ObjectId.fromString(key.substring(INDEX_KEY_PREFIX.length()));
+            return repository.getObjectDatabase().has(commit) ? commit : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
     }
 
     /**
@@ -136,24 +361,79 @@ public class GitRepository extends AbstractRepository {
         dir.delete();
     }
 
-    private void cloneRepository(File localDir) throws IOException {
+    /**
+     * Clone into a fresh sibling of {@code target} and rename it into place
+     * once complete, refresh record included. A clone abandoned by the init
+     * timeout or cut short at exit then leaves no {@code target} behind.
+     */
+    private void cloneInto(File target, boolean bareClone) throws IOException {
+        Path parent = target.getAbsoluteFile().toPath().getParent();
+        Files.createDirectories(parent);
+        String prefix = target.getName() + CLONE_SUFFIX;
+        deleteAbandonedClones(parent, prefix);
+
+        Path staging = Files.createTempDirectory(parent, prefix);
         JGitProgressMonitor monitor = new JGitProgressMonitor();
         try {
-            Git.cloneRepository()
+            CloneCommand clone = Git.cloneRepository()
                     .setURI(gitUrl)
-                    .setDirectory(localDir)
-                    .setProgressMonitor(monitor)
-                    .call()
-                    .close();
+                    .setDirectory(staging.toFile())
+                    .setProgressMonitor(monitor);
+            if (bareClone) {
+                clone.setBare(true).setDepth(1);
+            }
+            clone.call().close();
+            markRefreshed(bareClone ? staging.toFile() : staging.resolve(".git").toFile());
+            try {
+                Files.move(staging, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Another levain may have cloned it first
+                if (!isCloned(target, bareClone)) {
+                    throw e;
+                }
+                logger.debug("Using {} cloned concurrently", target);
+            }
         } catch (GitAPIException e) {
             throw new IOException("Failed to clone git repository: " + gitUrl + ": " + e.getMessage(), e);
         } finally {
             monitor.finish();
+            if (Files.exists(staging)) {
+                deleteDirectory(staging.toFile());
+            }
+        }
+    }
+
+    private static boolean isCloned(File target, boolean bareClone) {
+        return bareClone ? new File(target, "HEAD").isFile() : new File(target, ".git").exists();
+    }
+
+    /**
+     * Delete clone directories left by runs that exited mid-clone. Recent
+     * ones may belong to a clone still running in another levain.
+     */
+    private void deleteAbandonedClones(Path parent, String prefix) {
+        Instant cutoff = Instant.now().minus(ABANDONED_CLONE_AGE);
+        try (Stream<Path> siblings = Files.list(parent)) {
+            siblings.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .filter(path -> {
+                        try {
+                            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(path -> {
+                        logger.debug("Deleting abandoned clone {}", path);
+                        deleteDirectory(path.toFile());
+                    });
+        } catch (IOException e) {
+            logger.debug("Failed to look for abandoned clones in {}: {}", parent, e.getMessage());
         }
     }
 
     private void pullRepository(File localDir) throws IOException {
         File gitDir = new File(localDir, ".git");
+        clearStaleLocks(gitDir);
         FileRepositoryBuilder builder = new FileRepositoryBuilder();
         JGitProgressMonitor monitor = new JGitProgressMonitor();
         try (Repository repository = builder.setGitDir(gitDir)
@@ -170,6 +450,173 @@ public class GitRepository extends AbstractRepository {
         }
     }
 
+    private Repository openLocal(File localDir) throws IOException {
+        return new FileRepositoryBuilder()
+                .setGitDir(new File(localDir, ".git"))
+                .setWorkTree(localDir)
+                .build();
+    }
+
+    private static Repository openBare(File gitDir) throws IOException {
+        return new FileRepositoryBuilder()
+                .setGitDir(gitDir)
+                .setBare()
+                .build();
+    }
+
+    /**
+     * Fetch from origin. A bare clone stays shallow and updates its branch
+     * heads in place.
+     */
+    private static void fetch(Git git, boolean bare) throws GitAPIException {
+        clearStaleLocks(git.getRepository().getDirectory());
+        if (bare) {
+            git.fetch()
+                    .setRefSpecs(BARE_REFSPEC)
+                    .setDepth(1)
+                    .call();
+        } else {
+            git.fetch().call();
+        }
+    }
+
+    /**
+     * Fast-forward the checkout to the upstream commit a previous background
+     * fetch brought in. Local only: no network access.
+     */
+    private void applyFetchedChanges(File localDir) {
+        try (Repository repository = openLocal(localDir);
+                Git git = new Git(repository)) {
+            String branch = repository.getBranch();
+            String tracking = branch != null ? new BranchConfig(repository.getConfig(), branch).getTrackingBranch()
+                    : null;
+            ObjectId upstream = tracking != null ? repository.resolve(tracking) : null;
+            ObjectId head = repository.resolve("HEAD");
+            if (upstream == null || upstream.equals(head)) {
+                return;
+            }
+            MergeResult result = git.merge()
+                    .include(upstream)
+                    .setFastForward(MergeCommand.FastForwardMode.FF_ONLY)
+                    .call();
+            logger.debug("Applied fetched changes to {}: {}", localCachePath, result.getMergeStatus());
+        } catch (IOException | GitAPIException e) {
+            logger.warn("Failed to apply fetched changes to {}: {}", localCachePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch from the remote on a background thread. The result is applied by
+     * {@link #applyFetchedChanges(File)} on the next run.
+     */
+    private void startBackgroundFetch(File gitDir, boolean bare) {
+        logger.debug("Local copy at {} is past its refresh TTL - fetching in the background", gitDir);
+        Thread thread = new Thread(() -> {
+            try (Repository repository = bare ? openBare(gitDir) : openLocal(gitDir.getParentFile());
+                    Git git = new Git(repository)) {
+                fetch(git, bare);
+                markRefreshed(gitDir);
+                logger.debug("Background fetch of {} finished", gitUrl);
+            } catch (IOException | GitAPIException e) {
+                logger.debug("Background fetch of {} failed: {}", gitUrl, e.getMessage());
+            }
+        }, "levain-git-fetch");
+        // Exit does not wait for the fetch: the next run fetches again
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Delete the ref lock files a fetch leaves behind when the JVM exits in
+     * the middle of it; they would make every later fetch fail. Refs
+     * themselves are only replaced by renaming a complete lock file, so an
+     * interrupted fetch leaves either the old or the new ref.
+     */
+    static void clearStaleLocks(File gitDir) {
+        Path root = gitDir.toPath();
+        List<Path> locks = new ArrayList<>();
+        for (String name : List.of("packed-refs.lock", "shallow.lock", "FETCH_HEAD.lock")) {
+            locks.add(root.resolve(name));
+        }
+        Path refs = root.resolve("refs");
+        if (Files.isDirectory(refs)) {
+            try (Stream<Path> walk = Files.walk(refs)) {
+                walk.filter(path -> path.getFileName().toString().endsWith(".lock")).forEach(locks::add);
+            } catch (IOException e) {
+                logger.debug("Failed to look for stale locks in {}: {}", refs, e.getMessage());
+            }
+        }
+
+        Instant cutoff = Instant.now().minus(STALE_LOCK_AGE);
+        for (Path lock : locks) {
+            try {
+                if (Files.isRegularFile(lock) && Files.getLastModifiedTime(lock).toInstant().isBefore(cutoff)) {
+                    Files.delete(lock);
+                    logger.debug("Deleted stale lock {}", lock);
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to delete stale lock {}: {}", lock, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Record a successful update. The marker is replaced atomically, and only
+     * once the update finished, so a fetch cut short leaves the previous time.
+     */
+    private static void markRefreshed(File gitDir) {
+        try {
+            Path marker = gitDir.toPath().resolve(REFRESH_MARKER);
+            FileUtils.writeAtomically(marker, Instant.now().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.debug("Failed to record refresh time in {}: {}", gitDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the last successful clone, pull or fetch is older than
+     * {@code ttl}. A clone without a refresh record is stale.
+     */
+    static boolean isStale(File gitDir, Duration ttl) {
+        Path marker = gitDir.toPath().resolve(REFRESH_MARKER);
+        try {
+            Instant refreshed = Files.getLastModifiedTime(marker).toInstant();
+            return refreshed.plus(ttl).isBefore(Instant.now());
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    static boolean isRefreshForced() {
+        return Boolean.parseBoolean(System.getProperty(REFRESH_PROPERTY));
+    }
+
+    static boolean isBareMode() {
+        String value = System.getProperty("levain.git.bare");
+        if (value == null) {
+            value = System.getenv("LEVAIN_GIT_BARE");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    static Duration getRefreshTtl() {
+        String value = System.getProperty("levain.git.refreshTtl");
+        if (value == null) {
+            value = System.getenv("LEVAIN_GIT_REFRESH_TTL");
+        }
+        if (value != null && !value.isBlank()) {
+            try {
+                long minutes = Long.parseLong(value.trim());
+                if (minutes >= 0) {
+                    return Duration.ofMinutes(minutes);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid git refresh TTL: {}", value);
+            }
+        }
+        return DEFAULT_REFRESH_TTL;
+    }
+
     /**
      * Load recipes from the local repository copy.
      */
@@ -209,6 +656,9 @@ public class GitRepository extends AbstractRepository {
 
     @Override
     public String describe() {
+        if (bare && headCommit != null) {
+            return String.format("GitRepository (%s -> %s)", gitUrl, getBareDirectory());
+        }
         if (localRepository != null) {
             return String.format("GitRepository (%s -> %s)", gitUrl, localCachePath);
         }
@@ -0,0 +1,195 @@
+package com.github.jmoalves.levain.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jmoalves.levain.model.Recipe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * On-disk snapshot of a repository's parsed recipes, so an unchanged
+ * repository is not re-parsed on every run.
+ *
+ * There is one JSON file per repository location under
+ * {@code <cache>/index}. It holds a key describing the repository state it
+ * was built from (file sizes and mtimes, a git commit, ...) and, for each
+ * recipe, its parsed fields and the path of its file. The snapshot is only
+ * used when the caller's current key matches; otherwise the caller parses
+ * again and writes a new snapshot.
+ */
+class RecipeIndexCache {
+    private static final Logger logger = LogManager.getLogger(RecipeIndexCache.class);
+    // Bump when the snapshot layout or recipe parsing changes
+    static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+
+    RecipeIndexCache(String location) {
+        this(getDefaultIndexDirectory(), location);
+    }
+
+    RecipeIndexCache(Path directory, String location) {
+        this.file = directory.resolve(sha256(location) + ".json");
+    }
+
+    /**
+     * Read the snapshot if it was built for {@code key}.
+     */
+    Optional<List<Entry>> read(String key) {
+        Optional<Snapshot> snapshot = readSnapshot();
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!key.equals(snapshot.get().key())) {
+            logger.debug("Recipe index {} is stale", file);
+            return Optional.empty();
+        }
+        logger.debug("Using recipe index {} ({} recipes)", file, snapshot.get().recipes().size());
+        return Optional.of(snapshot.get().recipes());
+    }
+
+    /**
+     * Read the snapshot whatever key it was built for, so a caller that can
+     * tell what changed since that key can update it instead of starting
+     * over.
+     */
+    Optional<Snapshot> readSnapshot() {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            Snapshot snapshot = MAPPER.readValue(file.toFile(), Snapshot.class);
+            if (snapshot.format() != FORMAT_VERSION || snapshot.key() == null || snapshot.recipes() == null) {
+                logger.debug("Ignoring recipe index {} in an old format", file);
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable recipe index {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replace the snapshot. Failures are logged: the cache is only an
+     * optimization.
+     */
+    void write(String key, List<Entry> entries) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            MAPPER.writeValue(temp.toFile(), new Snapshot(FORMAT_VERSION, key, entries));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote recipe index {} ({} recipes)", file, entries.size());
+        } catch (IOException e) {
+            logger.warn("Failed to write recipe index {}: {}", file, e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Key for a set of files: their paths relative to {@code root}, sizes and
+     * modification times.
+     */
+    static String fingerprint(Path root, List<Path> files) {
+        MessageDigest digest = newDigest();
+        for (Path path : files) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                String line = root.relativize(path).toString().replace('\\', '/') + '|' + attributes.size() + '|'
+                        + attributes.lastModifiedTime().toMillis() + '\n';
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                digest.update((path + "|missing\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return "files:" + files.size() + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    static Path getDefaultIndexDirectory() {
+        String cacheDir = System.getProperty("levain.cache.dir");
+        if (cacheDir == null) {
+            cacheDir = System.getenv("LEVAIN_CACHE_DIR");
+        }
+        if (cacheDir == null) {
+            cacheDir = Paths.get(System.getProperty("user.home"), ".levain", "cache").toString();
+        }
+        return Paths.get(cacheDir, "index");
+    }
+
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    record Snapshot(int format, String key, List<Entry> recipes) {
+    }
+
+    /**
+     * A parsed recipe and the path of its file, relative to the repository
+     * root (the entry name, for an archive).
+     *
+     * Every recipe is a file of its own, so the path is what locates its raw
+     * YAML: there are no offsets into a shared file to keep. The YAML is read
+     * from that file, or archive entry, only when a caller asks for it.
+     */
+    record Entry(String path, String name, String version, String description, String recipesDir,
+            List<String> dependencies, Map<String, List<String>> commands, Map<String, Object> attributes) {
+
+        static Entry of(String path, Recipe recipe) {
+            return new Entry(path, recipe.getName(), recipe.getVersion(), recipe.getDescription(),
+                    recipe.getRecipesDir(), recipe.getDependencies(), recipe.getCommands(),
+                    recipe.getCustomAttributes());
+        }
+
+        Recipe toRecipe() {
+            Recipe recipe = new Recipe();
+            recipe.setName(name);
+            recipe.setVersion(version);
+            recipe.setDescription(description);
+            recipe.setRecipesDir(recipesDir);
+            recipe.setDependencies(dependencies != null ? new ArrayList<>(dependencies) : new ArrayList<>());
+            recipe.setCommands(commands != null ? new LinkedHashMap<>(commands) : null);
+            if (attributes != null) {
+                attributes.forEach(recipe::addCustomAttribute);
+            }
+            return recipe;
+        }
+    }
+}
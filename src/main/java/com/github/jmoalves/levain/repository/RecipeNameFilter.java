@@ -0,0 +1,94 @@
+package com.github.jmoalves.levain.repository;
+
+import java.util.Collection;
+
+/**
+ * Compact membership filter (a Bloom filter) over the recipe names of a
+ * repository.
+ *
+ * {@link #mightContain(String)} never answers false for a name the filter was
+ * built with, and answers true for about 1% of the other names. A repository
+ * builds its filter when it loads its recipes, so {@link RepositoryManager}
+ * can skip repositories that definitely do not hold a recipe without looking
+ * into them.
+ */
+public final class RecipeNameFilter {
+    /** Filter of a repository that cannot tell: every name might be there. */
+    public static final RecipeNameFilter ALL = new RecipeNameFilter(null, 0);
+
+    // About 1% false positives: 10 bits and 7 hashes per name
+    private static final int BITS_PER_NAME = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+    private final int bitCount;
+
+    private RecipeNameFilter(long[] bits, int bitCount) {
+        this.bits = bits;
+        this.bitCount = bitCount;
+    }
+
+    /**
+     * Build the filter of a set of recipe names.
+     */
+    public static RecipeNameFilter of(Collection<String> names) {
+        int bitCount = Math.max(64, names.size() * BITS_PER_NAME);
+        RecipeNameFilter filter = new RecipeNameFilter(new long[(bitCount + 63) / 64], bitCount);
+        for (String name : names) {
+            if (name != null) {
+                filter.add(name);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * @return false if {@code name} is definitely not in the filter
+     */
+    public boolean mightContain(String name) {
+        if (bits == null) {
+            return true;
+        }
+        if (name == null) {
+            return false;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(String name) {
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the name's characters, with a final mix so both
+     * halves are usable as independent hashes.
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
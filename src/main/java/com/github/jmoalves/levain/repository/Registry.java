@@ -3,18 +3,23 @@ package com.github.jmoalves.levain.repository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.github.jmoalves.levain.model.Recipe;
-import com.github.jmoalves.levain.service.RecipeLoader;
+import com.github.jmoalves.levain.util.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Registry of installed recipes.
@@ -32,10 +37,23 @@ import java.util.Optional;
  * 
  * Default location: ~/.levain/registry/
  * Each recipe is stored as a YAML file: {recipeName}.yml
+ *
+ * Queries are answered from a {@link RegistryIndex} loaded once per process
+ * and registry directory, and shared by all Registry instances on that
+ * directory.
+ *
+ * Several threads or levain processes may change the registry at once:
+ * files are written to a temporary file and moved into place, and changes
+ * hold a {@link RegistryLock} on the recipe, then on the index. Queries take
+ * no lock.
  */
 public class Registry implements Repository {
     private static final Logger logger = LogManager.getLogger(Registry.class);
     private static final String DEFAULT_REGISTRY_DIR = System.getProperty("user.home") + "/.levain/registry";
+    static final String RECIPE_EXTENSION = ".levain.yaml";
+    static final String METADATA_EXTENSION = ".levain.meta";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Map<Path, RegistryIndex> indexes = new ConcurrentHashMap<>();
 
     private final Path registryPath;
     private boolean initialized = false;
@@ -96,30 +114,11 @@ public class Registry implements Repository {
     @Override
     public List<Recipe> listRecipes() {
         ensureInitialized();
-        List<Recipe> recipes = new ArrayList<>();
-
-        try {
-            File[] files = registryPath.toFile()
-                    .listFiles((dir, name) -> name.endsWith(".levain.yaml"));
-
-            if (files != null) {
-                for (File file : files) {
-                    try {
-                        String yamlContent = Files.readString(file.toPath());
-                        String recipeName = extractRecipeName(file.getName());
-                        Recipe recipe = RecipeLoader.parseRecipeYaml(yamlContent, recipeName);
-                        recipes.add(recipe);
-                    } catch (Exception e) {
-                        logger.warn("Failed to load recipe from registry file {}: {}",
-                                file.getName(), e.getMessage());
-                    }
-                }
-            }
-            logger.debug("Listed {} recipes from registry", recipes.size());
-        } catch (Exception e) {
-            logger.error("Failed to list recipes from registry: {}", e.getMessage());
-        }
-
+        List<Recipe> recipes = index().entries().stream()
+                .filter(entry -> entry.recipe() != null)
+                .map(entry -> entry.recipe().toRecipe())
+                .toList();
+        logger.debug("Listed {} recipes from registry", recipes.size());
         return recipes;
     }
 
@@ -127,19 +126,12 @@ public class Registry implements Repository {
     public Optional<Recipe> resolveRecipe(String recipeName) {
         ensureInitialized();
 
-        try {
-            Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-            if (Files.exists(recipePath)) {
-                String yamlContent = Files.readString(recipePath);
-                Recipe recipe = RecipeLoader.parseRecipeYaml(yamlContent, recipeName);
-                logger.debug("Resolved recipe '{}' from registry", recipeName);
-                return Optional.of(recipe);
-            }
-            logger.debug("Recipe '{}' not found in registry", recipeName);
-        } catch (Exception e) {
-            logger.error("Failed to resolve recipe '{}' from registry: {}", recipeName, e.getMessage());
+        Optional<RegistryIndex.Entry> entry = index().get(recipeName);
+        if (entry.isPresent() && entry.get().recipe() != null) {
+            logger.debug("Resolved recipe '{}' from registry", recipeName);
+            return Optional.of(entry.get().recipe().toRecipe());
         }
-
+        logger.debug("Recipe '{}' not found in registry", recipeName);
         return Optional.empty();
     }
 
@@ -147,12 +139,12 @@ public class Registry implements Repository {
     public Optional<String> getRecipeYamlContent(String recipeName) {
         ensureInitialized();
 
+        if (!isInstalled(recipeName)) {
+            return Optional.empty();
+        }
         try {
-            // Recipe files are always stored as .levain.yaml
-            Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-            if (Files.exists(recipePath)) {
-                return Optional.of(Files.readString(recipePath));
-            }
+            // The YAML file, not the index, holds the full recipe
+            return Optional.of(Files.readString(registryPath.resolve(recipeName + RECIPE_EXTENSION)));
         } catch (IOException e) {
             logger.error("Failed to read YAML content for '{}' from registry: {}", recipeName, e.getMessage());
         }
@@ -171,9 +163,8 @@ public class Registry implements Repository {
             return Optional.empty();
         }
 
-        Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-        if (Files.exists(recipePath)) {
-            return Optional.of(recipeName + ".levain.yaml");
+        if (isInstalled(recipeName)) {
+            return Optional.of(recipeName + RECIPE_EXTENSION);
         }
 
         return Optional.empty();
@@ -182,14 +173,13 @@ public class Registry implements Repository {
     @Override
     public int size() {
         ensureInitialized();
-        try {
-            File[] files = registryPath.toFile()
-                    .listFiles((dir, name) -> name.endsWith(".levain.yaml"));
-            return files != null ? files.length : 0;
-        } catch (Exception e) {
-            logger.error("Failed to get registry size: {}", e.getMessage());
-            return 0;
-        }
+        return index().size();
+    }
+
+    @Override
+    public RecipeNameFilter nameFilter() {
+        ensureInitialized();
+        return index().nameFilter();
     }
 
     /**
@@ -214,17 +204,18 @@ public class Registry implements Repository {
                             " (recipe names should not contain .levain.yaml)");
         }
 
-        try {
+        try (RegistryLock lock = RegistryLock.recipe(registryPath, recipeName)) {
             // All recipes stored with standardized .levain.yaml extension
             String standardizedFileName = recipeName + ".levain.yaml";
             Path recipePath = registryPath.resolve(standardizedFileName);
 
-            Files.writeString(recipePath, yamlContent);
+            FileUtils.writeAtomically(recipePath, yamlContent.getBytes(StandardCharsets.UTF_8));
             logger.info("Stored recipe '{}' in registry: {}", recipeName, recipePath.toAbsolutePath());
 
             if (sourceRepo != null || sourceRepoUri != null) {
                 storeMetadata(recipeName, sourceRepo, sourceRepoUri, recipe.getVersion());
             }
+            index().refresh(recipeName);
         } catch (IOException e) {
             logger.error("Failed to store recipe '{}' in registry: {}", recipeName, e.getMessage());
             throw new RuntimeException("Cannot store recipe in registry: " + e.getMessage(), e);
@@ -272,9 +263,20 @@ public class Registry implements Repository {
      */
     public boolean isInstalled(String recipeName) {
         ensureInitialized();
+        return index().get(recipeName).isPresent();
+    }
 
-        Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-        return Files.exists(recipePath);
+    /**
+     * Names of every installed recipe, for callers checking many recipes at
+     * once.
+     *
+     * @return the installed recipe names, sorted
+     */
+    public Set<String> getInstalledRecipeNames() {
+        ensureInitialized();
+        return index().entries().stream()
+                .map(RegistryIndex.Entry::name)
+                .collect(Collectors.toCollection(TreeSet::new));
     }
 
     /**
@@ -286,9 +288,8 @@ public class Registry implements Repository {
     public Optional<Path> getRecipePath(String recipeName) {
         ensureInitialized();
 
-        Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-        if (Files.exists(recipePath)) {
-            return Optional.of(recipePath);
+        if (isInstalled(recipeName)) {
+            return Optional.of(registryPath.resolve(recipeName + RECIPE_EXTENSION));
         }
         return Optional.empty();
     }
@@ -302,14 +303,12 @@ public class Registry implements Repository {
     public boolean remove(String recipeName) {
         ensureInitialized();
 
-        Path recipePath = registryPath.resolve(recipeName + ".levain.yaml");
-        Path metadataPath = registryPath.resolve(recipeName + ".levain.meta");
-        try {
-            if (Files.exists(recipePath)) {
-                Files.delete(recipePath);
-                if (Files.exists(metadataPath)) {
-                    Files.delete(metadataPath);
-                }
+        Path recipePath = registryPath.resolve(recipeName + RECIPE_EXTENSION);
+        Path metadataPath = registryPath.resolve(recipeName + METADATA_EXTENSION);
+        try (RegistryLock lock = RegistryLock.recipe(registryPath, recipeName)) {
+            if (Files.deleteIfExists(recipePath)) {
+                Files.deleteIfExists(metadataPath);
+                index().refresh(recipeName);
                 logger.info("Removed recipe '{}' from registry", recipeName);
                 return true;
             }
@@ -326,14 +325,15 @@ public class Registry implements Repository {
     public void clear() {
         ensureInitialized();
 
-        try {
+        try (RegistryLock lock = RegistryLock.registry(registryPath)) {
             File[] files = registryPath.toFile()
                     .listFiles((dir, name) -> name.endsWith(".levain.yaml") || name.endsWith(".levain.meta"));
             if (files != null) {
                 for (File file : files) {
-                    Files.delete(file.toPath());
+                    Files.deleteIfExists(file.toPath());
                 }
             }
+            index().clear();
             logger.info("Cleared all recipes from registry");
         } catch (IOException e) {
             logger.error("Failed to clear registry: {}", e.getMessage());
@@ -365,10 +365,14 @@ public class Registry implements Repository {
         }
     }
 
-    private String extractRecipeName(String fileName) {
+    static String recipeName(String fileName) {
         return fileName.replaceAll("\\.levain\\.yaml$", "");
     }
 
+    private RegistryIndex index() {
+        return indexes.computeIfAbsent(registryPath.toAbsolutePath().normalize(), RegistryIndex::load);
+    }
+
     /**
      * Store metadata about an installed recipe.
      * 
@@ -382,9 +386,9 @@ public class Registry implements Repository {
             RecipeMetadata metadata = new RecipeMetadata(recipeName, sourceRepo, sourceRepoUri);
             metadata.setInstalledVersion(version);
 
-            Path metadataPath = registryPath.resolve(recipeName + ".levain.meta");
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.writerWithDefaultPrettyPrinter().writeValue(metadataPath.toFile(), metadata);
+            Path metadataPath = registryPath.resolve(recipeName + METADATA_EXTENSION);
+            FileUtils.writeAtomically(metadataPath,
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(metadata));
 
             logger.debug("Stored metadata for recipe '{}': source={}, uri={}",
                     recipeName, sourceRepo, sourceRepoUri);
@@ -402,18 +406,6 @@ public class Registry implements Repository {
      */
     public Optional<RecipeMetadata> getMetadata(String recipeName) {
         ensureInitialized();
-
-        try {
-            Path metadataPath = registryPath.resolve(recipeName + ".levain.meta");
-            if (Files.exists(metadataPath)) {
-                ObjectMapper mapper = new ObjectMapper();
-                RecipeMetadata metadata = mapper.readValue(metadataPath.toFile(), RecipeMetadata.class);
-                return Optional.of(metadata);
-            }
-        } catch (IOException e) {
-            logger.warn("Failed to load metadata for recipe '{}': {}", recipeName, e.getMessage());
-        }
-
-        return Optional.empty();
+        return index().get(recipeName).map(RegistryIndex.Entry::metadata);
     }
 }
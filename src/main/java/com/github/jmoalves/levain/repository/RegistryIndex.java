@@ -0,0 +1,287 @@
+package com.github.jmoalves.levain.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.RecipeLoader;
+import com.github.jmoalves.levain.util.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the {@link Registry}, persisted as {@code registry.idx}
+ * in the registry directory.
+ *
+ * For each installed recipe it holds the version, a hash of the stored YAML,
+ * the parsed recipe and the {@code .levain.meta} source metadata (which
+ * includes the install timestamp), so registry queries do not touch the
+ * filesystem. The {@code .levain.yaml} files remain the source of truth: on
+ * load, entries whose files changed size or modification time since the
+ * index was written are read again, and recipes added or removed by hand
+ * are picked up.
+ *
+ * Changes are made under the registry-wide {@link RegistryLock}, on top of
+ * the index file as other processes may have left it, and the in-memory
+ * entries are swapped as a whole, together with their name filter, so
+ * readers never wait for a writer.
+ */
+class RegistryIndex {
+    private static final Logger logger = LogManager.getLogger(RegistryIndex.class);
+    static final String FILE_NAME = "registry.idx";
+    // Bump when the index layout or recipe parsing changes
+    static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private volatile State state;
+
+    private RegistryIndex(Path directory, Map<String, Entry> entries) {
+        this.directory = directory;
+        this.state = State.of(entries);
+    }
+
+    private record State(Map<String, Entry> entries, RecipeNameFilter filter) {
+        static State of(Map<String, Entry> entries) {
+            return new State(Collections.unmodifiableMap(entries), RecipeNameFilter.of(entries.keySet()));
+        }
+    }
+
+    /**
+     * An installed recipe. {@code recipe} is null if the stored YAML does not
+     * parse, {@code metadata} is null if there is no readable metadata file.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Entry(String name, String version, String sha256, long size, long modified, Long metadataModified,
+            RecipeMetadata metadata, RecipeIndexCache.Entry recipe) {
+    }
+
+    record Snapshot(int format, List<Entry> recipes) {
+    }
+
+    /**
+     * Load the index of {@code directory}, bringing it up to date with the
+     * recipe files and rewriting it if anything changed.
+     */
+    static RegistryIndex load(Path directory) {
+        Optional<Map<String, Entry>> indexFile = readFile(directory.resolve(FILE_NAME));
+        Map<String, Entry> stored = indexFile.orElse(Map.of());
+        Map<String, Entry> entries = new TreeMap<>();
+        boolean changed = indexFile.isEmpty();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + Registry.RECIPE_EXTENSION)) {
+            for (Path file : stream) {
+                String name = Registry.recipeName(file.getFileName().toString());
+                Entry entry = stored.get(name);
+                if (entry == null || !isCurrent(directory, entry)) {
+                    entry = readEntry(directory, name);
+                    changed = true;
+                }
+                if (entry != null) {
+                    entries.put(name, entry);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Cannot list registry {}: {}", directory, e.getMessage());
+            return new RegistryIndex(directory, entries);
+        }
+
+        RegistryIndex index = new RegistryIndex(directory, entries);
+        if (changed || !entries.keySet().equals(stored.keySet())) {
+            try (RegistryLock lock = RegistryLock.registry(directory)) {
+                index.write();
+            } catch (IOException e) {
+                logger.warn("Failed to lock registry index of {}: {}", directory, e.getMessage());
+            }
+        }
+        logger.debug("Loaded registry index of {} ({} recipes)", directory, entries.size());
+        return index;
+    }
+
+    Optional<Entry> get(String name) {
+        return Optional.ofNullable(state.entries().get(name));
+    }
+
+    List<Entry> entries() {
+        return List.copyOf(state.entries().values());
+    }
+
+    int size() {
+        return state.entries().size();
+    }
+
+    RecipeNameFilter nameFilter() {
+        return state.filter();
+    }
+
+    /**
+     * Re-read one recipe from its files, after it was stored or removed, and
+     * rewrite the index. The caller holds the recipe's lock.
+     */
+    void refresh(String name) {
+        Entry entry = readEntry(directory, name);
+        update(updated -> {
+            if (entry != null) {
+                updated.put(name, entry);
+            } else {
+                updated.remove(name);
+            }
+        });
+    }
+
+    void clear() {
+        update(Map::clear);
+    }
+
+    /**
+     * Apply a change under the registry lock. The change is applied to the
+     * index file rather than to this process' copy, so entries that other
+     * processes stored or removed since this index was loaded are kept.
+     */
+    private void update(Consumer<Map<String, Entry>> change) {
+        try (RegistryLock lock = RegistryLock.registry(directory)) {
+            Map<String, Entry> updated = new TreeMap<>(
+                    readFile(directory.resolve(FILE_NAME)).orElse(state.entries()));
+            change.accept(updated);
+            state = State.of(updated);
+            write();
+        } catch (IOException e) {
+            logger.warn("Failed to lock registry index of {}: {}", directory, e.getMessage());
+            Map<String, Entry> updated = new TreeMap<>(state.entries());
+            change.accept(updated);
+            state = State.of(updated);
+        }
+    }
+
+    /**
+     * Replace {@code registry.idx}. The caller holds the registry lock.
+     * Failures are logged: the index can always be rebuilt from the recipe
+     * files.
+     */
+    private void write() {
+        Path file = directory.resolve(FILE_NAME);
+        try {
+            FileUtils.writeAtomically(file, MAPPER.writeValueAsBytes(new Snapshot(FORMAT_VERSION, entries())));
+        } catch (IOException e) {
+            logger.warn("Failed to write registry index {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Read {@code registry.idx}, or empty if it is missing or unusable.
+     */
+    private static Optional<Map<String, Entry>> readFile(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            Snapshot snapshot = MAPPER.readValue(file.toFile(), Snapshot.class);
+            if (snapshot.format() != FORMAT_VERSION || snapshot.recipes() == null) {
+                logger.debug("Ignoring registry index {} in an old format", file);
+                return Optional.empty();
+            }
+            Map<String, Entry> entries = new TreeMap<>();
+            for (Entry entry : snapshot.recipes()) {
+                entries.put(entry.name(), entry);
+            }
+            return Optional.of(entries);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable registry index {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isCurrent(Path directory, Entry entry) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(recipeFile(directory, entry.name()),
+                    BasicFileAttributes.class);
+            return attributes.size() == entry.size()
+                    && attributes.lastModifiedTime().toMillis() == entry.modified()
+                    && Objects.equals(metadataModified(directory, entry.name()), entry.metadataModified());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Build the entry of a recipe from its files, or null if it is not
+     * installed.
+     */
+    private static Entry readEntry(Path directory, String name) {
+        Path recipeFile = recipeFile(directory, name);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(recipeFile, BasicFileAttributes.class);
+            byte[] content = Files.readAllBytes(recipeFile);
+            Long metadataModified = metadataModified(directory, name);
+            RecipeMetadata metadata = metadataModified != null ? readMetadata(directory, name) : null;
+
+            Recipe recipe = null;
+            try {
+                recipe = RecipeLoader.parseRecipeYaml(new String(content, StandardCharsets.UTF_8), name);
+            } catch (Exception e) {
+                logger.warn("Failed to load recipe from registry file {}: {}", recipeFile.getFileName(),
+                        e.getMessage());
+            }
+
+            return new Entry(name, recipe != null ? recipe.getVersion() : null, sha256(content), attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), metadataModified, metadata,
+                    recipe != null ? RecipeIndexCache.Entry.of(recipeFile.getFileName().toString(), recipe) : null);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to read registry file {}: {}", recipeFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private static RecipeMetadata readMetadata(Path directory, String name) {
+        try {
+            return MAPPER.readValue(metadataFile(directory, name).toFile(), RecipeMetadata.class);
+        } catch (IOException e) {
+            logger.warn("Failed to load metadata for recipe '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long metadataModified(Path directory, String name) {
+        try {
+            return Files.getLastModifiedTime(metadataFile(directory, name)).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Path recipeFile(Path directory, String name) {
+        return directory.resolve(name + Registry.RECIPE_EXTENSION);
+    }
+
+    private static Path metadataFile(Path directory, String name) {
+        return directory.resolve(name + Registry.METADATA_EXTENSION);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
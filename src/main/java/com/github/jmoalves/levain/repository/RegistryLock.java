@@ -0,0 +1,100 @@
+package com.github.jmoalves.levain.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on a file under {@code <registry>/.locks}, held against
+ * other threads and other levain processes.
+ *
+ * The Registry takes the lock of a recipe ({@code <name>.lock}) while it
+ * writes or deletes that recipe's files, and the registry-wide lock
+ * ({@code registry.lock}) while it updates {@code registry.idx}. A recipe
+ * lock is always taken before the registry lock, never after, so the two
+ * cannot deadlock. Readers take no lock: files are replaced atomically, so a
+ * reader sees either the old or the new version.
+ *
+ * An OS file lock is held per JVM, not per thread, so threads of the same
+ * process are serialized with an in-process lock first. The lock is
+ * reentrant.
+ */
+final class RegistryLock implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(RegistryLock.class);
+    static final String LOCK_DIRECTORY = ".locks";
+    static final String REGISTRY_LOCK = "registry";
+
+    private static final Map<Path, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+
+    private final ReentrantLock localLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private RegistryLock(ReentrantLock localLock, FileChannel channel, FileLock fileLock) {
+        this.localLock = localLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Lock one recipe of the registry in {@code directory}.
+     */
+    static RegistryLock recipe(Path directory, String recipeName) throws IOException {
+        return acquire(directory.resolve(LOCK_DIRECTORY).resolve(recipeName + ".lock"));
+    }
+
+    /**
+     * Lock the index of the registry in {@code directory}.
+     */
+    static RegistryLock registry(Path directory) throws IOException {
+        return acquire(directory.resolve(LOCK_DIRECTORY).resolve(REGISTRY_LOCK + ".lock"));
+    }
+
+    private static RegistryLock acquire(Path lockFile) throws IOException {
+        Path key = lockFile.toAbsolutePath().normalize();
+        ReentrantLock localLock = localLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        localLock.lock();
+        if (localLock.getHoldCount() > 1) {
+            // This thread already holds the file lock
+            return new RegistryLock(localLock, null, null);
+        }
+
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(key.getParent());
+            channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            logger.trace("Waiting for lock {}", key);
+            FileLock fileLock = channel.lock();
+            return new RegistryLock(localLock, channel, fileLock);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            localLock.unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+}
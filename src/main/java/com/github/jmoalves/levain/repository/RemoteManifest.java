@@ -0,0 +1,32 @@
+package com.github.jmoalves.levain.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Recipe catalog published by a remote repository as {@code index.json}
+ * next to its recipe files:
+ *
+ * <pre>
+ * {
+ *   "recipes": [
+ *     { "name": "jdk-21", "path": "jdk-21.levain.yaml", "sha256": "9f86d0..." }
+ *   ]
+ * }
+ * </pre>
+ *
+ * {@code path} is resolved against the manifest URL. {@code name} defaults to
+ * the file name without {@code .levain.yaml}. {@code sha256} is the hash of
+ * the YAML file; when present, a locally cached copy with that hash is used
+ * instead of downloading the file, and a download that does not match it is
+ * rejected.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record RemoteManifest(List<Entry> recipes) {
+    static final String FILE_NAME = "index.json";
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Entry(String name, String path, String sha256) {
+    }
+}
@@ -1,25 +1,41 @@
 package com.github.jmoalves.levain.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.jmoalves.levain.model.Recipe;
 import com.github.jmoalves.levain.service.RecipeLoader;
 import jakarta.enterprise.context.Dependent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Repository that loads recipes from a remote HTTP/HTTPS source.
@@ -28,15 +44,35 @@ import java.util.stream.Collectors;
  * - A directory listing endpoint that returns recipe files
  * - A GitHub repository (converts to raw content URLs)
  * 
+ * When the recipes URL serves an {@code index.json} manifest (see
+ * {@link RemoteManifest}), the recipes it lists are downloaded concurrently,
+ * gzip-encoded where the server supports it. Downloaded YAML is kept under
+ * {@code <cache>/remote/<id>/objects}, named by its SHA-256, so a recipe
+ * whose manifest hash is unchanged is never downloaded again. Without a
+ * manifest, a fixed list of well-known recipe files is tried.
+ *
+ * Everything else fetched (the manifest, recipes without a hash, the
+ * well-known files) is kept under {@code <cache>/remote/<id>/files} with its
+ * ETag and Last-Modified in a {@code .meta} sidecar, and revalidated with a
+ * conditional request, so an unchanged file costs a 304. When the server
+ * cannot be reached the kept copies are used, so the repository keeps working
+ * offline. Recipe YAML is served from these local copies.
+ *
  * Uses Java's built-in HttpClient (no external download tools needed).
  */
 @Dependent
 public class RemoteRepository extends AbstractRepository {
     private static final Logger logger = LogManager.getLogger(RemoteRepository.class);
     private static final int HTTP_TIMEOUT_SECONDS = 30;
+    // Downloads in flight at once when loading from a manifest
+    private static final int MAX_CONCURRENT_DOWNLOADS = 16;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern SHA256_PATTERN = Pattern.compile("[0-9a-f]{64}");
     private final String remoteUrl;
     private final String localCachePath;
     private Map<String, Recipe> recipes = Collections.emptyMap();
+    // Recipe name -> local copy of its YAML
+    private Map<String, Path> recipeFiles = Collections.emptyMap();
     private final HttpClient httpClient;
 
     public RemoteRepository(String remoteUrl) {
@@ -44,6 +80,7 @@ public class RemoteRepository extends AbstractRepository {
         this.remoteUrl = remoteUrl;
         this.localCachePath = getDefaultCacheDirectory(remoteUrl);
         this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
                 .build();
     }
@@ -73,15 +110,24 @@ public class RemoteRepository extends AbstractRepository {
 
     @Override
     public Optional<String> getRecipeYamlContent(String recipeName) {
-        // RemoteRepository doesn't cache files locally yet
-        // TODO: Implement caching to preserve original YAML content
-        return Optional.empty();
+        Path file = recipeFiles.get(recipeName);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(file));
+        } catch (IOException e) {
+            logger.error("Failed to read cached recipe {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
     }
 
     @Override
     public Optional<String> getRecipeFileName(String recipeName) {
-        // RemoteRepository doesn't cache files locally yet
-        return Optional.empty();
+        if (!recipeFiles.containsKey(recipeName)) {
+            return Optional.empty();
+        }
+        return Optional.of(recipeName + ".levain.yaml");
     }
 
     /**
@@ -95,58 +141,363 @@ public class RemoteRepository extends AbstractRepository {
         String repositoryUrl = normalizeUrl(remoteUrl);
         logger.debug("Loading recipes from remote URL: {}", repositoryUrl);
 
-        Map<String, Recipe> loadedRecipes = Collections.emptyMap();
+        Optional<RemoteManifest> manifest = downloadManifest(repositoryUrl);
+        if (manifest.isPresent()) {
+            return loadFromManifest(repositoryUrl, manifest.get());
+        }
 
-        // Try to download recipes from the remote location
-        String[] recipeFiles = getRecipeFileList(repositoryUrl);
+        Map<String, Recipe> loadedRecipes = new LinkedHashMap<>();
+        Map<String, Path> files = new LinkedHashMap<>();
 
-        for (String recipeFile : recipeFiles) {
+        // Try to download recipes from the remote location
+        for (String recipeFile : getRecipeFileList(repositoryUrl)) {
             String recipeUrl = repositoryUrl.endsWith("/")
                     ? repositoryUrl + recipeFile
                     : repositoryUrl + "/" + recipeFile;
 
+            Optional<byte[]> body = fetchToCache(recipeUrl, recipeFile);
+            if (body.isEmpty()) {
+                continue;
+            }
             try {
-                Recipe recipe = downloadRecipe(recipeUrl);
-                if (recipe != null) {
-                    if (loadedRecipes.isEmpty()) {
-                        loadedRecipes = new java.util.LinkedHashMap<>();
-                    }
-                    loadedRecipes.put(recipe.getName(), recipe);
-                    logger.debug("Loaded recipe: {} from {}", recipe.getName(), recipeUrl);
-                }
+                Recipe recipe = RecipeLoader.parseRecipeYaml(new String(body.get(), StandardCharsets.UTF_8),
+                        extractRecipeName(recipeUrl));
+                loadedRecipes.put(recipe.getName(), recipe);
+                files.put(recipe.getName(), getCachedFile(recipeFile));
+                logger.debug("Loaded recipe: {} from {}", recipe.getName(), recipeUrl);
             } catch (Exception e) {
-                logger.warn("Failed to load recipe from {}: {}", recipeUrl, e.getMessage());
+                logger.warn("Failed to parse recipe from {}: {}", recipeUrl, e.getMessage());
             }
         }
 
+        this.recipeFiles = files;
         return loadedRecipes;
     }
 
     /**
-     * Download and parse a recipe from a remote URL.
+     * Download the repository's {@code index.json}, if it has one.
      */
-    private Recipe downloadRecipe(String recipeUrl) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(recipeUrl))
-                .timeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
-                .GET()
-                .build();
+    private Optional<RemoteManifest> downloadManifest(String repositoryUrl) throws InterruptedException {
+        String manifestUrl = resolve(repositoryUrl, RemoteManifest.FILE_NAME);
+        Optional<byte[]> body = fetchToCache(manifestUrl, RemoteManifest.FILE_NAME);
+        if (body.isEmpty()) {
+            logger.debug("No recipe manifest at {}", manifestUrl);
+            return Optional.empty();
+        }
+        try {
+            RemoteManifest manifest = MAPPER.readValue(body.get(), RemoteManifest.class);
+            if (manifest.recipes() == null) {
+                logger.warn("Recipe manifest {} has no recipes list", manifestUrl);
+                return Optional.empty();
+            }
+            logger.debug("Recipe manifest {} lists {} recipes", manifestUrl, manifest.recipes().size());
+            return Optional.of(manifest);
+        } catch (IOException e) {
+            logger.warn("Failed to read recipe manifest {}: {}", manifestUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Load the recipes listed in a manifest. Recipes whose hash is in the
+     * local cache are read from it; the others are downloaded concurrently,
+     * at most {@link #MAX_CONCURRENT_DOWNLOADS} at a time.
+     */
+    private Map<String, Recipe> loadFromManifest(String repositoryUrl, RemoteManifest manifest)
+            throws InterruptedException {
+        List<RemoteManifest.Entry> entries = manifest.recipes().stream()
+                .filter(entry -> entry != null && entry.path() != null && !entry.path().isBlank())
+                .toList();
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_DOWNLOADS);
+        List<Future<ManifestRecipe>> futures = new ArrayList<>(entries.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (RemoteManifest.Entry entry : entries) {
+                futures.add(executor.submit(() -> loadManifestEntry(repositoryUrl, entry, permits)));
+            }
+        } finally {
+            executor.shutdown();
+        }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Map<String, Recipe> loaded = new LinkedHashMap<>();
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                ManifestRecipe result = futures.get(i).get();
+                if (result != null) {
+                    loaded.put(result.recipe().getName(), result.recipe());
+                    files.put(result.recipe().getName(), result.file());
+                }
+            } catch (ExecutionException e) {
+                logger.warn("Failed to load recipe {}: {}", entries.get(i).path(), e.getCause().getMessage());
+            }
+        }
+        this.recipeFiles = files;
+        return loaded;
+    }
 
-        if (response.statusCode() != 200) {
-            logger.warn("Failed to download recipe from {}: HTTP {}", recipeUrl, response.statusCode());
+    private ManifestRecipe loadManifestEntry(String repositoryUrl, RemoteManifest.Entry entry, Semaphore permits)
+            throws IOException, InterruptedException {
+        String recipeUrl = resolve(repositoryUrl, entry.path());
+        String name = entry.name() != null && !entry.name().isBlank() ? entry.name() : extractRecipeName(recipeUrl);
+        String expected = entry.sha256() != null ? entry.sha256().toLowerCase() : null;
+        if (expected != null && !SHA256_PATTERN.matcher(expected).matches()) {
+            logger.warn("Ignoring recipe {}: invalid manifest hash {}", recipeUrl, entry.sha256());
             return null;
         }
 
+        if (expected == null) {
+            // No hash to address it by: keep it by path and revalidate
+            Optional<byte[]> body;
+            permits.acquire();
+            try {
+                body = fetchToCache(recipeUrl, entry.path());
+            } finally {
+                permits.release();
+            }
+            if (body.isEmpty()) {
+                return null;
+            }
+            return parseManifestRecipe(recipeUrl, name, new String(body.get(), StandardCharsets.UTF_8),
+                    getCachedFile(entry.path()));
+        }
+
+        Path file = getObjectFile(expected);
+        Optional<String> yaml = readCachedObject(file);
+        if (yaml.isEmpty()) {
+            byte[] body;
+            permits.acquire();
+            try {
+                body = download(recipeUrl);
+            } finally {
+                permits.release();
+            }
+            if (body == null) {
+                return null;
+            }
+            String hash = sha256(body);
+            if (!expected.equals(hash)) {
+                logger.warn("Ignoring recipe {}: content hash {} does not match manifest hash {}", recipeUrl, hash,
+                        expected);
+                return null;
+            }
+            writeAtomically(file, body);
+            yaml = Optional.of(new String(body, StandardCharsets.UTF_8));
+        } else {
+            logger.debug("Using cached copy of {}", recipeUrl);
+        }
+        return parseManifestRecipe(recipeUrl, name, yaml.get(), file);
+    }
+
+    private static ManifestRecipe parseManifestRecipe(String recipeUrl, String name, String yaml, Path file) {
         try {
-            return RecipeLoader.parseRecipeYaml(response.body(), extractRecipeName(recipeUrl));
+            return new ManifestRecipe(RecipeLoader.parseRecipeYaml(yaml, name), file);
         } catch (Exception e) {
             logger.warn("Failed to parse recipe from {}: {}", recipeUrl, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * GET a URL and keep the response under {@code files/<relativePath>}. A
+     * kept copy is revalidated with its ETag / Last-Modified, and used as is
+     * when the server cannot be reached or fails. A 404 drops it.
+     *
+     * @return the current content, or empty if there is none
+     */
+    private Optional<byte[]> fetchToCache(String url, String relativePath) throws InterruptedException {
+        Path file = getCachedFile(relativePath);
+        if (file == null) {
+            logger.warn("Ignoring {}: path {} is outside the repository", url, relativePath);
+            return Optional.empty();
+        }
+        Path metaFile = getMetaFile(file);
+        boolean cached = Files.isRegularFile(file);
+        CacheValidators validators = cached ? readValidators(metaFile) : null;
+
+        try {
+            HttpResponse<byte[]> response = send(url, validators);
+            int status = response.statusCode();
+            if (status == 304 && cached) {
+                logger.debug("{} not modified", url);
+                return readCachedFile(file);
+            }
+            if (status == 200) {
+                byte[] body = decode(response);
+                writeAtomically(file, body);
+                writeValidators(metaFile, new CacheValidators(
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null)));
+                return Optional.of(body);
+            }
+            if (status == 404 || status == 410) {
+                deleteQuietly(file);
+                deleteQuietly(metaFile);
+                return Optional.empty();
+            }
+            logger.debug("Failed to download {}: HTTP {}", url, status);
+        } catch (IOException e) {
+            logger.debug("Failed to download {}: {}", url, e.getMessage());
+        }
+
+        if (cached) {
+            logger.debug("Using cached copy of {}", url);
+            return readCachedFile(file);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * GET a URL, asking for gzip encoding.
+     *
+     * @return the decoded body, or null if the server did not answer 200
+     */
+    private byte[] download(String url) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(url, null);
+        if (response.statusCode() != 200) {
+            logger.debug("Failed to download {}: HTTP {}", url, response.statusCode());
+            return null;
+        }
+        return decode(response);
+    }
+
+    private HttpResponse<byte[]> send(String url, CacheValidators validators)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        if (validators != null && validators.etag() != null) {
+            request.header("If-None-Match", validators.etag());
+        }
+        if (validators != null && validators.lastModified() != null) {
+            request.header("If-Modified-Since", validators.lastModified());
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.trim().equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (!gzip) {
+            return response.body();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Optional<String> readCachedObject(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(file));
+        } catch (IOException e) {
+            logger.debug("Failed to read cached recipe {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<byte[]> readCachedFile(Path file) {
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            logger.debug("Failed to read cached copy {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static CacheValidators readValidators(Path metaFile) {
+        if (!Files.isRegularFile(metaFile)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(metaFile.toFile(), CacheValidators.class);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable {}: {}", metaFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeValidators(Path metaFile, CacheValidators validators) {
+        if (validators.etag() == null && validators.lastModified() == null) {
+            deleteQuietly(metaFile);
+            return;
+        }
+        try {
+            writeAtomically(metaFile, MAPPER.writeValueAsBytes(validators));
+        } catch (IOException e) {
+            logger.debug("Failed to write {}: {}", metaFile, e.getMessage());
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache {}: {}", file, e.getMessage());
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Local copy of a remote file, or null if {@code relativePath} would
+     * leave the cache directory.
+     */
+    private Path getCachedFile(String relativePath) {
+        Path filesDir = Paths.get(localCachePath, "files").toAbsolutePath().normalize();
+        Path file = filesDir.resolve(relativePath).normalize();
+        return file.startsWith(filesDir) && !file.equals(filesDir) ? file : null;
+    }
+
+    private static Path getMetaFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".meta");
+    }
+
+    private Path getObjectFile(String hash) {
+        return Paths.get(localCachePath, "objects", hash + ".yaml");
+    }
+
+    private static String resolve(String repositoryUrl, String path) {
+        String base = repositoryUrl.endsWith("/") ? repositoryUrl : repositoryUrl + "/";
+        return URI.create(base).resolve(path).toString();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record ManifestRecipe(Recipe recipe, Path file) {
+    }
+
+    /**
+     * Validators of a kept copy, from the response that produced it.
+     */
+    record CacheValidators(String etag, String lastModified) {
+    }
+
     /**
      * Get list of recipe files available at the remote location.
      * This is a simple implementation that searches for common recipe file
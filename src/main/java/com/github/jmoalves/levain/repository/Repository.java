@@ -61,4 +61,14 @@ public interface Repository {
      * Get a description of the repository.
      */
     String describe();
+
+    /**
+     * Filter of the recipe names this repository holds, built when its
+     * recipes are loaded. A name the filter rejects is definitely not in the
+     * repository, so lookups can skip it. Repositories that do not build one
+     * accept every name.
+     */
+    default RecipeNameFilter nameFilter() {
+        return RecipeNameFilter.ALL;
+    }
 }
@@ -5,88 +5,155 @@ import jakarta.enterprise.context.ApplicationScoped;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * Manages multiple repositories in a chain.
  * Repositories are searched in order, with the first one to resolve a recipe
  * winning.
+ *
+ * Repositories added with {@link #addRepositories(List)} are initialized on
+ * demand: a lookup by name initializes repositories one at a time, in priority
+ * order, and stops at the first one that lists the recipe, so resolving a
+ * built-in recipe never pulls a git repository or downloads a remote one.
+ * Listing every recipe initializes all pending repositories concurrently, one
+ * virtual thread each. A repository that does not finish within the init
+ * timeout (default 120s, override with levain.repository.timeout or
+ * LEVAIN_REPOSITORY_TIMEOUT, in seconds) contributes no recipes for the rest
+ * of the run.
+ *
+ * Each initialized repository's recipe list is indexed by name on first use;
+ * the indexes are dropped when a repository is refreshed. Before looking into
+ * a repository, a lookup asks its {@link Repository#nameFilter() name filter}
+ * and skips it if the filter rejects the name. Names no repository provides
+ * are remembered until the chain changes, so looking up a missing recipe
+ * again (a typo, a missing dependency) does not walk the chain again. The
+ * Registry is never indexed: installs write to it during a run, so it is
+ * always consulted live, after the other repositories. It is local and
+ * initializes itself on first use, so registry-only operations never
+ * initialize other repositories.
  */
 @ApplicationScoped
 public class RepositoryManager {
     private static final Logger logger = LogManager.getLogger(RepositoryManager.class);
+    static final Duration DEFAULT_INIT_TIMEOUT = Duration.ofSeconds(120);
+
     private final List<Repository> repositories = new ArrayList<>();
+    private final Set<Repository> initialized = ConcurrentHashMap.newKeySet();
+    // Repositories whose init() timed out: never read again in this run, as
+    // their init() may still be changing them
+    private final Set<Repository> abandoned = ConcurrentHashMap.newKeySet();
+    private final Map<Repository, Map<String, Recipe>> indexes = new ConcurrentHashMap<>();
+    // Names no repository but the Registry provides
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private Duration initTimeout = getInitTimeout();
 
     /**
-     * Add a repository to the chain.
+     * Add a repository to the chain and initialize it right away.
      */
     public void addRepository(Repository repository) {
         repositories.add(repository);
         repository.init();
+        initialized.add(repository);
+        missing.clear();
         logger.debug("Added repository: {}", repository.describe());
     }
 
     /**
-     * Initialize all repositories.
+     * Add several repositories to the chain, in priority order. They are
+     * initialized when a lookup first reaches them.
+     */
+    public void addRepositories(List<Repository> newRepositories) {
+        repositories.addAll(newRepositories);
+        missing.clear();
+        for (Repository repository : newRepositories) {
+            logger.debug("Added repository: {}", repository.describe());
+        }
+    }
+
+    /**
+     * Set how long to wait for a single repository to initialize.
+     */
+    public void setInitTimeout(Duration initTimeout) {
+        this.initTimeout = initTimeout;
+    }
+
+    /**
+     * Initialize all repositories not initialized yet, concurrently.
      */
     public void init() {
         logger.debug("Initializing RepositoryManager with {} repositories", repositories.size());
-        for (Repository repository : repositories) {
-            try {
-                repository.init();
-            } catch (Exception e) {
-                logger.warn("Failed to initialize repository {}: {}", repository.describe(), e.getMessage());
-            }
-        }
+        initPending(List.copyOf(repositories));
+    }
+
+    /**
+     * Re-initialize a repository already in the chain (e.g. after a pull) and
+     * drop its name index so the next lookup sees its new contents.
+     */
+    public void refresh(Repository repository) {
+        repository.init();
+        initialized.add(repository);
+        indexes.remove(repository);
+        missing.clear();
     }
 
     /**
-     * List all recipes from all repositories.
+     * Drop the name indexes and the names known to be missing. They are
+     * rebuilt on the next lookup.
+     */
+    public void invalidateIndex() {
+        indexes.clear();
+        missing.clear();
+    }
+
+    /**
+     * List all recipes from all repositories, initializing every pending
+     * repository first.
      * JAR recipes (ResourceRepository) are always included and take priority.
      * Recipes from other sources are only included if not present in JAR.
      * Recipes are deduplicated by name (JAR recipes win).
      */
     public List<Recipe> listRecipes() {
-        List<Recipe> allRecipes = new ArrayList<>();
-        List<String> seenNames = new ArrayList<>();
-
-        // First, collect all JAR recipes (from ResourceRepository) - these have
-        // absolute priority
-        Optional<ResourceRepository> jarRepo = repositories.stream()
-                .filter(repo -> repo instanceof ResourceRepository)
-                .map(repo -> (ResourceRepository) repo)
-                .findFirst();
+        List<Repository> ordered = searchOrder();
+        initPending(ordered);
 
-        if (jarRepo.isPresent()) {
-            for (Recipe recipe : jarRepo.get().listRecipes()) {
-                allRecipes.add(recipe);
-                seenNames.add(recipe.getName());
-                logger.debug("Added JAR recipe: {}", recipe.getName());
+        Map<String, Recipe> winners = new LinkedHashMap<>();
+        for (Repository repository : ordered) {
+            for (Recipe recipe : index(repository).values()) {
+                if (winners.putIfAbsent(recipe.getName(), recipe) != null) {
+                    logger.debug("Skipping recipe '{}' from {} - already provided by a higher priority repository",
+                            recipe.getName(), repository.describe());
+                }
             }
         }
 
-        // Then, add recipes from other repositories, but only if not already in JAR
-        for (Repository repository : repositories) {
-            // Skip ResourceRepository as we already processed it
-            if (repository instanceof ResourceRepository) {
-                continue;
-            }
-
-            for (Recipe recipe : repository.listRecipes()) {
-                if (!seenNames.contains(recipe.getName())) {
-                    allRecipes.add(recipe);
-                    seenNames.add(recipe.getName());
-                    logger.debug("Added recipe from {}: {}", repository.describe(), recipe.getName());
-                } else {
-                    logger.debug("Skipping recipe '{}' from {} - already exists in JAR",
-                            recipe.getName(), repository.describe());
-                }
+        Optional<Registry> registry = getRegistry();
+        if (registry.isPresent()) {
+            for (Recipe recipe : registry.get().listRecipes()) {
+                winners.putIfAbsent(recipe.getName(), recipe);
             }
         }
 
-        return allRecipes;
+        return new ArrayList<>(winners.values());
     }
 
     /**
@@ -94,32 +161,23 @@ public class RepositoryManager {
      * JAR recipes (ResourceRepository) are always checked first and have priority.
      */
     public Optional<Recipe> resolveRecipe(String recipeName) {
-        // Always try JAR recipes first
-        Optional<ResourceRepository> jarRepo = repositories.stream()
-                .filter(repo -> repo instanceof ResourceRepository)
-                .map(repo -> (ResourceRepository) repo)
-                .findFirst();
-
-        if (jarRepo.isPresent()) {
-            Optional<Recipe> recipe = jarRepo.get().resolveRecipe(recipeName);
-            if (recipe.isPresent()) {
-                logger.debug("Resolved recipe '{}' from JAR (ResourceRepository)", recipeName);
-                return recipe;
+        if (!missing.contains(recipeName)) {
+            for (Repository repository : searchOrder()) {
+                Recipe recipe = find(repository, recipeName);
+                if (recipe != null) {
+                    logger.debug("Resolved recipe '{}' from {}", recipeName, repository.describe());
+                    return Optional.of(recipe);
+                }
             }
+            missing.add(recipeName);
         }
 
-        // If not in JAR, search other repositories
-        for (Repository repository : repositories) {
-            // Skip ResourceRepository as we already checked it
-            if (repository instanceof ResourceRepository) {
-                continue;
-            }
-
-            Optional<Recipe> recipe = repository.resolveRecipe(recipeName);
-            if (recipe.isPresent()) {
-                logger.debug("Resolved recipe '{}' from {}", recipeName, repository.describe());
-                return recipe;
-            }
+        Optional<Recipe> installed = getRegistry()
+                .filter(registry -> registry.nameFilter().mightContain(recipeName))
+                .flatMap(registry -> registry.resolveRecipe(recipeName));
+        if (installed.isPresent()) {
+            logger.debug("Resolved recipe '{}' from registry", recipeName);
+            return installed;
         }
 
         logger.warn("Recipe '{}' not found in any repository", recipeName);
@@ -134,64 +192,279 @@ public class RepositoryManager {
      * @return Optional containing the repository if found
      */
     public Optional<Repository> findRepositoryForRecipe(String recipeName) {
-        // Always try JAR recipes first
-        Optional<ResourceRepository> jarRepo = repositories.stream()
-                .filter(repo -> repo instanceof ResourceRepository)
-                .map(repo -> (ResourceRepository) repo)
-                .findFirst();
-
-        if (jarRepo.isPresent()) {
-            Optional<Recipe> recipe = jarRepo.get().resolveRecipe(recipeName);
-            if (recipe.isPresent()) {
-                return Optional.of(jarRepo.get());
+        if (!missing.contains(recipeName)) {
+            for (Repository repository : searchOrder()) {
+                if (find(repository, recipeName) != null) {
+                    return Optional.of(repository);
+                }
             }
+            missing.add(recipeName);
         }
 
-        // If not in JAR, search other repositories
-        for (Repository repository : repositories) {
-            // Skip ResourceRepository as we already checked it
-            if (repository instanceof ResourceRepository) {
-                continue;
+        Optional<Registry> registry = getRegistry();
+        if (registry.isPresent() && isInstalledIn(registry.get(), recipeName)) {
+            return Optional.of(registry.get());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find the repository that provides each of several recipes, walking each
+     * repository's name index once instead of once per recipe.
+     *
+     * @param recipeNames The recipe names
+     * @return the providing repository by recipe name; recipes no repository
+     *         provides are left out
+     */
+    public Map<String, Repository> findRepositoriesForRecipes(Collection<String> recipeNames) {
+        Map<String, Repository> found = new HashMap<>();
+        Set<String> remaining = new LinkedHashSet<>(recipeNames);
+        Set<String> unknown = new LinkedHashSet<>();
+        for (Iterator<String> it = remaining.iterator(); it.hasNext();) {
+            String recipeName = it.next();
+            if (missing.contains(recipeName)) {
+                unknown.add(recipeName);
+                it.remove();
+            }
+        }
+        for (Repository repository : searchOrder()) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            for (Iterator<String> it = remaining.iterator(); it.hasNext();) {
+                String recipeName = it.next();
+                if (find(repository, recipeName) != null) {
+                    found.put(recipeName, repository);
+                    it.remove();
+                }
             }
+        }
+        missing.addAll(remaining);
+        unknown.addAll(remaining);
 
-            Optional<Recipe> recipe = repository.resolveRecipe(recipeName);
-            if (recipe.isPresent()) {
-                return Optional.of(repository);
+        Optional<Registry> registry = getRegistry();
+        if (registry.isPresent()) {
+            for (String recipeName : unknown) {
+                if (isInstalledIn(registry.get(), recipeName)) {
+                    found.put(recipeName, registry.get());
+                }
             }
         }
-        return Optional.empty();
+        return found;
     }
 
     /**
      * Get the original YAML content for a recipe by searching all repositories.
+     * Repositories listing the recipe are asked first, in priority order.
      */
     public Optional<String> getRecipeYamlContent(String recipeName) {
-        for (Repository repository : repositories) {
-            Optional<String> yaml = repository.getRecipeYamlContent(recipeName);
-            if (yaml.isPresent()) {
-                logger.debug("Found YAML content for '{}' from {}", recipeName, repository.describe());
-                return yaml;
-            }
+        Optional<String> yaml = findInChain(recipeName, repository -> repository.getRecipeYamlContent(recipeName));
+        if (yaml.isEmpty()) {
+            logger.warn("YAML content for '{}' not found in any repository", recipeName);
         }
-        logger.warn("YAML content for '{}' not found in any repository", recipeName);
-        return Optional.empty();
+        return yaml;
     }
 
     /**
      * Get the original filename for a recipe by searching all repositories.
+     * Repositories listing the recipe are asked first, in priority order.
      */
     public Optional<String> getRecipeFileName(String recipeName) {
-        for (Repository repository : repositories) {
-            Optional<String> fileName = repository.getRecipeFileName(recipeName);
-            if (fileName.isPresent()) {
-                logger.debug("Found filename for '{}' from {}", recipeName, repository.describe());
-                return fileName;
+        Optional<String> fileName = findInChain(recipeName, repository -> repository.getRecipeFileName(recipeName));
+        if (fileName.isEmpty()) {
+            logger.warn("Filename for '{}' not found in any repository", recipeName);
+        }
+        return fileName;
+    }
+
+    private Optional<String> findInChain(String recipeName, Function<Repository, Optional<String>> lookup) {
+        List<Repository> ordered = searchOrder();
+        Set<Repository> asked = new HashSet<>();
+        for (Repository repository : ordered) {
+            if (find(repository, recipeName) == null) {
+                continue;
+            }
+            asked.add(repository);
+            Optional<String> value = lookup.apply(repository);
+            if (value.isPresent()) {
+                logger.debug("Found '{}' in {}", recipeName, repository.describe());
+                return value;
+            }
+        }
+
+        // Repositories may serve content for recipes they do not list (e.g. the
+        // registry); those whose name filter rejects the recipe are not asked
+        Optional<Registry> registry = getRegistry();
+        if (registry.isPresent() && registry.get().nameFilter().mightContain(recipeName)) {
+            Optional<String> value = lookup.apply(registry.get());
+            if (value.isPresent()) {
+                logger.debug("Found '{}' in {}", recipeName, registry.get().describe());
+                return value;
+            }
+        }
+        for (Repository repository : ordered) {
+            if (asked.contains(repository) || !repository.nameFilter().mightContain(recipeName)) {
+                continue;
+            }
+            Optional<String> value = lookup.apply(repository);
+            if (value.isPresent()) {
+                logger.debug("Found '{}' in {}", recipeName, repository.describe());
+                return value;
             }
         }
-        logger.warn("Filename for '{}' not found in any repository", recipeName);
         return Optional.empty();
     }
 
+    /**
+     * Repositories in lookup priority order: the first ResourceRepository, then
+     * every other repository except the Registry, in chain order. Repositories
+     * that timed out initializing are left out.
+     */
+    private List<Repository> searchOrder() {
+        List<Repository> ordered = new ArrayList<>(repositories.size());
+        repositories.stream()
+                .filter(repo -> repo instanceof ResourceRepository)
+                .findFirst()
+                .ifPresent(ordered::add);
+        for (Repository repository : repositories) {
+            if (!ordered.contains(repository) && !(repository instanceof Registry)) {
+                ordered.add(repository);
+            }
+        }
+        ordered.removeAll(abandoned);
+        return ordered;
+    }
+
+    /**
+     * The recipe a repository lists under a name, or null. The repository is
+     * initialized first if no lookup has reached it yet; a name its filter
+     * rejects is answered without building or probing its index.
+     */
+    private Recipe find(Repository repository, String recipeName) {
+        if (!initialized.contains(repository)) {
+            initPending(List.of(repository));
+        }
+        if (abandoned.contains(repository) || !repository.nameFilter().mightContain(recipeName)) {
+            return null;
+        }
+        return index(repository).get(recipeName);
+    }
+
+    private static boolean isInstalledIn(Registry registry, String recipeName) {
+        return registry.nameFilter().mightContain(recipeName) && registry.resolveRecipe(recipeName).isPresent();
+    }
+
+    /**
+     * Name index of a repository's recipes, initializing the repository first
+     * if no lookup has reached it yet. The first recipe listed under a name wins.
+     * A repository that timed out initializing has an empty index.
+     */
+    private Map<String, Recipe> index(Repository repository) {
+        Map<String, Recipe> names = indexes.get(repository);
+        if (names == null) {
+            if (!initialized.contains(repository)) {
+                initPending(List.of(repository));
+            }
+            if (abandoned.contains(repository)) {
+                return Map.of();
+            }
+            names = new HashMap<>();
+            for (Recipe recipe : repository.listRecipes()) {
+                names.putIfAbsent(recipe.getName(), recipe);
+            }
+            indexes.put(repository, names);
+            logger.debug("Indexed {} recipes from {}", names.size(), repository.describe());
+        }
+        return names;
+    }
+
+    private synchronized void initPending(List<Repository> targets) {
+        List<Repository> pending = targets.stream()
+                .filter(repository -> !initialized.contains(repository) && !abandoned.contains(repository))
+                .toList();
+        Set<Repository> unfinished = initConcurrently(pending, initTimeout);
+        for (Repository repository : pending) {
+            if (unfinished.contains(repository)) {
+                abandoned.add(repository);
+            } else {
+                initialized.add(repository);
+            }
+        }
+    }
+
+    /**
+     * Run every repository's init() on its own virtual thread. All of them
+     * start together, so a single deadline gives each the full timeout. The
+     * executor is not closed on return: close() would wait for repositories
+     * that timed out.
+     *
+     * @return the repositories whose init() may still be running
+     */
+    private Set<Repository> initConcurrently(List<Repository> targets, Duration timeout) {
+        Set<Repository> unfinished = new HashSet<>();
+        if (targets.isEmpty()) {
+            return unfinished;
+        }
+        logger.debug("Initializing {} repositories", targets.size());
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>(targets.size());
+        try {
+            for (Repository repository : targets) {
+                futures.add(executor.submit(repository::init));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (int i = 0; i < targets.size(); i++) {
+            Repository repository = targets.get(i);
+            Future<?> future = futures.get(i);
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // cancel() does not stop blocking I/O: init() may go on
+                future.cancel(true);
+                unfinished.add(repository);
+                logger.warn("Repository {} did not initialize within {}s - skipping it",
+                        repository.describe(), timeout.toSeconds());
+            } catch (ExecutionException e) {
+                logger.warn("Failed to initialize repository {}: {}", repository.describe(),
+                        e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                for (int j = i; j < targets.size(); j++) {
+                    if (!futures.get(j).isDone()) {
+                        unfinished.add(targets.get(j));
+                    }
+                }
+                logger.warn("Interrupted while initializing repositories");
+                return unfinished;
+            }
+        }
+        return unfinished;
+    }
+
+    static Duration getInitTimeout() {
+        String value = System.getProperty("levain.repository.timeout");
+        if (value == null) {
+            value = System.getenv("LEVAIN_REPOSITORY_TIMEOUT");
+        }
+        if (value != null && !value.isBlank()) {
+            try {
+                long seconds = Long.parseLong(value.trim());
+                if (seconds > 0) {
+                    return Duration.ofSeconds(seconds);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid repository timeout: {}", value);
+            }
+        }
+        return DEFAULT_INIT_TIMEOUT;
+    }
+
     /**
      * Get the number of repositories.
      */
@@ -223,6 +496,17 @@ public class RepositoryManager {
                 .orElse(false);
     }
 
+    /**
+     * Names of every installed recipe (in the Registry).
+     *
+     * @return the installed recipe names, or an empty set without a Registry
+     */
+    public Set<String> getInstalledRecipeNames() {
+        return getRegistry()
+                .map(Registry::getInstalledRecipeNames)
+                .orElse(Set.of());
+    }
+
     /**
      * Describe all repositories.
      */
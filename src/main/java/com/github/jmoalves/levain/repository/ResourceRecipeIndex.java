@@ -0,0 +1,130 @@
+package com.github.jmoalves.levain.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jmoalves.levain.model.Recipe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Index of the built-in recipes, generated at build time as
+ * {@code recipes/index.json} so {@link ResourceRepository} does not have to
+ * scan the application JAR and parse every recipe on startup.
+ *
+ * The index uses the {@link RecipeIndexCache} snapshot layout: each entry
+ * holds the parsed recipe and its file name, relative to the
+ * {@code recipes} directory.
+ */
+public final class ResourceRecipeIndex {
+    private static final Logger logger = LogManager.getLogger(ResourceRecipeIndex.class);
+    static final String FILE_NAME = "index.json";
+    static final String KEY = "resources";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ResourceRecipeIndex() {
+    }
+
+    /**
+     * Read the index of a {@code recipes} resource directory.
+     *
+     * @return the indexed recipes, or empty if the directory has no usable
+     *         index and must be scanned
+     */
+    static Optional<List<RecipeIndexCache.Entry>> read(URL recipesRoot) {
+        URL indexUrl;
+        try {
+            indexUrl = resolve(recipesRoot, FILE_NAME);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Cannot locate recipe index for {}: {}", recipesRoot, e.getMessage());
+            return Optional.empty();
+        }
+
+        try (InputStream inputStream = indexUrl.openStream()) {
+            RecipeIndexCache.Snapshot snapshot = MAPPER.readValue(inputStream, RecipeIndexCache.Snapshot.class);
+            if (snapshot.format() != RecipeIndexCache.FORMAT_VERSION || snapshot.recipes() == null) {
+                logger.debug("Ignoring recipe index {} in an old format", indexUrl);
+                return Optional.empty();
+            }
+            return Optional.of(snapshot.recipes());
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            logger.debug("No recipe index in {}", recipesRoot);
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable recipe index {}: {}", indexUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parse the recipe files in {@code recipesDir}, sorted by file name.
+     * Files that fail to parse are left out, as they would be at runtime.
+     */
+    static List<RecipeIndexCache.Entry> build(Path recipesDir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(recipesDir)) {
+            files = stream
+                    .filter(Files::isRegularFile)
+                    .filter(path -> ResourceRepository.isRecipeFile(path.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        }
+
+        List<RecipeIndexCache.Entry> entries = new ArrayList<>();
+        for (Path file : files) {
+            Optional<Recipe> recipe = ResourceRepository.loadRecipeFromResource(file.toUri().toURL());
+            recipe.ifPresent(r -> entries.add(RecipeIndexCache.Entry.of(file.getFileName().toString(), r)));
+        }
+        return entries;
+    }
+
+    /**
+     * Write {@code index.json} into {@code recipesDir}.
+     */
+    static Path write(Path recipesDir) throws IOException {
+        List<RecipeIndexCache.Entry> entries = build(recipesDir);
+        Path indexFile = recipesDir.resolve(FILE_NAME);
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(indexFile.toFile(),
+                new RecipeIndexCache.Snapshot(RecipeIndexCache.FORMAT_VERSION, KEY, entries));
+        logger.info("Wrote {} ({} recipes)", indexFile, entries.size());
+        return indexFile;
+    }
+
+    static URL resolve(URL recipesRoot, String fileName) throws IOException {
+        String root = recipesRoot.toString();
+        if (!root.endsWith("/")) {
+            root += "/";
+        }
+        return URI.create(root + fileName).toURL();
+    }
+
+    /**
+     * Generate the index during the build.
+     *
+     * @param args the {@code recipes} directory of the build output
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: ResourceRecipeIndex <recipes directory>");
+        }
+        Path recipesDir = Paths.get(args[0]);
+        if (!Files.isDirectory(recipesDir)) {
+            logger.info("No recipes directory at {}, skipping recipe index", recipesDir);
+            return;
+        }
+        write(recipesDir);
+    }
+}
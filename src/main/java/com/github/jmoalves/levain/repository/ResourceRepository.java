@@ -17,7 +17,6 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -76,8 +75,9 @@ public class ResourceRepository extends AbstractRepository {
 
     /**
      * Load recipes from JAR resources.
-     * Looks for .levain, .levain.yaml, .levain.yml files in the resources
-     * classpath.
+     * Each {@code recipes} resource directory is read from its build-time
+     * {@code index.json} when it has one, and otherwise scanned for .levain,
+     * .levain.yaml and .levain.yml files.
      */
     private Map<String, Recipe> loadRecipesFromResources() throws IOException {
         Enumeration<URL> resources = getClass().getClassLoader().getResources("recipes");
@@ -88,14 +88,9 @@ public class ResourceRepository extends AbstractRepository {
             logger.debug("Found recipes resource: {}", resourceURL);
 
             try {
-                List<URL> recipeFiles = listRecipeFilesInResource(resourceURL);
-                for (URL recipeURL : recipeFiles) {
-                    Optional<Recipe> recipe = loadRecipeFromResource(recipeURL);
-                    if (recipe.isPresent()) {
-                        Recipe r = recipe.get();
-                        // Only add if not already present (avoid duplicates from multiple sources)
-                        loadedRecipes.putIfAbsent(r.getName(), r);
-                    }
+                for (Recipe recipe : loadRecipesFromRoot(resourceURL)) {
+                    // Only add if not already present (avoid duplicates from multiple sources)
+                    loadedRecipes.putIfAbsent(recipe.getName(), recipe);
                 }
             } catch (Exception e) {
                 logger.warn("Error loading recipes from resource {}: {}", resourceURL, e.getMessage());
@@ -106,29 +101,32 @@ public class ResourceRepository extends AbstractRepository {
     }
 
     /**
-     * List recipe files in the resources directory.
+     * Load the recipes of one {@code recipes} resource directory.
      */
-    private List<URL> listRecipeFilesInResource(URL resourceURL) {
-        ClassLoader classLoader = getClass().getClassLoader();
-        List<URL> recipeFiles = new ArrayList<>();
+    private List<Recipe> loadRecipesFromRoot(URL resourceURL) {
+        Optional<List<RecipeIndexCache.Entry>> index = ResourceRecipeIndex.read(resourceURL);
+        if (index.isPresent()) {
+            logger.debug("Using recipe index of {} ({} recipes)", resourceURL, index.get().size());
+            return index.get().stream().map(RecipeIndexCache.Entry::toRecipe).toList();
+        }
 
-        try {
-            // Get all URLs in the recipes package
-            Enumeration<URL> resources = classLoader.getResources("recipes");
-            while (resources.hasMoreElements()) {
-                URL url = resources.nextElement();
-                // Try to list recipe files from this URL
-                if ("jar".equals(url.getProtocol())) {
-                    recipeFiles.addAll(listRecipesFromJar(url));
-                } else if ("file".equals(url.getProtocol())) {
-                    recipeFiles.addAll(listRecipesFromDirectory(url));
-                }
-            }
-        } catch (IOException e) {
-            logger.warn("Failed to list recipe files in resources: {}", e.getMessage());
+        List<Recipe> loaded = new ArrayList<>();
+        for (URL recipeURL : listRecipeFilesInResource(resourceURL)) {
+            loadRecipeFromResource(recipeURL).ifPresent(loaded::add);
         }
+        return loaded;
+    }
 
-        return recipeFiles;
+    /**
+     * List recipe files in a resources directory.
+     */
+    private List<URL> listRecipeFilesInResource(URL resourceURL) {
+        if ("jar".equals(resourceURL.getProtocol())) {
+            return listRecipesFromJar(resourceURL);
+        } else if ("file".equals(resourceURL.getProtocol())) {
+            return listRecipesFromDirectory(resourceURL);
+        }
+        return List.of();
     }
 
     /**
@@ -160,19 +158,21 @@ public class ResourceRepository extends AbstractRepository {
             if (jarPath.contains("!")) {
                 jarPath = jarPath.substring(0, jarPath.indexOf("!"));
             }
-            java.util.jar.JarFile jarFile = new java.util.jar.JarFile(new java.io.File(new java.net.URI(jarPath)));
-            Enumeration<java.util.jar.JarEntry> entries = jarFile.entries();
-            while (entries.hasMoreElements()) {
-                java.util.jar.JarEntry entry = entries.nextElement();
-                if (entry.getName().startsWith("recipes/") && !entry.isDirectory() && isRecipeFile(entry.getName())) {
-                    try {
-                        recipes.add(URI.create("jar:" + jarPath + "!/" + entry.getName()).toURL());
-                    } catch (java.net.MalformedURLException e) {
-                        logger.debug("Failed to create URL for jar entry {}: {}", entry.getName(), e.getMessage());
+            try (JarFile jarFile = new JarFile(new java.io.File(new java.net.URI(jarPath)))) {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.getName().startsWith("recipes/") && !entry.isDirectory()
+                            && isRecipeFile(entry.getName())) {
+                        try {
+                            recipes.add(URI.create("jar:" + jarPath + "!/" + entry.getName()).toURL());
+                        } catch (java.net.MalformedURLException e) {
+                            logger.debug("Failed to create URL for jar entry {}: {}", entry.getName(),
+                                    e.getMessage());
+                        }
                     }
                 }
             }
-            jarFile.close();
         } catch (Exception e) {
             logger.debug("Failed to list recipes from JAR {}: {}", jarUrl, e.getMessage());
         }
@@ -182,7 +182,7 @@ public class ResourceRepository extends AbstractRepository {
     /**
      * Load a single recipe from a resource.
      */
-    private Optional<Recipe> loadRecipeFromResource(URL resourceURL) {
+    static Optional<Recipe> loadRecipeFromResource(URL resourceURL) {
         try {
             String filename = new java.io.File(resourceURL.getFile()).getName();
             if (!isRecipeFile(filename)) {
@@ -205,14 +205,14 @@ public class ResourceRepository extends AbstractRepository {
     /**
      * Check if a file is a recipe file based on extension.
      */
-    private boolean isRecipeFile(String filename) {
+    static boolean isRecipeFile(String filename) {
         return filename.matches(".*\\.levain(\\.ya?ml)?$");
     }
 
     /**
      * Extract recipe name from filename by removing .levain extensions.
      */
-    private String extractRecipeName(String filename) {
+    static String extractRecipeName(String filename) {
         return filename.replaceAll("\\.levain(\\.ya?ml)?$", "");
     }
 }
@@ -1,41 +1,65 @@
 package com.github.jmoalves.levain.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.RecipeLoader;
 import jakarta.enterprise.context.Dependent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.stream.Collectors;
 
 /**
  * Repository that loads recipes from ZIP archive files.
  * Uses Java's built-in zip handling (no external tools needed).
- * 
- * The ZIP archive is extracted to a temporary directory and recipes are loaded
- * from there.
+ *
+ * Recipes are read straight from the archive: nothing is extracted. The
+ * parsed recipes and the entry each came from are kept in a
+ * {@link RecipeIndexCache} keyed by the size, modification time and SHA-256
+ * of the archive, so an unchanged archive is neither hashed nor parsed again
+ * and a changed one is picked up on the next run.
+ *
+ * Remote archives are downloaded to the cache directory along with their
+ * ETag and Last-Modified, and revalidated with a conditional request; if the
+ * server cannot be reached the downloaded copy is used.
  */
 @Dependent
 public class ZipRepository extends AbstractRepository {
     private static final Logger logger = LogManager.getLogger(ZipRepository.class);
+    private static final int HTTP_TIMEOUT_MILLIS = 30_000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String INDEX_KEY_PREFIX = "zip:";
+    // An archive modified this recently may change again within the same timestamp
+    private static final long RACY_MODIFICATION_MILLIS = 2_000;
     private final String zipPath;
     private final String localCachePath;
-    private DirectoryRepository localRepository;
+    private File archive;
     private Map<String, Recipe> recipes = Collections.emptyMap();
+    // Recipe name -> archive entry it was read from
+    private Map<String, String> recipeEntries = Collections.emptyMap();
 
     public ZipRepository(String zipPath) {
         super("ZipRepository", zipPath);
@@ -47,16 +71,14 @@ public class ZipRepository extends AbstractRepository {
     public void init() {
         logger.debug("Initializing ZipRepository from: {}", zipPath);
         try {
-            extractZipArchive();
-            if (localRepository != null) {
-                localRepository.init();
-                this.recipes = loadRecipesFromLocalDirectory();
-                setInitialized();
-                logger.info("ZipRepository initialized with {} recipes from {}", recipes.size(), zipPath);
-            } else {
-                logger.error("Failed to load recipes from zip: {}", zipPath);
-                setInitialized();
+            File zipFile = resolveZipFile();
+            if (!zipFile.isFile()) {
+                throw new IOException("ZIP file not found: " + zipPath);
             }
+            loadRecipes(zipFile);
+            this.archive = zipFile;
+            setInitialized();
+            logger.info("ZipRepository initialized with {} recipes from {}", recipes.size(), zipPath);
         } catch (Exception e) {
             logger.error("Failed to initialize ZipRepository from {}: {}", zipPath, e.getMessage(), e);
             setInitialized(); // Mark as initialized even if empty
@@ -75,11 +97,22 @@ public class ZipRepository extends AbstractRepository {
 
     @Override
     public Optional<String> getRecipeYamlContent(String recipeName) {
-        // Delegate to the local directory repository
-        if (localRepository != null) {
-            return localRepository.getRecipeYamlContent(recipeName);
+        String entryName = recipeEntries.get(recipeName);
+        if (entryName == null || archive == null) {
+            return Optional.empty();
+        }
+        try (ZipFile zip = new ZipFile(archive)) {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                return Optional.of(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read {} from {}: {}", entryName, archive, e.getMessage());
+            return Optional.empty();
         }
-        return Optional.empty();
     }
 
     @Override
@@ -94,59 +127,87 @@ public class ZipRepository extends AbstractRepository {
     }
 
     /**
-     * Extract the ZIP archive to a local cache directory.
-     * Only extracts if not already present.
+     * Load recipes from the index cache when it was built for this archive
+     * content, otherwise from the archive entries.
+     *
+     * The index key holds the archive's size and modification time besides
+     * its digest: while they are unchanged the archive is not read at all.
+     * Otherwise the digest is computed, and an archive that was only touched
+     * keeps its index under the new size and time. A size and time taken
+     * right after a write are not trusted: the archive could be rewritten
+     * within the same timestamp, so it is hashed again next time.
      */
-    private void extractZipArchive() throws IOException {
-        File localDir = new File(localCachePath);
-        File zipFile = resolveZipFile();
-
-        if (!zipFile.exists()) {
-            throw new IOException("ZIP file not found: " + zipPath);
-        }
-
-        // Check if already extracted
-        if (localDir.exists() && localDir.isDirectory() && localDir.listFiles() != null
-                && localDir.listFiles().length > 0) {
-            logger.debug("ZIP archive already extracted at {}", localCachePath);
+    private void loadRecipes(File zipFile) throws IOException {
+        RecipeIndexCache cache = new RecipeIndexCache(getIndexLocation());
+        String stamp = INDEX_KEY_PREFIX + zipFile.length() + ":" + zipFile.lastModified() + ":";
+        Optional<RecipeIndexCache.Snapshot> snapshot = cache.readSnapshot();
+        List<RecipeIndexCache.Entry> entries;
+        if (snapshot.isPresent() && snapshot.get().key().startsWith(stamp)) {
+            entries = snapshot.get().recipes();
         } else {
-            logger.debug("Extracting ZIP archive from {} to {}", zipPath, localCachePath);
-            Files.createDirectories(localDir.toPath());
-            extractZip(zipFile, localDir);
-            logger.debug("Successfully extracted ZIP archive");
+            String digest = sha256(zipFile);
+            if (snapshot.isPresent() && snapshot.get().key().endsWith(":" + digest)) {
+                entries = snapshot.get().recipes();
+            } else {
+                entries = readEntries(zipFile);
+            }
+            boolean racy = System.currentTimeMillis() - zipFile.lastModified() < RACY_MODIFICATION_MILLIS;
+            cache.write((racy ? INDEX_KEY_PREFIX + "-:" : stamp) + digest, entries);
         }
 
-        // Create directory repository for the extracted content
-        this.localRepository = new DirectoryRepository("LocalZipRepository", localCachePath);
+        Map<String, Recipe> loaded = new LinkedHashMap<>();
+        Map<String, String> entryNames = new HashMap<>();
+        for (RecipeIndexCache.Entry entry : entries) {
+            loaded.put(entry.name(), entry.toRecipe());
+            entryNames.put(entry.name(), entry.path());
+        }
+        this.recipes = loaded;
+        this.recipeEntries = entryNames;
     }
 
     /**
-     * Extract a ZIP file to a directory.
+     * Parse every recipe entry of the archive. Entries are read in archive
+     * order and parsed in parallel; entries that fail to parse are logged and
+     * skipped.
      */
-    private void extractZip(File zipFile, File targetDir) throws IOException {
+    private List<RecipeIndexCache.Entry> readEntries(File zipFile) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<String> recipeNames = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
         try (ZipFile zip = new ZipFile(zipFile)) {
-            zip.entries().asIterator().forEachRemaining(entry -> {
-                try {
-                    Path targetPath = targetDir.toPath().resolve(entry.getName());
-
-                    if (entry.isDirectory()) {
-                        Files.createDirectories(targetPath);
-                    } else {
-                        Files.createDirectories(targetPath.getParent());
-                        try (InputStream inputStream = zip.getInputStream(entry);
-                                FileOutputStream outputStream = new FileOutputStream(targetPath.toFile())) {
-                            byte[] buffer = new byte[1024];
-                            int length;
-                            while ((length = inputStream.read(buffer)) > 0) {
-                                outputStream.write(buffer, 0, length);
-                            }
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.warn("Failed to extract entry {}: {}", entry.getName(), e.getMessage());
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                String recipeName = entry.isDirectory() ? null : recipeName(entry.getName());
+                if (recipeName == null) {
+                    continue;
                 }
-            });
+                try (InputStream in = zip.getInputStream(entry)) {
+                    contents.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                names.add(entry.getName());
+                recipeNames.add(recipeName);
+            }
+        }
+
+        List<Recipe> parsed = IntStream.range(0, names.size())
+                .parallel()
+                .mapToObj(i -> {
+                    try {
+                        return RecipeLoader.parseRecipeYaml(contents.get(i), recipeNames.get(i));
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to load recipe from {}: {}", names.get(i), e.getMessage());
+                        return null;
+                    }
+                })
+                .toList();
+
+        List<RecipeIndexCache.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (parsed.get(i) != null) {
+                entries.add(RecipeIndexCache.Entry.of(names.get(i), parsed.get(i)));
+            }
         }
+        logger.debug("Parsed {} recipes from {}", entries.size(), zipFile);
+        return entries;
     }
 
     /**
@@ -161,7 +222,9 @@ public class ZipRepository extends AbstractRepository {
     }
 
     /**
-     * Download a ZIP file from a remote URL.
+     * Download a ZIP file from a remote URL into the cache directory. An
+     * earlier download is revalidated with its ETag / Last-Modified and kept
+     * on a 304, or when the server cannot be reached.
      */
     private File downloadZipFile() throws IOException {
         URL url = URI.create(zipPath).toURL();
@@ -170,32 +233,106 @@ public class ZipRepository extends AbstractRepository {
             filename = "archive.zip";
         }
 
-        File downloadDir = Paths.get(System.getProperty("user.home"), ".levain", "downloads").toFile();
-        Files.createDirectories(downloadDir.toPath());
-        File downloadedFile = new File(downloadDir, filename);
+        Path downloadedFile = Paths.get(localCachePath, filename);
+        Path metaFile = Paths.get(localCachePath, filename + ".meta");
+        boolean cached = Files.isRegularFile(downloadedFile);
 
-        logger.debug("Downloading ZIP archive from {} to {}", zipPath, downloadedFile);
-        try (InputStream inputStream = url.openStream();
-                FileOutputStream outputStream = new FileOutputStream(downloadedFile)) {
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = inputStream.read(buffer)) > 0) {
-                outputStream.write(buffer, 0, length);
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(HTTP_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HTTP_TIMEOUT_MILLIS);
+            RemoteRepository.CacheValidators validators = cached ? readValidators(metaFile) : null;
+            if (validators != null && validators.etag() != null) {
+                connection.setRequestProperty("If-None-Match", validators.etag());
+            }
+            if (validators != null && validators.lastModified() != null) {
+                connection.setRequestProperty("If-Modified-Since", validators.lastModified());
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached) {
+                logger.debug("ZIP archive {} not modified", zipPath);
+                return downloadedFile.toFile();
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status);
+            }
+
+            logger.debug("Downloading ZIP archive from {} to {}", zipPath, downloadedFile);
+            Files.createDirectories(downloadedFile.getParent());
+            Path temp = Files.createTempFile(downloadedFile.getParent(), filename, ".tmp");
+            try {
+                try (InputStream inputStream = connection.getInputStream()) {
+                    Files.copy(inputStream, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(temp, downloadedFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            writeValidators(metaFile, new RemoteRepository.CacheValidators(
+                    connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified")));
+            return downloadedFile.toFile();
+        } catch (IOException e) {
+            if (!cached) {
+                throw new IOException("Failed to download ZIP archive " + zipPath + ": " + e.getMessage(), e);
+            }
+            logger.warn("Failed to download {} ({}) - using the copy downloaded earlier", zipPath, e.getMessage());
+            return downloadedFile.toFile();
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
             }
         }
+    }
 
-        return downloadedFile;
+    private static RemoteRepository.CacheValidators readValidators(Path metaFile) {
+        if (!Files.isRegularFile(metaFile)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(metaFile.toFile(), RemoteRepository.CacheValidators.class);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable {}: {}", metaFile, e.getMessage());
+            return null;
+        }
     }
 
-    /**
-     * Load recipes from the extracted directory.
-     */
-    private Map<String, Recipe> loadRecipesFromLocalDirectory() {
-        if (localRepository == null) {
-            return Collections.emptyMap();
+    private static void writeValidators(Path metaFile, RemoteRepository.CacheValidators validators) {
+        try {
+            if (validators.etag() == null && validators.lastModified() == null) {
+                Files.deleteIfExists(metaFile);
+            } else {
+                MAPPER.writeValue(metaFile.toFile(), validators);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to write {}: {}", metaFile, e.getMessage());
+        }
+    }
+
+    private String getIndexLocation() {
+        if (zipPath.startsWith("http://") || zipPath.startsWith("https://")) {
+            return zipPath;
+        }
+        return Paths.get(zipPath).toAbsolutePath().normalize().toString();
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
         }
-        return localRepository.listRecipes().stream()
-                .collect(Collectors.toMap(Recipe::getName, r -> r));
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     /**
@@ -226,8 +363,8 @@ public class ZipRepository extends AbstractRepository {
 
     @Override
     public String describe() {
-        if (localRepository != null) {
-            return String.format("ZipRepository (%s -> %s)", zipPath, localCachePath);
+        if (archive != null) {
+            return String.format("ZipRepository (%s -> %s)", zipPath, archive.getAbsolutePath());
         }
         return String.format("ZipRepository (%s)", zipPath);
     }
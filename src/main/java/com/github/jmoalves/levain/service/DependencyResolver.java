@@ -151,6 +151,11 @@ public class DependencyResolver {
             return true;
         }
 
+        if (missing.contains(recipeName)) {
+            // Already looked up: do not ask the repositories again
+            return false;
+        }
+
         if (visiting.contains(recipeName)) {
             throw new IllegalArgumentException("Circular dependency detected involving: " + recipeName);
         }
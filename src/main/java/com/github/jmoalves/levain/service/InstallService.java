@@ -229,6 +229,7 @@ public class InstallService {
         if (plan == null || plan.isEmpty()) {
             return;
         }
+        validatePlan(plan);
         for (int i = 0; i < plan.size(); i++) {
             Recipe recipe = plan.get(i);
             console.info("Installing {}...", recipe.getName());
@@ -240,6 +241,28 @@ public class InstallService {
         }
     }
 
+    /**
+     * Validate the commands of every recipe in the plan, so a malformed
+     * command in a later recipe fails the plan before the first recipe is
+     * installed.
+     *
+     * @throws IllegalArgumentException listing every recipe with invalid
+     *                                  commands
+     */
+    private void validatePlan(List<Recipe> plan) {
+        List<String> errors = new ArrayList<>();
+        for (Recipe recipe : plan) {
+            try {
+                actionExecutor.validateCommands(installCommands(recipe));
+            } catch (IllegalArgumentException e) {
+                errors.add(recipe.getName() + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid installation plan:\n" + String.join("\n", errors));
+        }
+    }
+
     public String formatInstallationPlan(PlanResult result, List<String> requestedNames) {
         List<Recipe> plan = result.plan();
         java.util.Set<String> requested = new java.util.LinkedHashSet<>();
@@ -432,29 +455,12 @@ public class InstallService {
             var recipeDir = recipe.getRecipesDir() != null ? Path.of(recipe.getRecipesDir()) : null;
             variableSubstitutionService.substituteRecipeCommands(recipe, baseDir);
             
-            // Execute cmd.install and cmd.env actions during installation
-            // Following original Levain pattern: install.ts appends cmd.env after cmd.install
-            List<String> actions = new ArrayList<>();
-            if (recipe.getCommands() != null) {
-                List<String> installActions = recipe.getCommands().get("install");
-                if (installActions != null) {
-                    actions.addAll(installActions);
-                }
-                
-                // cmd.env contains environment setup actions that run both during
-                // installation (to configure the installed package) and during shell
-                // execution (to provide session-scoped environment)
-                List<String> envActions = recipe.getCommands().get("env");
-                if (envActions != null) {
-                    actions.addAll(envActions);
-                }
-            }
-            
-            actionExecutor.executeCommands(actions, new ActionContext(config, recipe, baseDir, recipeDir));
+            actionExecutor.executeCommands(installCommands(recipe), new ActionContext(config, recipe, baseDir, recipeDir));
 
             // For now: Store recipe in registry with original YAML content
             // Registry stores all recipes as {name}.levain.yaml
             registry.store(recipe, originalYaml, sourceRepo, sourceRepoUri);
+            variableSubstitutionService.invalidateRecipeVariables();
 
             logger.info("Recipe {} stored in registry", recipe.getName());
             
@@ -482,6 +488,29 @@ public class InstallService {
         }
     }
 
+    /**
+     * Commands run when installing a recipe: cmd.install then cmd.env.
+     * Following original Levain pattern: install.ts appends cmd.env after cmd.install
+     */
+    private static List<String> installCommands(Recipe recipe) {
+        List<String> actions = new ArrayList<>();
+        if (recipe.getCommands() != null) {
+            List<String> installActions = recipe.getCommands().get("install");
+            if (installActions != null) {
+                actions.addAll(installActions);
+            }
+
+            // cmd.env contains environment setup actions that run both during
+            // installation (to configure the installed package) and during shell
+            // execution (to provide session-scoped environment)
+            List<String> envActions = recipe.getCommands().get("env");
+            if (envActions != null) {
+                actions.addAll(envActions);
+            }
+        }
+        return actions;
+    }
+
     /**
      * Serialize recipe to YAML format.
      */
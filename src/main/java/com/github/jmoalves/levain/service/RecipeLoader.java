@@ -14,8 +14,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.logging.log4j.LogManager;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.github.jmoalves.levain.model.Recipe;
 
@@ -32,10 +32,11 @@ public class RecipeLoader {
     private static final String RECIPE_EXTENSION = ".levain.yaml";
     private static final String[] REJECTED_EXTENSIONS = { ".levain.yml", ".levain", ".yml", ".yaml" };
 
-    private final ObjectMapper yamlMapper;
+    // ObjectReader is immutable and thread-safe, so one instance serves every
+    // loader and every parsing thread
+    private static final ObjectReader RECIPE_READER = new ObjectMapper(new YAMLFactory()).readerFor(Recipe.class);
 
     public RecipeLoader() {
-        this.yamlMapper = new ObjectMapper(new YAMLFactory());
     }
 
     /**
@@ -46,34 +47,67 @@ public class RecipeLoader {
      */
     public Map<String, Recipe> loadRecipesFromDirectory(String recipesDir) {
         Map<String, Recipe> recipes = new LinkedHashMap<>();
+        for (Recipe recipe : loadRecipeFiles(findRecipeFiles(recipesDir)).values()) {
+            recipes.put(recipe.getName(), recipe);
+        }
 
+        logger.info("Loaded {} recipes from {}", recipes.size(), recipesDir);
+        return recipes;
+    }
+
+    /**
+     * Find every recipe file under a directory, without parsing them.
+     *
+     * @param recipesDir the directory containing recipe files
+     * @return recipe file paths, in walk order
+     */
+    public List<Path> findRecipeFiles(String recipesDir) {
         File dir = new File(recipesDir);
         if (!dir.exists() || !dir.isDirectory()) {
             logger.warn("Recipes directory does not exist: {}", recipesDir);
-            return recipes;
+            return List.of();
         }
 
         try (Stream<Path> paths = Files.walk(dir.toPath())) {
-            paths.filter(Files::isRegularFile)
+            return paths.filter(Files::isRegularFile)
                     .filter(this::isRecipeFile)
-                    .forEach(path -> {
-                        try {
-                            Recipe recipe = loadRecipe(path.toFile());
-                            if (recipe != null) {
-                                recipes.put(recipe.getName(), recipe);
-                            }
-                        } catch (IOException e) {
-                            logger.error("Failed to load recipe from {}: {}", path, e.getMessage());
-                        }
-                    });
+                    .toList();
         } catch (IOException e) {
             logger.error("Failed to read recipes directory {}: {}", recipesDir, e.getMessage());
+            return List.of();
         }
+    }
 
-        logger.info("Loaded {} recipes from {}", recipes.size(), recipesDir);
+    /**
+     * Load recipes from the given files, parsing them in parallel. Files that
+     * fail to parse are logged and skipped.
+     *
+     * @param files recipe files
+     * @return a map of file path to Recipe object, in the order of {@code files}
+     */
+    public Map<Path, Recipe> loadRecipeFiles(List<Path> files) {
+        List<Recipe> parsed = files.parallelStream()
+                .map(this::loadRecipeOrNull)
+                .toList();
+
+        Map<Path, Recipe> recipes = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (parsed.get(i) != null) {
+                recipes.put(files.get(i), parsed.get(i));
+            }
+        }
         return recipes;
     }
 
+    private Recipe loadRecipeOrNull(Path path) {
+        try {
+            return loadRecipe(path.toFile());
+        } catch (IOException e) {
+            logger.error("Failed to load recipe from {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Load a single recipe from a file.
      *
@@ -84,20 +118,7 @@ public class RecipeLoader {
     public Recipe loadRecipe(File file) throws IOException {
         logger.debug("Loading recipe from: {}", file.getAbsolutePath());
         String yamlContent = Files.readString(file.toPath());
-        Recipe recipe = yamlMapper.readValue(yamlContent, Recipe.class);
-
-        // Extract recipe name from filename
-        String fileName = file.getName();
-        String recipeName = extractRecipeName(fileName);
-        recipe.setName(recipeName);
-
-        // Normalize dependencies to ensure no nulls
-        if (recipe.getDependencies() == null) {
-            recipe.setDependencies(new ArrayList<>());
-        }
-
-        applyCommandsFromYaml(yamlContent, recipe);
-
+        Recipe recipe = parse(yamlContent, extractRecipeName(file.getName()));
         logger.debug("Loaded recipe: {} version {}", recipe.getName(), recipe.getVersion());
         return recipe;
     }
@@ -160,18 +181,7 @@ public class RecipeLoader {
      */
     public static Recipe parseRecipeYaml(String yamlContent, String recipeName) {
         try {
-            ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-            Recipe recipe = mapper.readValue(yamlContent, Recipe.class);
-            recipe.setName(recipeName);
-
-            // Normalize dependencies
-            if (recipe.getDependencies() == null) {
-                recipe.setDependencies(new ArrayList<>());
-            }
-
-            applyCommandsFromYaml(mapper, yamlContent, recipe);
-
-            return recipe;
+            return parse(yamlContent, recipeName);
         } catch (Exception e) {
             LogManager.getLogger(RecipeLoader.class)
                     .error("Failed to parse recipe YAML: {}", e.getMessage());
@@ -179,6 +189,28 @@ public class RecipeLoader {
         }
     }
 
+    /**
+     * Parse a recipe document in a single pass. {@code cmd.*} keys are not
+     * recipe properties, so the binding already collects them, with the same
+     * values a plain map would hold, in the custom attributes; they are lifted
+     * into the commands from there instead of parsing the document again.
+     */
+    private static Recipe parse(String yamlContent, String recipeName) throws IOException {
+        Recipe recipe = RECIPE_READER.readValue(yamlContent);
+        if (recipe == null) {
+            throw new IOException("Recipe " + recipeName + " is empty");
+        }
+        recipe.setName(recipeName);
+
+        // Normalize dependencies to ensure no nulls
+        if (recipe.getDependencies() == null) {
+            recipe.setDependencies(new ArrayList<>());
+        }
+
+        applyCommands(recipe);
+        return recipe;
+    }
+
     /**
      * Get the default recipes directory location.
      * In production, recipes should come from external repositories (git, zip,
@@ -222,19 +254,9 @@ public class RecipeLoader {
         return recipesDir;
     }
 
-    private void applyCommandsFromYaml(String yamlContent, Recipe recipe) throws IOException {
-        applyCommandsFromYaml(this.yamlMapper, yamlContent, recipe);
-    }
-
-    private static void applyCommandsFromYaml(ObjectMapper mapper, String yamlContent, Recipe recipe)
-            throws IOException {
-        if (yamlContent == null || yamlContent.isBlank() || recipe == null) {
-            return;
-        }
-
-        Map<String, Object> raw = mapper.readValue(yamlContent, new TypeReference<Map<String, Object>>() {
-        });
-        if (raw == null || raw.isEmpty()) {
+    private static void applyCommands(Recipe recipe) {
+        Map<String, Object> attributes = recipe.getCustomAttributes();
+        if (attributes == null || attributes.isEmpty()) {
             return;
         }
 
@@ -242,7 +264,7 @@ public class RecipeLoader {
                 ? new LinkedHashMap<>(recipe.getCommands())
                 : new LinkedHashMap<>();
 
-        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
             String key = entry.getKey();
             if (key == null || !key.startsWith("cmd.")) {
                 continue;
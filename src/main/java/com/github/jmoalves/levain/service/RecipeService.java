@@ -2,7 +2,9 @@ package com.github.jmoalves.levain.service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +37,7 @@ public class RecipeService {
     private final RepositoryManager repositoryManager;
     private final ConfigService configService;
     private final RepositoryFactory repositoryFactory;
+    private final RecipeTree lookupTree;
     private RecipeTree recipeTree;
 
     @Inject
@@ -43,6 +46,7 @@ public class RecipeService {
         this.configService = configService;
         this.repositoryFactory = repositoryFactory;
         this.repositoryManager = new RepositoryManager();
+        this.lookupTree = new RecipeTree(repositoryManager::resolveRecipe);
         initializeRepositories();
     }
 
@@ -52,17 +56,25 @@ public class RecipeService {
      * then configured repositories from config.json,
      * then external recipes from configured DirectoryRepository,
      * then installed recipes from Registry.
+     * The order above is the lookup priority. Repositories are not
+     * initialized here: the manager initializes them when a lookup first
+     * reaches them, or all at once, concurrently, when recipes are listed.
      */
     private void initializeRepositories() {
+        List<Repository> repositories = new ArrayList<>();
+
         // Add built-in resource recipes
-        ResourceRepository resourceRepo = new ResourceRepository();
-        repositoryManager.addRepository(resourceRepo);
+        repositories.add(new ResourceRepository());
 
         // Add configured repositories from config.json
         for (RepositoryConfig repoConfig : configService.getRepositories()) {
             try {
                 Repository repo = repositoryFactory.createRepository(repoConfig.getUri());
-                repositoryManager.addRepository(repo);
+                if (repo == null) {
+                    logger.warn("Skipping configured repository {}: no URI", repoConfig.getName());
+                    continue;
+                }
+                repositories.add(repo);
                 logger.info("Loaded configured repository: {} ({})", repoConfig.getName(), repoConfig.getUri());
             } catch (Exception e) {
                 logger.warn("Failed to load configured repository {}: {}", repoConfig.getName(), e.getMessage());
@@ -72,8 +84,7 @@ public class RecipeService {
         // Add external directory recipes if configured
         String recipesDir = RecipeLoader.getDefaultRecipesDirectory();
         if (recipesDir != null) {
-            DirectoryRepository dirRepo = new DirectoryRepository("DirectoryRepository", recipesDir);
-            repositoryManager.addRepository(dirRepo);
+            repositories.add(new DirectoryRepository("DirectoryRepository", recipesDir));
         } else {
             logger.debug("No external recipes directory configured.");
             logger.debug("To add external recipes, set LEVAIN_RECIPES_DIR or levain.recipes.dir");
@@ -81,12 +92,16 @@ public class RecipeService {
         }
 
         // Add Registry (installed recipes) - searched last
-        Registry registry = new Registry();
-        repositoryManager.addRepository(registry);
+        repositories.add(new Registry());
 
+        repositoryManager.addRepositories(repositories);
         logger.debug(repositoryManager.describe());
     }
 
+    /**
+     * Tree of every available recipe. Building it initializes all repositories,
+     * so only listing uses it; lookups by name go through {@link #lookupTree}.
+     */
     private RecipeTree initializeRecipeTree() {
         if (recipeTree == null) {
             java.util.Map<String, Recipe> recipeMap = new java.util.LinkedHashMap<>();
@@ -100,6 +115,9 @@ public class RecipeService {
 
     /**
      * List available recipes, optionally filtered by a pattern.
+     * With a filter, recipes are searched by name, description and custom
+     * attributes, ignoring case and tolerating typos, and come best match
+     * first.
      *
      * @param filter Optional filter pattern
      * @return List of recipe names
@@ -120,8 +138,7 @@ public class RecipeService {
      */
     public Recipe loadRecipe(String recipeName) {
         logger.debug("Loading recipe: {}", recipeName);
-        RecipeTree tree = initializeRecipeTree();
-        return tree.getRecipe(recipeName)
+        return lookupTree.getRecipe(recipeName)
                 .orElseThrow(() -> new IllegalArgumentException("Recipe not found: " + recipeName));
     }
 
@@ -135,8 +152,7 @@ public class RecipeService {
      */
     public List<Recipe> resolveRecipe(String recipeName) {
         logger.debug("Resolving recipe: {}", recipeName);
-        RecipeTree tree = initializeRecipeTree();
-        return tree.resolve(recipeName);
+        return lookupTree.resolve(recipeName);
     }
 
     /**
@@ -149,8 +165,7 @@ public class RecipeService {
      */
     public List<Recipe> resolveRecipes(List<String> recipeNames) {
         logger.debug("Resolving recipes: {}", recipeNames);
-        RecipeTree tree = initializeRecipeTree();
-        return tree.resolveAll(recipeNames);
+        return lookupTree.resolveAll(recipeNames);
     }
 
     /**
@@ -162,8 +177,7 @@ public class RecipeService {
      */
     public List<String> getDependencies(String recipeName) {
         logger.debug("Getting dependencies for recipe: {}", recipeName);
-        RecipeTree tree = initializeRecipeTree();
-        return tree.getDependencies(recipeName);
+        return lookupTree.getDependencies(recipeName);
     }
 
     /**
@@ -210,6 +224,62 @@ public class RecipeService {
         return repositoryManager.getRegistry().flatMap(registry -> registry.getMetadata(recipeName));
     }
 
+    /**
+     * Installation status, and optionally source, of several recipes,
+     * resolved in one pass over the Registry and the repositories.
+     *
+     * The source of an installed recipe is the repository recorded in its
+     * registry metadata; the source of any other recipe is the repository
+     * providing it. A recipe whose source is unknown gets the source name
+     * "unknown".
+     *
+     * @param recipeNames Names of the recipes
+     * @param withSource  Whether to resolve sources
+     * @return statuses in the order of {@code recipeNames}
+     */
+    public List<RecipeStatus> getRecipeStatuses(List<String> recipeNames, boolean withSource) {
+        Set<String> installed = repositoryManager.getInstalledRecipeNames();
+        Map<String, Repository> sources = Map.of();
+        if (withSource) {
+            sources = repositoryManager.findRepositoriesForRecipes(recipeNames.stream()
+                    .filter(recipeName -> !installed.contains(recipeName))
+                    .toList());
+        }
+
+        List<RecipeStatus> statuses = new ArrayList<>(recipeNames.size());
+        for (String recipeName : recipeNames) {
+            boolean isInstalled = installed.contains(recipeName);
+            String sourceName = null;
+            String sourceUri = null;
+            if (withSource) {
+                if (isInstalled) {
+                    RecipeMetadata metadata = getInstalledMetadata(recipeName).orElse(null);
+                    if (metadata != null) {
+                        sourceName = metadata.getSourceRepository();
+                        sourceUri = metadata.getSourceRepositoryUri();
+                    }
+                } else {
+                    Repository repository = sources.get(recipeName);
+                    if (repository != null) {
+                        sourceName = repository.getName();
+                        sourceUri = repository.getUri();
+                    }
+                }
+                if (sourceName == null && sourceUri == null) {
+                    sourceName = "unknown";
+                }
+            }
+            statuses.add(new RecipeStatus(recipeName, isInstalled, sourceName, sourceUri));
+        }
+        return statuses;
+    }
+
+    /**
+     * A recipe with its installation status and, when requested, its source.
+     */
+    public record RecipeStatus(String name, boolean isInstalled, String sourceName, String sourceUri) {
+    }
+
     /**
      * Check if a recipe is installed (exists in the Registry).
      *
@@ -0,0 +1,155 @@
+package com.github.jmoalves.levain.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jmoalves.levain.util.FileUtils;
+
+/**
+ * Environment snapshots of {@code levain shell}, one file per snapshot key in
+ * a cache directory.
+ *
+ * A snapshot holds the variables the {@code cmd.shell} and {@code cmd.env}
+ * actions of a package set changed (PATH included) and the names of the
+ * recipes it was built from. Its key covers everything those actions read:
+ * the packages in order, the YAML of the recipe run for each, the variables
+ * they started from, the process environment variables they reference (PATH
+ * included) and the Levain home. A snapshot is never updated, a
+ * change gives another key, and the oldest snapshots are dropped past
+ * {@link #MAX_SNAPSHOTS}. Files that cannot be read count as missing.
+ */
+final class ShellEnvironmentCache {
+    private static final Logger logger = LoggerFactory.getLogger(ShellEnvironmentCache.class);
+    // Bump when the snapshot layout or the key changes
+    static final int FORMAT_VERSION = 2;
+    static final String EXTENSION = ".env.json";
+    // Older snapshots are deleted past this many
+    static final int MAX_SNAPSHOTS = 64;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+
+    ShellEnvironmentCache(Path directory) {
+        this.directory = directory;
+    }
+
+    record Snapshot(int format, List<String> recipeNames, Map<String, String> variables) {
+    }
+
+    /**
+     * Key of the snapshot of {@code packages}.
+     *
+     * @param packages    the requested packages, in order
+     * @param recipes     the YAML of the recipe run for each package
+     * @param variables   the configured variables before any action runs
+     * @param environment the process environment variables the actions may
+     *                    read, null for unset ones
+     * @param levainHome  the Levain home
+     */
+    static String key(List<String> packages, List<String> recipes, Map<String, String> variables,
+            Map<String, String> environment, String levainHome) {
+        StringBuilder text = new StringBuilder();
+        text.append(FORMAT_VERSION).append('\n').append(levainHome).append('\n');
+        for (int i = 0; i < packages.size(); i++) {
+            String recipe = recipes.get(i);
+            // Length-prefixed: recipe text may contain anything
+            text.append("pkg ").append(packages.get(i)).append(' ').append(recipe.length()).append('\n')
+                    .append(recipe).append('\n');
+        }
+        new TreeMap<>(variables).forEach(
+                (name, value) -> text.append("var ").append(name).append('=').append(value).append('\n'));
+        new TreeMap<>(environment).forEach((name, value) -> {
+            text.append("env ").append(name);
+            if (value != null) {
+                text.append('=').append(value);
+            }
+            text.append('\n');
+        });
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    Optional<Snapshot> read(String key) {
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            Snapshot snapshot = MAPPER.readValue(file.toFile(), Snapshot.class);
+            if (snapshot.format() != FORMAT_VERSION || snapshot.recipeNames() == null
+                    || snapshot.variables() == null) {
+                logger.debug("Ignoring shell snapshot {} in an old format", file);
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable shell snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a snapshot. Failures are logged: the environment can always be
+     * built again from the recipes.
+     */
+    void write(String key, List<String> recipeNames, Map<String, String> variables) {
+        Path file = file(key);
+        try {
+            Files.createDirectories(directory);
+            FileUtils.writeAtomically(file, MAPPER.writeValueAsBytes(
+                    new Snapshot(FORMAT_VERSION, List.copyOf(recipeNames), new TreeMap<>(variables))));
+            logger.debug("Stored shell snapshot {}", file);
+        } catch (IOException e) {
+            logger.warn("Failed to write shell snapshot {}: {}", file, e.getMessage());
+            return;
+        }
+        prune();
+    }
+
+    private void prune() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> snapshots = files
+                    .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(ShellEnvironmentCache::modified).reversed())
+                    .toList();
+            for (Path stale : snapshots.subList(Math.min(MAX_SNAPSHOTS, snapshots.size()), snapshots.size())) {
+                Files.deleteIfExists(stale);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to prune shell snapshots in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static FileTime modified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+}
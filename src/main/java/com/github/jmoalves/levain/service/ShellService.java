@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -15,6 +17,7 @@ import com.github.jmoalves.levain.action.ActionContext;
 import com.github.jmoalves.levain.action.ActionExecutor;
 import com.github.jmoalves.levain.config.Config;
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.repository.GitRepository;
 import com.github.jmoalves.levain.util.EnvironmentUtils;
 
 import jakarta.enterprise.context.ApplicationScoped;
@@ -26,6 +29,10 @@ import jakarta.inject.Inject;
 @ApplicationScoped
 public class ShellService {
     private static final Logger logger = LoggerFactory.getLogger(ShellService.class);
+    // Environment snapshots, under the cache directory
+    static final String SNAPSHOT_DIR = "shell";
+    // Actions whose whole effect on a shell is the variables they set
+    private static final Set<String> REPLAYABLE_ACTIONS = Set.of("setVar", "setEnv", "addPath");
 
     @Inject
     private Config config;
@@ -38,7 +45,8 @@ public class ShellService {
 
     /**
      * Open a shell with specified packages in the environment.
-     * Executes cmd.shell and cmd.env actions from all package dependencies before launching shell.
+     * Executes cmd.shell and cmd.env actions from all package dependencies before launching shell,
+     * or replays the environment they built on a previous run.
      *
      * @param packages List of packages to include in shell environment
      * @throws IOException if shell cannot be opened
@@ -50,18 +58,53 @@ public class ShellService {
     public void openShell(List<String> packages, Path workingDir) throws IOException {
         logger.info("Opening shell with packages: {}", packages);
 
+        Map<String, String> environment = prepareEnvironment(packages != null ? packages : List.of());
+
+        // Determine OS and appropriate shell command
+        List<String> command = buildShellCommand(packages);
+
+        try {
+            runProcess(command, environment, workingDir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Shell process interrupted", e);
+        }
+    }
+
+    /**
+     * Run the cmd.shell and cmd.env actions of the packages and build the
+     * shell environment, or replay the snapshot of a previous run when the
+     * recipes run, the starting variables and the environment variables they
+     * reference are the same. --refresh builds the environment again.
+     */
+    private Map<String, String> prepareEnvironment(List<String> packages) {
+        Map<String, String> before = new HashMap<>(config.getVariables());
+
         // Load recipes for all requested packages
         List<Recipe> recipes = new ArrayList<>();
-        if (packages != null && !packages.isEmpty()) {
-            for (String pkgName : packages) {
-                try {
-                    Recipe recipe = recipeService.loadRecipe(pkgName);
-                    if (recipe != null) {
-                        recipes.add(recipe);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to load recipe {}: {}", pkgName, e.getMessage());
+        for (String pkgName : packages) {
+            try {
+                Recipe recipe = recipeService.loadRecipe(pkgName);
+                if (recipe != null) {
+                    recipes.add(recipe);
                 }
+            } catch (Exception e) {
+                logger.warn("Failed to load recipe {}: {}", pkgName, e.getMessage());
+            }
+        }
+
+        ShellEnvironmentCache cache = snapshotCache();
+        String key = null;
+        if (cache != null && recipes.size() == packages.size() && recipes.stream().allMatch(this::isReplayable)) {
+            key = snapshotKey(recipes, before);
+        }
+
+        if (key != null && !Boolean.parseBoolean(System.getProperty(GitRepository.REFRESH_PROPERTY))) {
+            Optional<ShellEnvironmentCache.Snapshot> snapshot = cache.read(key);
+            if (snapshot.isPresent()) {
+                logger.debug("Replaying shell environment snapshot {}", key);
+                snapshot.get().variables().forEach(config::setVariable);
+                return buildEnvironmentFor(snapshot.get().recipeNames());
             }
         }
 
@@ -71,18 +114,97 @@ public class ShellService {
             executeShellActions(recipe);
         }
 
+        if (key != null) {
+            Map<String, String> changed = new HashMap<>();
+            config.getVariables().forEach((name, value) -> {
+                if (value != null && !value.equals(before.get(name))) {
+                    changed.put(name, value);
+                }
+            });
+            cache.write(key, recipes.stream().map(Recipe::getName).toList(), changed);
+        }
+
         // Build environment with all recipe configurations
-        Map<String, String> environment = buildEnvironment(recipes);
+        return buildEnvironment(recipes);
+    }
 
-        // Determine OS and appropriate shell command
-        List<String> command = buildShellCommand(packages);
+    private ShellEnvironmentCache snapshotCache() {
+        Path cacheDir = config.getCacheDir();
+        return cacheDir != null ? new ShellEnvironmentCache(cacheDir.resolve(SNAPSHOT_DIR)) : null;
+    }
 
-        try {
-            runProcess(command, environment, workingDir);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("Shell process interrupted", e);
+    /**
+     * The snapshot key of the recipes about to run: their YAML as the recipe
+     * service resolves it, so a repository copy shadowing the installed one
+     * is what counts, and the value of every variable their shell actions
+     * or attributes reference in the process environment, which
+     * substitution falls back to.
+     *
+     * @return the snapshot key, or null if the YAML of a recipe is not found
+     */
+    private String snapshotKey(List<Recipe> recipes, Map<String, String> variables) {
+        List<String> names = new ArrayList<>(recipes.size());
+        List<String> contents = new ArrayList<>(recipes.size());
+        Map<String, String> environment = new HashMap<>();
+        environment.put("PATH", System.getenv("PATH"));
+        for (Recipe recipe : recipes) {
+            Optional<String> yaml = recipeService.getRecipeYamlContent(recipe.getName());
+            if (yaml.isEmpty()) {
+                return null;
+            }
+            names.add(recipe.getName());
+            contents.add(yaml.get());
+            List<String> templates = new ArrayList<>(shellCommands(recipe));
+            if (recipe.getCustomAttributes() != null) {
+                // Attributes are substituted too, and may be referenced by the commands
+                recipe.getCustomAttributes().values().stream()
+                        .filter(String.class::isInstance)
+                        .map(String.class::cast)
+                        .forEach(templates::add);
+            }
+            for (String template : templates) {
+                for (String name : VariableTemplate.of(template).variables()) {
+                    environment.put(name, System.getenv(name));
+                }
+            }
+        }
+        return ShellEnvironmentCache.key(names, contents, variables, environment,
+                config.getLevainHome().toString());
+    }
+
+    /**
+     * Whether replaying the variables a recipe's shell actions set is the same
+     * as running them: they only set variables or PATH for this session and
+     * do not read other recipes.
+     */
+    private boolean isReplayable(Recipe recipe) {
+        for (String command : shellCommands(recipe)) {
+            if (command == null || command.isBlank()) {
+                continue;
+            }
+            String actionName = ActionExecutor.actionName(command);
+            if (actionName == null || !REPLAYABLE_ACTIONS.contains(actionName)
+                    || List.of(command.trim().split("\\s+")).contains("--permanent") || command.contains("${pkg.")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The cmd.shell and then the cmd.env commands of a recipe.
+     */
+    private static List<String> shellCommands(Recipe recipe) {
+        List<String> commands = new ArrayList<>();
+        if (recipe.getCommands() != null) {
+            for (String block : List.of("shell", "env")) {
+                List<String> blockCommands = recipe.getCommands().get(block);
+                if (blockCommands != null) {
+                    blockCommands.stream().filter(command -> command != null).forEach(commands::add);
+                }
+            }
         }
+        return commands;
     }
 
     private void executeShellActions(Recipe recipe) {
@@ -121,18 +243,21 @@ public class ShellService {
     }
 
     private boolean isLevainShellAction(String action) {
-        String trimmed = action.trim();
-        return trimmed.equals("levainShell") || trimmed.startsWith("levainShell ");
+        // --async levainShell recurses just the same
+        return "levainShell".equals(ActionExecutor.actionName(action));
     }
 
     private Map<String, String> buildEnvironment(List<Recipe> recipes) {
+        return buildEnvironmentFor(recipes != null ? recipes.stream().map(Recipe::getName).toList() : null);
+    }
+
+    private Map<String, String> buildEnvironmentFor(List<String> recipeNames) {
         Map<String, String> env = new HashMap<>(System.getenv());
         env.putAll(config.getVariables());
         env.put("levainHome", config.getLevainHome().toString());
 
-        if (recipes != null && !recipes.isEmpty()) {
-            String names = recipes.stream()
-                    .map(Recipe::getName)
+        if (recipeNames != null && !recipeNames.isEmpty()) {
+            String names = recipeNames.stream()
                     .filter(n -> n != null && !n.isBlank())
                     .collect(Collectors.joining(";"));
             if (!names.isBlank()) {
@@ -0,0 +1,64 @@
+package com.github.jmoalves.levain.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Variables in layers. A lookup asks the innermost layer first, then each
+ * enclosing one, so a layer overrides the layers it was built on without
+ * copying them.
+ *
+ * Map layers are immutable: {@link VariableSubstitutionService} builds the
+ * layers of a recipe (built-ins, then recipe attributes) once per
+ * {@link com.github.jmoalves.levain.action.ActionContext}, and every command
+ * of the recipe looks variables up through them. Variables that change while
+ * the recipe runs are not copied: config variables (setEnv, addPath) are a
+ * lookup layer between the two, and recipe-scoped variables (setVar,
+ * checkChainDirExists) stay in the ActionContext, above all layers.
+ */
+public final class VariableScope {
+    private static final VariableScope EMPTY = new VariableScope(null, name -> null);
+
+    private final VariableScope parent;
+    private final Function<String, String> variables;
+
+    private VariableScope(VariableScope parent, Function<String, String> variables) {
+        this.parent = parent;
+        this.variables = variables;
+    }
+
+    public static VariableScope empty() {
+        return EMPTY;
+    }
+
+    /**
+     * A new layer above this one. {@code layer} is copied.
+     */
+    public VariableScope with(Map<String, String> layer) {
+        return new VariableScope(this, Collections.unmodifiableMap(new HashMap<>(layer))::get);
+    }
+
+    /**
+     * A new layer above this one that asks {@code lookup} on every lookup,
+     * for variables that may change while the layers are in use.
+     */
+    public VariableScope withLookup(Function<String, String> lookup) {
+        return new VariableScope(this, lookup);
+    }
+
+    /**
+     * @return the value of {@code name} in the innermost layer defining it, or
+     *         null
+     */
+    public String get(String name) {
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            String value = scope.variables.apply(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -11,11 +11,14 @@ import org.apache.logging.log4j.Logger;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Service for handling variable substitution in recipes.
@@ -30,11 +33,20 @@ import java.util.regex.Pattern;
  * required)
  * 5. Environment variables (system environment variables)
  * 6. Recipe custom attributes (any additional YAML properties)
+ *
+ * Strings are parsed into {@link VariableTemplate}s once and the templates
+ * are cached, so command strings substituted over and over are not parsed
+ * again, and strings without variables are returned as they are.
+ *
+ * Sources 1-3 and 6 are kept in a {@link VariableScope}: built-ins in one
+ * layer, config variables looked up live above them and recipe attributes
+ * on top. When substituting for an action context, the scope is built once
+ * per context and the context's recipe-scoped variables are looked up above
+ * it, so setVar, setEnv and friends take effect without rebuilding anything.
  */
 @ApplicationScoped
 public class VariableSubstitutionService {
     private static final Logger logger = LogManager.getLogger(VariableSubstitutionService.class);
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
 
     @Inject
     Config config;
@@ -42,6 +54,11 @@ public class VariableSubstitutionService {
     @Inject
     RecipeService recipeService;
 
+    // Variables of recipes referenced as ${pkg.<recipe>.<variable>}, by recipe name
+    private final Map<String, Map<String, String>> indirectScopes = new ConcurrentHashMap<>();
+    // Recipes whose variables this thread is resolving, to detect pkg. cycles
+    private final ThreadLocal<Set<String>> resolving = ThreadLocal.withInitial(HashSet::new);
+
     /**
      * Substitute variables in a string using the provided variable context.
      * 
@@ -55,12 +72,15 @@ public class VariableSubstitutionService {
         if (text == null) {
             return null;
         }
+        if (VariableTemplate.of(text).isConstant()) {
+            return text;
+        }
 
         // Build variable context
-        Map<String, String> variables = buildVariableContext(recipe, baseDir);
+        VariableScope variables = buildVariableScope(recipe, baseDir);
 
         // Perform substitution
-        return substitute(text, variables);
+        return render(text, variables::get);
     }
 
     /**
@@ -73,12 +93,16 @@ public class VariableSubstitutionService {
      * @return The text with variables substituted
      */
     public String substitute(String text, com.github.jmoalves.levain.action.ActionContext context) {
-        if (text == null || context == null) {
+        if (text == null || context == null || VariableTemplate.of(text).isConstant()) {
             return text;
         }
 
-        Map<String, String> variables = buildVariableContext(context);
-        return substitute(text, variables);
+        VariableScope variables = context.getVariableScope(
+                () -> buildVariableScope(context.getRecipe(), context.getBaseDir()));
+        return render(text, name -> {
+            String value = context.getRecipeVariable(name);
+            return value != null ? value : variables.get(name);
+        });
     }
 
     /**
@@ -93,35 +117,36 @@ public class VariableSubstitutionService {
             return text;
         }
 
-        StringBuffer result = new StringBuffer();
-        Matcher matcher = VARIABLE_PATTERN.matcher(text);
+        return render(text, variables::get);
+    }
 
-        while (matcher.find()) {
-            String variableName = matcher.group(1);
+    /**
+     * Substitute variables in a string, looking local variables up with
+     * {@code variables}.
+     */
+    private String render(String text, Function<String, String> variables) {
+        return VariableTemplate.of(text).render(variableName -> {
             String value = resolveVariable(variableName, variables);
-
             if (value != null) {
-                matcher.appendReplacement(result, Matcher.quoteReplacement(value));
                 logger.debug("Substituted ${} with '{}'", variableName, value);
             } else {
                 // Keep original if variable not found
                 logger.warn("Variable not found: {}", variableName);
-                matcher.appendReplacement(result, Matcher.quoteReplacement(matcher.group(0)));
             }
-        }
-
-        matcher.appendTail(result);
-        return result.toString();
+            return value;
+        });
     }
 
     /**
-     * Build a variable context from recipe attributes and built-in variables.
+     * Build the variable scope of a recipe: built-in variables, config
+     * variables read from the config on each lookup, and the recipe
+     * attributes in a layer above them.
      * 
      * @param recipe  The recipe providing context
      * @param baseDir The base directory for the recipe
-     * @return Map of variable names to values
+     * @return the variable scope
      */
-    private Map<String, String> buildVariableContext(Recipe recipe, Path baseDir) {
+    private VariableScope buildVariableScope(Recipe recipe, Path baseDir) {
         Map<String, String> variables = new HashMap<>();
 
         // Add built-in variables
@@ -136,56 +161,58 @@ public class VariableSubstitutionService {
             variables.put("shellPath", shellPath);
         }
 
-        // Add custom config variables
-        variables.putAll(config.getVariables());
-
-        // Add recipe attributes as variables (single-valued attributes)
-        if (recipe != null) {
-            if (recipe.getName() != null) {
-                variables.put("name", recipe.getName());
-            }
-            if (recipe.getVersion() != null) {
-                variables.put("version", recipe.getVersion());
-            }
-            if (recipe.getDescription() != null) {
-                variables.put("description", recipe.getDescription());
-            }
-            if (recipe.getRecipesDir() != null) {
-                variables.put("recipesDir", recipe.getRecipesDir());
-            }
-            if (recipe.getCustomAttributes() != null) {
-                for (Map.Entry<String, Object> entry : recipe.getCustomAttributes().entrySet()) {
-                    String key = entry.getKey();
-                    if (key == null || key.startsWith("cmd.")) {
-                        continue;
-                    }
-                    Object value = entry.getValue();
-                    if (value instanceof String) {
-                        // Substitute variables in custom attribute values (e.g., gitHome: ${baseDir})
-                        String stringValue = (String) value;
-                        String substitutedValue = substitute(stringValue, variables);
-                        variables.put(key, substitutedValue);
-                    } else if (value instanceof Number || value instanceof Boolean) {
-                        variables.put(key, value.toString());
-                    }
-                }
-            }
+        // Custom config variables, read live: setEnv and addPath change them while a recipe runs
+        VariableScope global = VariableScope.empty().with(variables)
+                .withLookup(name -> config.getVariables().get(name));
+        if (recipe == null) {
+            return global;
         }
 
-        return variables;
+        // Add recipe attributes as variables (single-valued attributes)
+        return global.with(recipeVariables(recipe, global::get));
     }
 
-    private Map<String, String> buildVariableContext(com.github.jmoalves.levain.action.ActionContext context) {
-        Recipe recipe = context.getRecipe();
-        Path baseDir = context.getBaseDir();
-        Map<String, String> variables = buildVariableContext(recipe, baseDir);
-
-        Map<String, String> recipeVariables = context.getRecipeVariables();
-        if (recipeVariables != null && !recipeVariables.isEmpty()) {
-            variables.putAll(recipeVariables);
+    /**
+     * Variables of a recipe's single-valued attributes. String custom
+     * attributes are substituted, in order, against the attributes before
+     * them and then {@code enclosing}.
+     */
+    private Map<String, String> recipeVariables(Recipe recipe, Function<String, String> enclosing) {
+        Map<String, String> recipeVariables = new HashMap<>();
+        if (recipe.getName() != null) {
+            recipeVariables.put("name", recipe.getName());
+        }
+        if (recipe.getVersion() != null) {
+            recipeVariables.put("version", recipe.getVersion());
+        }
+        if (recipe.getDescription() != null) {
+            recipeVariables.put("description", recipe.getDescription());
+        }
+        if (recipe.getRecipesDir() != null) {
+            recipeVariables.put("recipesDir", recipe.getRecipesDir());
+        }
+        if (recipe.getCustomAttributes() != null) {
+            for (Map.Entry<String, Object> entry : recipe.getCustomAttributes().entrySet()) {
+                String key = entry.getKey();
+                if (key == null || key.startsWith("cmd.")) {
+                    continue;
+                }
+                Object value = entry.getValue();
+                if (value instanceof String) {
+                    // Substitute variables in custom attribute values (e.g., gitHome: ${baseDir})
+                    String stringValue = (String) value;
+                    String substitutedValue = render(stringValue, name -> {
+                        String local = recipeVariables.get(name);
+                        return local != null ? local : enclosing.apply(name);
+                    });
+                    recipeVariables.put(key, substitutedValue);
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    recipeVariables.put(key, value.toString());
+                }
+            }
         }
 
-        return variables;
+        return recipeVariables;
     }
 
     /**
@@ -193,12 +220,12 @@ public class VariableSubstitutionService {
      * (package.variable or pkg.package.variable) and environment variables.
      * 
      * @param variableName The variable name, potentially with package prefix
-     * @param variables    The local variable context
+     * @param variables    Lookup of the local variable context
      * @return The variable value, or null if not found
      */
-    private String resolveVariable(String variableName, Map<String, String> variables) {
+    private String resolveVariable(String variableName, Function<String, String> variables) {
         // Check local variables first (includes config and recipe attributes)
-        String localValue = variables.get(variableName);
+        String localValue = variables.apply(variableName);
         if (localValue != null) {
             return localValue;
         }
@@ -261,44 +288,11 @@ public class VariableSubstitutionService {
         String variableName = remaining.substring(lastDot + 1);
 
         try {
-            // Try to find and load the recipe
-            Recipe refRecipe = recipeService.loadRecipe(packageName);
-            if (refRecipe == null) {
-                logger.warn("Failed to resolve indirect variable {}: recipe not found", indirectRef);
+            Map<String, String> refVariables = indirectVariables(packageName);
+            if (refVariables == null) {
                 return null;
             }
 
-            Map<String, String> refVariables = new HashMap<>();
-
-            // Build variable context for referenced recipe
-            if (refRecipe.getName() != null) {
-                refVariables.put("name", refRecipe.getName());
-            }
-            if (refRecipe.getVersion() != null) {
-                refVariables.put("version", refRecipe.getVersion());
-            }
-            if (refRecipe.getDescription() != null) {
-                refVariables.put("description", refRecipe.getDescription());
-            }
-            if (refRecipe.getRecipesDir() != null) {
-                refVariables.put("recipesDir", refRecipe.getRecipesDir());
-            }
-            if (refRecipe.getCustomAttributes() != null) {
-                for (Map.Entry<String, Object> entry : refRecipe.getCustomAttributes().entrySet()) {
-                    String key = entry.getKey();
-                    if (key == null || key.startsWith("cmd.")) {
-                        continue;
-                    }
-                    Object value = entry.getValue();
-                    if (value instanceof String) {
-                        String substitutedValue = substitute((String) value, refVariables);
-                        refVariables.put(key, substitutedValue);
-                    } else if (value instanceof Number || value instanceof Boolean) {
-                        refVariables.put(key, value.toString());
-                    }
-                }
-            }
-
             String value = refVariables.get(variableName);
             if (value != null) {
                 logger.debug("Resolved indirect variable {}.{}", packageName, variableName);
@@ -310,6 +304,52 @@ public class VariableSubstitutionService {
         }
     }
 
+    /**
+     * Variables of a recipe referenced through pkg., resolved once per run:
+     * after the first reference, a reference costs one map lookup. The
+     * recipe service hands out one Recipe per name for the whole run, so the
+     * variables only go stale when a recipe is installed, and
+     * {@link #invalidateRecipeVariables()} drops them then. Recipes that
+     * reference each other through their attributes are reported and their
+     * circular references left unresolved.
+     *
+     * @return the variables, or null if the recipe is not found or is
+     *         already being resolved
+     */
+    private Map<String, String> indirectVariables(String packageName) {
+        Map<String, String> cached = indirectScopes.get(packageName);
+        if (cached != null) {
+            return cached;
+        }
+
+        Recipe refRecipe = recipeService.loadRecipe(packageName);
+        if (refRecipe == null) {
+            logger.warn("Failed to resolve indirect variables of {}: recipe not found", packageName);
+            return null;
+        }
+
+        Set<String> inProgress = resolving.get();
+        if (!inProgress.add(packageName)) {
+            logger.warn("Circular pkg. reference to recipe {}", packageName);
+            return null;
+        }
+        try {
+            Map<String, String> variables = Collections.unmodifiableMap(recipeVariables(refRecipe, name -> null));
+            indirectScopes.put(packageName, variables);
+            return variables;
+        } finally {
+            inProgress.remove(packageName);
+        }
+    }
+
+    /**
+     * Forget the resolved variables of other recipes, after a recipe was
+     * installed or changed.
+     */
+    public void invalidateRecipeVariables() {
+        indirectScopes.clear();
+    }
+
     /**
      * Apply variable substitution to all commands in a recipe.
      * This substitutes variables in all command strings within the recipe.
@@ -322,7 +362,7 @@ public class VariableSubstitutionService {
             return;
         }
 
-        Map<String, String> variables = buildVariableContext(recipe, baseDir);
+        VariableScope variables = buildVariableScope(recipe, baseDir);
 
         // Iterate through each command category and its command list
         for (Map.Entry<String, List<String>> entry : recipe.getCommands().entrySet()) {
@@ -330,7 +370,7 @@ public class VariableSubstitutionService {
             if (commands != null) {
                 for (int i = 0; i < commands.size(); i++) {
                     String originalCommand = commands.get(i);
-                    String substitutedCommand = substitute(originalCommand, variables);
+                    String substitutedCommand = render(originalCommand, variables::get);
                     if (!originalCommand.equals(substitutedCommand)) {
                         logger.debug("Substituted command in {}: {} -> {}", entry.getKey(), originalCommand,
                                 substitutedCommand);
@@ -0,0 +1,118 @@
+package com.github.jmoalves.levain.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A string with ${variable} references, parsed once into literal and
+ * variable segments so it can be rendered many times without a regex.
+ *
+ * A reference is {@code ${} followed by one or more characters other than
+ * {@code }} and a closing {@code }}, as {@code \$\{([^}]+)\}} would match it.
+ * Compiled templates are cached by their text; a text without {@code ${}
+ * needs no parsing and renders to itself.
+ */
+final class VariableTemplate {
+    // The cache is dropped as a whole when it grows past this size
+    static final int MAX_CACHED = 4096;
+
+    private static final Map<String, VariableTemplate> cache = new ConcurrentHashMap<>();
+
+    private final String text;
+    // Literals at even indexes, variable names at odd indexes
+    private final String[] segments;
+
+    private VariableTemplate(String text, String[] segments) {
+        this.text = text;
+        this.segments = segments;
+    }
+
+    /**
+     * The compiled template of {@code text}, from the cache when it was
+     * compiled before.
+     */
+    static VariableTemplate of(String text) {
+        VariableTemplate template = cache.get(text);
+        if (template == null) {
+            template = compile(text);
+            if (cache.size() >= MAX_CACHED) {
+                cache.clear();
+            }
+            cache.put(text, template);
+        }
+        return template;
+    }
+
+    static VariableTemplate compile(String text) {
+        int start = text.indexOf("${");
+        if (start < 0) {
+            return new VariableTemplate(text, new String[] { text });
+        }
+
+        List<String> segments = new ArrayList<>();
+        int literalStart = 0;
+        while (start >= 0) {
+            int end = text.indexOf('}', start + 2);
+            if (end < 0) {
+                break;
+            }
+            if (end == start + 2) {
+                // "${}" is not a reference
+                start = text.indexOf("${", start + 1);
+                continue;
+            }
+            segments.add(text.substring(literalStart, start));
+            segments.add(text.substring(start + 2, end));
+            literalStart = end + 1;
+            start = text.indexOf("${", literalStart);
+        }
+        segments.add(text.substring(literalStart));
+        return new VariableTemplate(text, segments.toArray(String[]::new));
+    }
+
+    /**
+     * @return whether the template references no variable
+     */
+    boolean isConstant() {
+        return segments.length == 1;
+    }
+
+    /**
+     * Names of the referenced variables, in order of appearance.
+     */
+    List<String> variables() {
+        List<String> names = new ArrayList<>(segments.length / 2);
+        for (int i = 1; i < segments.length; i += 2) {
+            names.add(segments[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Render the template. References {@code resolver} returns null for are
+     * kept as they are.
+     */
+    String render(Function<String, String> resolver) {
+        if (isConstant()) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 32);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (i % 2 == 0) {
+                result.append(segment);
+                continue;
+            }
+            String value = resolver.apply(segment);
+            if (value != null) {
+                result.append(value);
+            } else {
+                result.append("${").append(segment).append('}');
+            }
+        }
+        return result.toString();
+    }
+}
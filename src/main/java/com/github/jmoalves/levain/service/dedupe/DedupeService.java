@@ -0,0 +1,181 @@
+package com.github.jmoalves.levain.service.dedupe;
+
+import com.github.jmoalves.levain.config.Config;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed hardlink store for installed files.
+ *
+ * Every stored file lives under {@code <storeDir>/<xx>/<sha256>} and installed
+ * copies with the same content are replaced by hardlinks to it. The executable
+ * bit is part of the key, since linked files share their permissions.
+ *
+ * Files are never modified in place: a duplicate is replaced by creating a
+ * temporary link next to it and atomically moving it over the original.
+ * Linking is best effort; filesystems without hardlink support, or a store on
+ * a different volume, simply leave the files as they are.
+ */
+@ApplicationScoped
+public class DedupeService {
+    private static final Logger logger = LoggerFactory.getLogger(DedupeService.class);
+    private static final long MIN_FILE_SIZE = 1024;
+
+    private final Config config;
+
+    @Inject
+    public DedupeService(Config config) {
+        this.config = config;
+    }
+
+    public boolean isEnabled() {
+        return config.isDedupeEnabled();
+    }
+
+    /**
+     * Link freshly written files into the store, if deduplication is enabled.
+     * Failures are logged and never abort the calling action.
+     */
+    public void storeIfEnabled(Collection<Path> files) {
+        if (!isEnabled() || files == null || files.isEmpty()) {
+            return;
+        }
+        for (Path file : files) {
+            try {
+                link(file);
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.debug("Skipping dedupe of {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deduplicate every regular file under a directory, hashing in parallel.
+     *
+     * @param root directory to scan (usually the levain home)
+     * @return counters for the scan
+     */
+    public DedupeResult dedupe(Path root) throws IOException {
+        Path storeDir = config.getStoreDir().toAbsolutePath().normalize();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk
+                    .filter(path -> !path.toAbsolutePath().normalize().startsWith(storeDir))
+                    .filter(path -> Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS))
+                    .toList();
+        }
+
+        AtomicInteger linked = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong savedBytes = new AtomicLong();
+        files.parallelStream().forEach(file -> {
+            try {
+                long size = Files.size(file);
+                if (link(file)) {
+                    linked.incrementAndGet();
+                    savedBytes.addAndGet(size);
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                failed.incrementAndGet();
+                logger.debug("Failed to dedupe {}: {}", file, e.getMessage());
+            }
+        });
+
+        return new DedupeResult(files.size(), linked.get(), failed.get(), savedBytes.get());
+    }
+
+    /**
+     * Link a single file into the store.
+     *
+     * @return true if the file was replaced by a link to an existing copy
+     */
+    public boolean link(Path file) throws IOException {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        long size = Files.size(file);
+        if (size < MIN_FILE_SIZE) {
+            return false;
+        }
+
+        Path stored = storePath(hash(file), Files.isExecutable(file));
+        while (true) {
+            if (Files.exists(stored)) {
+                if (Files.isSameFile(stored, file)) {
+                    return false;
+                }
+                if (Files.size(stored) != size) {
+                    logger.warn("Content store entry {} has an unexpected size, ignoring it", stored);
+                    return false;
+                }
+                replaceWithLink(file, stored);
+                return true;
+            }
+
+            Files.createDirectories(stored.getParent());
+            try {
+                Files.createLink(stored, file);
+                return false;
+            } catch (FileAlreadyExistsException e) {
+                // Another thread stored the same content first; link against it
+            }
+        }
+    }
+
+    Path storePath(String hash, boolean executable) {
+        String name = executable ? hash + ".x" : hash;
+        return config.getStoreDir().resolve(hash.substring(0, 2)).resolve(name);
+    }
+
+    private void replaceWithLink(Path file, Path stored) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".dedupe-" + UUID.randomUUID());
+        Files.createLink(temp, stored);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[65536];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Counters from a dedupe run.
+     */
+    public record DedupeResult(int scannedFiles, int linkedFiles, int failedFiles, long savedBytes) {
+    }
+}
@@ -25,6 +25,9 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 @ApplicationScoped
@@ -33,6 +36,8 @@ public class FileCache {
 
     private final Config config;
     private final HttpClient httpClient;
+    // One lock per cached file, so --async commands fetching the same URL download it once
+    private final Map<Path, ReentrantLock> locks = new ConcurrentHashMap<>();
 
     @Inject
     public FileCache(Config config) {
@@ -163,14 +168,20 @@ public class FileCache {
         String prefix = hash(src).substring(0, 12);
         Path cachedFile = cacheDir.resolve(prefix + "-" + filename);
 
-        if (Files.exists(cachedFile) && cacheIsValid(src, cachedFile)) {
-            logger.debug("Using cached file: {}", cachedFile);
+        ReentrantLock lock = locks.computeIfAbsent(cachedFile, key -> new ReentrantLock());
+        lock.lockInterruptibly();
+        try {
+            if (Files.exists(cachedFile) && cacheIsValid(src, cachedFile)) {
+                logger.debug("Using cached file: {}", cachedFile);
+                return cachedFile;
+            }
+
+            logger.debug("Downloading {} -> {}", src, cachedFile);
+            downloadTo(src, cachedFile);
             return cachedFile;
+        } finally {
+            lock.unlock();
         }
-
-        logger.debug("Downloading {} -> {}", src, cachedFile);
-        downloadTo(src, cachedFile);
-        return cachedFile;
     }
 
     private boolean cacheIsValid(String src, Path cachedFile) {
@@ -221,22 +232,27 @@ public class FileCache {
         }
 
         long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
-        Path tempFile = cachedFile.resolveSibling(cachedFile.getFileName() + ".tmp");
+        // A unique temp file: another levain process may be downloading the same file
+        Path tempFile = Files.createTempFile(cachedFile.getParent(), cachedFile.getFileName() + ".", ".tmp");
         ProgressBar progress = new ProgressBar("Downloading " + cachedFile.getFileName(), contentLength);
-        try (InputStream inputStream = response.body();
-                var out = Files.newOutputStream(tempFile)) {
-            byte[] buffer = new byte[8192];
-            long total = 0;
-            int read;
-            while ((read = inputStream.read(buffer)) > 0) {
-                out.write(buffer, 0, read);
-                total += read;
-                progress.update(total);
+        try {
+            try (InputStream inputStream = response.body();
+                    var out = Files.newOutputStream(tempFile)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int read;
+                while ((read = inputStream.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                    total += read;
+                    progress.update(total);
+                }
+            } finally {
+                progress.finish();
             }
+            Files.move(tempFile, cachedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } finally {
-            progress.finish();
+            Files.deleteIfExists(tempFile);
         }
-        Files.move(tempFile, cachedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     private static String hash(String input) {
@@ -1,9 +1,13 @@
 package com.github.jmoalves.levain.util;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class FileUtils {
     private FileUtils() {
@@ -55,4 +59,29 @@ public class FileUtils {
             return "download";
         }
     }
+
+    /**
+     * Write a file by replacing it instead of truncating it, so hardlinked
+     * copies (see the dedupe store) keep their original content and readers
+     * see either the old or the new content. The temporary file has a unique
+     * name, so concurrent writers of the same target do not clobber each
+     * other's half-written data: the last move wins.
+     */
+    public static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+        Files.write(temp, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        if (Files.exists(target)) {
+            try {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX filesystem, nothing to preserve
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 }
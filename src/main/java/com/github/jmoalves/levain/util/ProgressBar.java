@@ -9,6 +9,7 @@ public class ProgressBar {
     private static final char[] SPINNER = new char[] { '|', '/', '-', '\\' };
     private static final Duration MIN_RENDER_INTERVAL = Duration.ofMillis(150);
     private static final String EMPTY = "";
+    private static final ThreadLocal<Boolean> LINE_ONLY = ThreadLocal.withInitial(() -> false);
 
     private final PrintStream out;
     private final boolean inPlace;
@@ -23,7 +24,22 @@ public class ProgressBar {
     private int lastRenderLength = 0;
 
     public ProgressBar(String label, long totalBytes) {
-        this(label, totalBytes, supportsInPlace());
+        this(label, totalBytes, supportsInPlace() && !LINE_ONLY.get());
+    }
+
+    /**
+     * Run a task whose progress bars print a single line when they finish
+     * instead of redrawing in place, so that tasks sharing the console do not
+     * overwrite each other's bars.
+     */
+    public static void runLineOnly(Runnable task) {
+        boolean previous = LINE_ONLY.get();
+        LINE_ONLY.set(true);
+        try {
+            task.run();
+        } finally {
+            LINE_ONLY.set(previous);
+        }
     }
 
     ProgressBar(String label, long totalBytes, boolean inPlace) {
@@ -73,8 +89,8 @@ public class ProgressBar {
             render(lastBytes);
             out.print(System.lineSeparator());
         } else {
-            out.print(buildMessage(lastBytes));
-            out.print(System.lineSeparator());
+            // One print, so lines of concurrent bars do not interleave
+            out.print(buildMessage(lastBytes) + System.lineSeparator());
         }
         out.flush();
         finished = true;
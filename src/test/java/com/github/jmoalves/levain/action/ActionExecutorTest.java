@@ -13,6 +13,9 @@ import org.mockito.MockitoAnnotations;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,12 +98,26 @@ class ActionExecutorTest {
     }
 
     @Test
-    void testExecuteUnknownAction() {
+    void testExecuteUnknownAction() throws Exception {
         ActionContext context = createContext();
-        List<String> commands = List.of("unknown-action arg1");
-        
-        // Should log warning but not throw
-        assertDoesNotThrow(() -> actionExecutor.executeCommands(commands, context));
+        List<String> commands = List.of("test-action arg1", "unknown-action arg1");
+
+        // The whole plan fails before anything runs
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> actionExecutor.executeCommands(commands, context));
+
+        assertTrue(exception.getMessage().contains("unknown-action arg1: unknown action 'unknown-action'"));
+        verify(mockAction1, never()).execute(any(), any());
+    }
+
+    @Test
+    void testExecuteUnknownActionFromVariable() {
+        ActionContext context = createContext();
+        when(variableSubstitutionService.substitute(eq("${tool} arg1"), any(ActionContext.class)))
+            .thenReturn("unknown-action arg1");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> actionExecutor.executeCommands(List.of("${tool} arg1"), context));
     }
 
     @Test
@@ -187,6 +204,117 @@ class ActionExecutorTest {
         });
     }
 
+    @Test
+    void testInvalidCommandPreventsWholePlan() throws Exception {
+        ActionContext context = createContext();
+        doThrow(new IllegalArgumentException("missing argument"))
+            .when(mockAction2).validate(anyList());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> actionExecutor.executeCommands(List.of("test-action arg1", "another-action"), context));
+
+        assertTrue(exception.getMessage().contains("another-action: missing argument"));
+        verify(mockAction1, never()).execute(any(), any());
+        verify(mockAction2, never()).execute(any(), any());
+    }
+
+    @Test
+    void testConstantCommandIsCompiledOnce() throws Exception {
+        ActionContext context = createContext();
+
+        actionExecutor.executeCommands(List.of("test-action arg1"), context);
+        actionExecutor.executeCommands(List.of("test-action arg1"), context);
+
+        verify(mockAction1, times(2)).execute(eq(context), eq(List.of("arg1")));
+        verify(variableSubstitutionService, never()).substitute(anyString(), any(ActionContext.class));
+    }
+
+    @Test
+    void testCommandWithVariablesIsSubstitutedWhenRun() throws Exception {
+        ActionContext context = createContext();
+        when(variableSubstitutionService.substitute(eq("test-action ${value}"), any(ActionContext.class)))
+            .thenReturn("test-action resolved");
+
+        actionExecutor.executeCommands(List.of("test-action ${value}"), context);
+
+        verify(mockAction1).validate(List.of("${value}"));
+        verify(mockAction1).execute(eq(context), eq(List.of("resolved")));
+    }
+
+    @Test
+    void testAsyncCommandsRunConcurrently() throws Exception {
+        ActionContext context = createContext();
+        CountDownLatch started = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            started.countDown();
+            assertTrue(started.await(5, TimeUnit.SECONDS), "commands did not run concurrently");
+            return null;
+        }).when(mockAction1).execute(any(), anyList());
+
+        actionExecutor.executeCommands(List.of(
+            "--async test-action sdk",
+            "--async test-action docs",
+            "another-action after"
+        ), context);
+
+        verify(mockAction1).execute(any(), eq(List.of("sdk")));
+        verify(mockAction1).execute(any(), eq(List.of("docs")));
+        verify(mockAction2).execute(eq(context), eq(List.of("after")));
+    }
+
+    @Test
+    void testAsyncGroupWaitsForAllCommandsBeforeFailing() throws Exception {
+        ActionContext context = createContext();
+        AtomicBoolean finished = new AtomicBoolean();
+        doThrow(new RuntimeException("broken archive"))
+            .when(mockAction1).execute(any(), anyList());
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            finished.set(true);
+            return null;
+        }).when(mockAction2).execute(any(), anyList());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> actionExecutor.executeCommands(
+            List.of("--async test-action a.zip", "--async another-action b.zip"), context));
+
+        assertTrue(exception.getMessage().contains("Action 'test-action' failed"));
+        assertTrue(finished.get());
+    }
+
+    @Test
+    void testAsyncCommandChangingConfigIsInvalid() throws Exception {
+        ActionContext context = createContext();
+        when(mockAction2.changesConfig(anyList())).thenReturn(true);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> actionExecutor.executeCommands(List.of(
+                "--async test-action a.zip",
+                "--async another-action PATH"
+            ), context));
+
+        assertTrue(exception.getMessage().contains("another-action changes the configuration"));
+        verify(mockAction1, never()).execute(any(), any());
+        verify(mockAction2, never()).execute(any(), any());
+    }
+
+    @Test
+    void testCommandChangingConfigRunsWithoutAsync() throws Exception {
+        ActionContext context = createContext();
+        when(mockAction2.changesConfig(anyList())).thenReturn(true);
+
+        actionExecutor.executeCommands(List.of("--async test-action a.zip", "another-action PATH"), context);
+
+        verify(mockAction2).execute(eq(context), eq(List.of("PATH")));
+    }
+
+    @Test
+    void testAsyncMarkerWithoutCommandIsInvalid() {
+        ActionContext context = createContext();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> actionExecutor.executeCommands(List.of("--async"), context));
+    }
+
     private ActionContext createContext() {
         Recipe recipe = new Recipe();
         recipe.setName("test-recipe");
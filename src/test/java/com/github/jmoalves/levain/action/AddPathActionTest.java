@@ -179,4 +179,12 @@ class AddPathActionTest {
         String content = Files.readString(profile, StandardCharsets.UTF_8);
         assertTrue(content.contains("export PATH=\""));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test 11: validate rejects a missing path before execution")
+    void testValidateRejectsMissingPath() {
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("--permanent", "--append")));
+        assertDoesNotThrow(() -> action.validate(List.of("--append", "${binDir}")));
+    }
+}
@@ -10,7 +10,9 @@ import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CheckChainDirExistsActionTest {
 
@@ -85,4 +87,13 @@ class CheckChainDirExistsActionTest {
         assertThrows(IllegalArgumentException.class,
                 () -> action.execute(null, List.of("path")));
     }
+
+    @Test
+    void shouldChangeConfigOnlyWhenSavingVariable() {
+        CheckChainDirExistsAction action = new CheckChainDirExistsAction();
+
+        assertTrue(action.changesConfig(List.of("--saveVar=found", "path")));
+        assertTrue(action.changesConfig(List.of("--saveVar", "found", "path")));
+        assertFalse(action.changesConfig(List.of("--default", "fallback", "path")));
+    }
 }
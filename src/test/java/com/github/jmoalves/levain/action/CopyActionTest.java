@@ -2,6 +2,7 @@ package com.github.jmoalves.levain.action;
 
 import com.github.jmoalves.levain.config.Config;
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.dedupe.DedupeService;
 import com.github.jmoalves.levain.util.FileCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +39,7 @@ class CopyActionTest {
     @BeforeEach
     void setUp() {
         config = createConfig();
-        action = new CopyAction(new FileCache(config));
+        action = new CopyAction(new FileCache(config), new DedupeService(config));
     }
 
     // ========== Basic Local File Copy Tests ==========
@@ -222,7 +223,7 @@ class CopyActionTest {
     @Test
     void testCopyRemoteFileWithVerboseFlag() throws Exception {
         FileCache cache = Mockito.mock(FileCache.class);
-        CopyAction remoteAction = new CopyAction(cache);
+        CopyAction remoteAction = new CopyAction(cache, new DedupeService(config));
 
         Path cached = tempDir.resolve("cached.txt");
         Files.writeString(cached, "remote verbose");
@@ -258,7 +259,7 @@ class CopyActionTest {
     @Test
     void testCopyRemoteFileUsesFileCache() throws Exception {
         FileCache cache = Mockito.mock(FileCache.class);
-        CopyAction remoteAction = new CopyAction(cache);
+        CopyAction remoteAction = new CopyAction(cache, new DedupeService(config));
 
         Path cached = tempDir.resolve("cached.txt");
         Files.writeString(cached, "remote");
@@ -297,7 +298,7 @@ class CopyActionTest {
     @Test
     void testCopyRemoteFileToDirectoryWithTrailingSlash() throws Exception {
         FileCache cache = Mockito.mock(FileCache.class);
-        CopyAction remoteAction = new CopyAction(cache);
+        CopyAction remoteAction = new CopyAction(cache, new DedupeService(config));
 
         Path cached = tempDir.resolve("cached.txt");
         Files.writeString(cached, "remote-dir");
@@ -491,6 +492,16 @@ class CopyActionTest {
         assertEquals("chain content", Files.readString(finalDst));
     }
 
+    @Test
+    void testValidateRejectsWrongArgumentCount() {
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("only-source.txt")));
+        assertThrows(IllegalArgumentException.class,
+                () -> action.validate(List.of("--verbose", "a.txt", "b.txt", "c.txt")));
+        assertDoesNotThrow(() -> action.validate(List.of("--verbose", "a.txt", "dst")));
+        // The reference may expand to both source and destination
+        assertDoesNotThrow(() -> action.validate(List.of("${sourceAndTarget}")));
+    }
+
     // ========== Action Interface Tests ==========
 
     @Test
@@ -1,9 +1,11 @@
 package com.github.jmoalves.levain.action;
 
 import com.github.jmoalves.levain.config.Config;
+import com.github.jmoalves.levain.extract.EntryFilter;
 import com.github.jmoalves.levain.extract.Extractor;
 import com.github.jmoalves.levain.extract.ExtractorFactory;
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.service.dedupe.DedupeService;
 import com.github.jmoalves.levain.util.FileCache;
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
@@ -324,7 +326,7 @@ class ExtractActionTest {
         Mockito.when(cache.get(url)).thenReturn(cached);
         Mockito.when(factory.createExtractor(cached, null)).thenReturn(extractor);
 
-        ExtractAction action = new ExtractAction(cache, factory);
+        ExtractAction action = new ExtractAction(cache, factory, new DedupeService(config));
         Path dst = tempDir.resolve("dst");
         Files.createDirectories(dst);
 
@@ -332,7 +334,8 @@ class ExtractActionTest {
 
         Mockito.verify(cache).get(url);
         Mockito.verify(factory).createExtractor(cached, null);
-        Mockito.verify(extractor).extract(Mockito.eq(false), Mockito.eq(cached), Mockito.eq(dst), Mockito.any());
+        Mockito.verify(extractor).extract(Mockito.eq(false), Mockito.eq(cached), Mockito.eq(dst), Mockito.any(),
+                Mockito.eq(EntryFilter.ALL));
     }
 
     // ========================================
@@ -378,6 +381,67 @@ class ExtractActionTest {
         assertEquals(0, Files.list(dst).count());
     }
 
+    // ========================================
+    // Include/Exclude Tests
+    // ========================================
+
+    @Test
+    void testExtractWithIncludeAndExclude() throws Exception {
+        Path src = tempDir.resolve("archive.zip");
+        try (OutputStream out = Files.newOutputStream(src);
+             ZipOutputStream zos = new ZipOutputStream(out)) {
+            addZipEntry(zos, "sdk/bin/tool", "tool");
+            addZipEntry(zos, "sdk/bin/tool.txt", "notes");
+            addZipEntry(zos, "sdk/docs/index.html", "docs");
+        }
+
+        Path dst = tempDir.resolve("dst");
+        Files.createDirectories(dst);
+
+        ExtractAction action = createAction();
+        action.execute(createContext(tempDir, tempDir),
+                List.of("--strip", "--include", "bin/**", "--exclude=**/*.txt", src.toString(), dst.toString()));
+
+        assertTrue(Files.exists(dst.resolve("bin/tool")));
+        assertFalse(Files.exists(dst.resolve("bin/tool.txt")));
+        assertFalse(Files.exists(dst.resolve("docs")));
+    }
+
+    @Test
+    void testExtractThrowsWhenIncludeRequiresValue() {
+        ExtractAction action = createAction();
+        assertThrows(IllegalArgumentException.class,
+                () -> action.execute(createContext(tempDir, tempDir), List.of("a.zip", "dst", "--include")));
+    }
+
+    @Test
+    void testExtractThrowsWhenExcludeRequiresValue() {
+        ExtractAction action = createAction();
+        assertThrows(IllegalArgumentException.class,
+                () -> action.execute(createContext(tempDir, tempDir), List.of("a.zip", "dst", "--exclude")));
+    }
+
+    @Test
+    void testValidateRejectsMissingDestination() {
+        ExtractAction action = createAction();
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("a.zip")));
+    }
+
+    @Test
+    void testValidateRejectsUnknownType() {
+        ExtractAction action = createAction();
+        assertThrows(IllegalArgumentException.class,
+                () -> action.validate(List.of("--type", "rar5", "a.zip", "dst")));
+    }
+
+    @Test
+    void testValidateLeavesVariablesToExecution() {
+        ExtractAction action = createAction();
+        assertDoesNotThrow(() -> action.validate(List.of("${archiveAndTarget}")));
+        assertDoesNotThrow(() -> action.validate(List.of("--type", "${archiveType}", "a.zip", "dst")));
+        assertDoesNotThrow(() -> action.validate(List.of("--strip", "--type", "zip", "a.zip", "dst")));
+    }
+
     // ========================================
     // Action Interface Tests
     // ========================================
@@ -393,7 +457,7 @@ class ExtractActionTest {
     // ========================================
 
     private ExtractAction createAction() {
-        return new ExtractAction(new FileCache(config), new ExtractorFactory());
+        return new ExtractAction(new FileCache(config), new ExtractorFactory(), new DedupeService(config));
     }
 
     private Config createConfig() {
@@ -190,6 +190,23 @@ class LevainShellActionTest {
         verify(actionExecutor, never()).executeCommands(any(), any());
     }
 
+    @Test
+    void shouldRejectAsyncLevainShell() throws Exception {
+        Recipe recipe = new Recipe();
+        recipe.setName("test-pkg");
+        recipe.setCommands(Map.of(
+                "env", List.of("--async levainShell echo nope")
+        ));
+
+        when(recipeService.resolveRecipe("test-pkg")).thenReturn(List.of(recipe));
+
+        LevainShellAction action = new LevainShellAction(actionExecutor, recipeService, config);
+        ActionContext context = new ActionContext(config, recipe, tempDir, tempDir);
+
+        assertThrows(IllegalStateException.class, () -> action.execute(context, List.of("echo", "ok")));
+        verify(actionExecutor, never()).executeCommands(any(), any());
+    }
+
     @Test
     void shouldExecuteShellAndEnvActionsInOrder() throws Exception {
         Recipe recipe = new Recipe();
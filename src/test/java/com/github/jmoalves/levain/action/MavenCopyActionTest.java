@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -109,6 +110,18 @@ class MavenCopyActionTest {
                 () -> action.execute(null, List.of("org.example:demo:1.0.0:jar", "lib")));
     }
 
+    @Test
+    void shouldValidateArgumentsBeforeExecution() {
+        RecordingMavenCopyAction action = new RecordingMavenCopyAction();
+
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("org.example:demo:1.0.0:jar")));
+        assertThrows(IllegalArgumentException.class,
+                () -> action.validate(List.of("org.example:demo:1.0.0:jar", "lib", "--repo")));
+        assertDoesNotThrow(() -> action.validate(List.of("--repo=https://repo.example.com", "${artifact}", "lib")));
+        assertDoesNotThrow(() -> action.validate(List.of("${artifactAndTarget}")));
+        assertTrue(action.getLastCommand().isEmpty());
+    }
+
     private static class RecordingMavenCopyAction extends MavenCopyAction {
         private List<String> lastCommand = new ArrayList<>();
         private int exitCode = 0;
@@ -191,4 +191,14 @@ class SetEnvActionTest {
             env.verify(() -> EnvironmentUtils.persistWindowsEnv("JAVA_HOME", "C:\\Java"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test 12: validate rejects a missing value before execution")
+    void testValidateRejectsMissingValue() {
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("VAR_ONLY")));
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("--permanent", "VAR_ONLY")));
+        assertDoesNotThrow(() -> action.validate(List.of("--permanent", "JAVA_HOME", "/opt/jdk")));
+        // The reference may expand to both name and value
+        assertDoesNotThrow(() -> action.validate(List.of("${nameAndValue}")));
+    }
+}
@@ -205,4 +205,31 @@ class SetVarActionTest {
         // This tests the separation of concerns
         assertNotNull(context.getRecipeVariable("recipeVar"));
     }
+
+    @Test
+    @DisplayName("Test 19: Validate rejects a missing value before execution")
+    void testValidateRejectsMissingValue() {
+        assertThrows(IllegalArgumentException.class, () -> action.validate(List.of("onlyName")));
+        assertDoesNotThrow(() -> action.validate(List.of("name", "value")));
+        // The reference may expand to both name and value
+        assertDoesNotThrow(() -> action.validate(List.of("${nameAndValue}")));
+    }
+
+    @Test
+    @DisplayName("Test 20: Variable set in a forked context is visible after merge")
+    void testForkedContextMergesVariables() throws Exception {
+        action.execute(context, List.of("shared", "before"));
+        ActionContext fork = context.fork();
+
+        action.execute(fork, List.of("shared", "after"));
+        action.execute(fork, List.of("forked", "value"));
+
+        assertEquals("after", fork.getRecipeVariable("shared"));
+        assertEquals("before", context.getRecipeVariable("shared"));
+        assertNull(context.getRecipeVariable("forked"));
+
+        context.merge(fork);
+        assertEquals("after", context.getRecipeVariable("shared"));
+        assertEquals("value", context.getRecipeVariable("forked"));
+    }
 }
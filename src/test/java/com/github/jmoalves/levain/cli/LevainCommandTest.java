@@ -1,10 +1,12 @@
 package com.github.jmoalves.levain.cli;
 
 import com.github.jmoalves.levain.cli.commands.ConfigCommand;
+import com.github.jmoalves.levain.cli.commands.DedupeCommand;
 import com.github.jmoalves.levain.cli.commands.InstallCommand;
 import com.github.jmoalves.levain.cli.commands.ListCommand;
 import com.github.jmoalves.levain.cli.commands.ShellCommand;
 import com.github.jmoalves.levain.config.Config;
+import com.github.jmoalves.levain.repository.GitRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -106,6 +108,12 @@ class LevainCommandTest {
         assertTrue(isSubcommandDefined(ShellCommand.class), "ShellCommand should be registered");
     }
 
+    @Test
+    @DisplayName("Should have DedupeCommand subcommand")
+    void testHasDedupeCommand() {
+        assertTrue(isSubcommandDefined(DedupeCommand.class), "DedupeCommand should be registered");
+    }
+
     @Test
     @DisplayName("Should have ConfigCommand subcommand")
     void testHasConfigCommand() {
@@ -119,6 +127,22 @@ class LevainCommandTest {
                 "LevainCommand should implement Callable");
     }
 
+    @Test
+    @DisplayName("Should force repository refresh with --refresh")
+    void testApplyOverridesWithRefresh() throws Exception {
+        Field refreshField = LevainCommand.class.getDeclaredField("refresh");
+        refreshField.setAccessible(true);
+        refreshField.set(command, true);
+
+        try {
+            command.applyOverrides();
+
+            assertEquals("true", System.getProperty(GitRepository.REFRESH_PROPERTY));
+        } finally {
+            System.clearProperty(GitRepository.REFRESH_PROPERTY);
+        }
+    }
+
     @Test
     @DisplayName("Should have verbose option")
     void testHasVerboseOption() {
@@ -1,6 +1,7 @@
 package com.github.jmoalves.levain.cli.commands;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -14,8 +15,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import com.github.jmoalves.levain.service.RecipeService;
-import com.github.jmoalves.levain.repository.RecipeMetadata;
-import com.github.jmoalves.levain.repository.Repository;
+import com.github.jmoalves.levain.service.RecipeService.RecipeStatus;
 
 import picocli.CommandLine;
 
@@ -55,8 +55,8 @@ class ListCommandTest {
     @Test
     void shouldListRecipesWithResults() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21", "git"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(false);
-        when(recipeService.isInstalled("git")).thenReturn(false);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21", "git"), false))
+                .thenReturn(List.of(status("jdk-21", false), status("git", false)));
 
         int exitCode = new CommandLine(command).execute();
 
@@ -67,9 +67,8 @@ class ListCommandTest {
     @Test
     void shouldListInstalledRecipesOnly() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21", "git", "maven"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-        when(recipeService.isInstalled("git")).thenReturn(false);
-        when(recipeService.isInstalled("maven")).thenReturn(true);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21", "git", "maven"), false))
+                .thenReturn(List.of(status("jdk-21", true), status("git", false), status("maven", true)));
 
         int exitCode = new CommandLine(command).execute("--installed");
 
@@ -80,9 +79,8 @@ class ListCommandTest {
     @Test
     void shouldListAvailableRecipesOnly() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21", "git", "maven"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-        when(recipeService.isInstalled("git")).thenReturn(false);
-        when(recipeService.isInstalled("maven")).thenReturn(true);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21", "git", "maven"), false))
+                .thenReturn(List.of(status("jdk-21", true), status("git", false), status("maven", true)));
 
         int exitCode = new CommandLine(command).execute("--available");
 
@@ -93,15 +91,15 @@ class ListCommandTest {
     @Test
     void shouldShowInstallationStatusIndicators() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21", "git"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-        when(recipeService.isInstalled("git")).thenReturn(false);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21", "git"), false))
+                .thenReturn(List.of(status("jdk-21", true), status("git", false)));
 
         int exitCode = new CommandLine(command).execute();
 
         assertEquals(0, exitCode);
         verify(recipeService).listRecipes(null);
-        verify(recipeService).isInstalled("jdk-21");
-        verify(recipeService).isInstalled("git");
+        verify(recipeService).getRecipeStatuses(List.of("jdk-21", "git"), false);
+        verify(recipeService, never()).isInstalled(anyString());
     }
 
     @Test
@@ -116,8 +114,8 @@ class ListCommandTest {
     @Test
     void shouldFilterInstalledRecipes() {
         when(recipeService.listRecipes("jdk")).thenReturn(List.of("jdk-21", "jdk-17"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-        when(recipeService.isInstalled("jdk-17")).thenReturn(false);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21", "jdk-17"), false))
+                .thenReturn(List.of(status("jdk-21", true), status("jdk-17", false)));
 
         int exitCode = new CommandLine(command).execute("jdk", "--installed");
 
@@ -128,110 +126,81 @@ class ListCommandTest {
     @Test
     void shouldShowSourceForInstalledRecipes() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-
-        RecipeMetadata metadata = new RecipeMetadata();
-        metadata.setSourceRepository("Registry");
-        metadata.setSourceRepositoryUri("registry://test");
-        when(recipeService.getInstalledMetadata("jdk-21")).thenReturn(java.util.Optional.of(metadata));
+        when(recipeService.getRecipeStatuses(List.of("jdk-21"), true))
+                .thenReturn(List.of(new RecipeStatus("jdk-21", true, "Registry", "registry://test")));
 
         int exitCode = new CommandLine(command).execute("--source");
 
         assertEquals(0, exitCode);
-        verify(recipeService).getInstalledMetadata("jdk-21");
+        verify(recipeService).getRecipeStatuses(List.of("jdk-21"), true);
     }
 
     @Test
     void shouldShowSourceForAvailableRecipes() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("git"));
-        when(recipeService.isInstalled("git")).thenReturn(false);
-
-        Repository repo = org.mockito.Mockito.mock(Repository.class);
-        when(repo.getName()).thenReturn("repo1");
-        when(repo.getUri()).thenReturn("https://example.com/repo1");
-        when(recipeService.findSourceRepository("git")).thenReturn(java.util.Optional.of(repo));
+        when(recipeService.getRecipeStatuses(List.of("git"), true))
+                .thenReturn(List.of(new RecipeStatus("git", false, "repo1", "https://example.com/repo1")));
 
         int exitCode = new CommandLine(command).execute("--source");
 
         assertEquals(0, exitCode);
-        verify(recipeService).findSourceRepository("git");
+        verify(recipeService).getRecipeStatuses(List.of("git"), true);
+        verify(recipeService, never()).findSourceRepository(anyString());
     }
 
     @Test
     void shouldHandleUnknownSourceGracefully() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("nodejs"));
-        when(recipeService.isInstalled("nodejs")).thenReturn(false);
-        when(recipeService.findSourceRepository("nodejs")).thenReturn(java.util.Optional.empty());
+        when(recipeService.getRecipeStatuses(List.of("nodejs"), true))
+                .thenReturn(List.of(new RecipeStatus("nodejs", false, "unknown", null)));
 
         int exitCode = new CommandLine(command).execute("--source");
 
         assertEquals(0, exitCode);
-        verify(recipeService).findSourceRepository("nodejs");
-    }
-
-    @Test
-    void shouldHandleMissingInstalledMetadataSource() {
-        when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-        when(recipeService.getInstalledMetadata("jdk-21")).thenReturn(java.util.Optional.empty());
-
-        int exitCode = new CommandLine(command).execute("--source");
-
-        assertEquals(0, exitCode);
-        verify(recipeService).getInstalledMetadata("jdk-21");
-        verify(recipeService, never()).findSourceRepository("jdk-21");
+        verify(recipeService).getRecipeStatuses(List.of("nodejs"), true);
     }
 
     @Test
     void shouldHandleSourceWithBlankUri() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("git"));
-        when(recipeService.isInstalled("git")).thenReturn(false);
-
-        Repository repo = org.mockito.Mockito.mock(Repository.class);
-        when(repo.getName()).thenReturn("repo1");
-        when(repo.getUri()).thenReturn(" ");
-        when(recipeService.findSourceRepository("git")).thenReturn(java.util.Optional.of(repo));
+        when(recipeService.getRecipeStatuses(List.of("git"), true))
+                .thenReturn(List.of(new RecipeStatus("git", false, "repo1", " ")));
 
         int exitCode = new CommandLine(command).execute("--source");
 
         assertEquals(0, exitCode);
-        verify(recipeService).findSourceRepository("git");
+        verify(recipeService).getRecipeStatuses(List.of("git"), true);
     }
 
     @Test
-    void shouldHandleInstalledSourceWithNullMetadataFields() {
-        when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
-
-        RecipeMetadata metadata = new RecipeMetadata();
-        when(recipeService.getInstalledMetadata("jdk-21")).thenReturn(java.util.Optional.of(metadata));
+    void shouldHandleAvailableSourceWithNullName() {
+        when(recipeService.listRecipes(null)).thenReturn(List.of("git"));
+        when(recipeService.getRecipeStatuses(List.of("git"), true))
+                .thenReturn(List.of(new RecipeStatus("git", false, null, "https://example.com/repo")));
 
         int exitCode = new CommandLine(command).execute("--source");
 
         assertEquals(0, exitCode);
-        verify(recipeService).getInstalledMetadata("jdk-21");
+        verify(recipeService).getRecipeStatuses(List.of("git"), true);
     }
 
     @Test
-    void shouldHandleAvailableSourceWithNullName() {
-        when(recipeService.listRecipes(null)).thenReturn(List.of("git"));
-        when(recipeService.isInstalled("git")).thenReturn(false);
-
-        Repository repo = org.mockito.Mockito.mock(Repository.class);
-        when(repo.getName()).thenReturn(null);
-        when(repo.getUri()).thenReturn("https://example.com/repo");
-        when(recipeService.findSourceRepository("git")).thenReturn(java.util.Optional.of(repo));
+    void shouldKeepRankedOrderWhenFiltering() {
+        when(recipeService.listRecipes("mvn")).thenReturn(List.of("mvn", "maven"));
+        when(recipeService.getRecipeStatuses(List.of("mvn", "maven"), false))
+                .thenReturn(List.of(status("mvn", false), status("maven", false)));
 
-        int exitCode = new CommandLine(command).execute("--source");
+        int exitCode = new CommandLine(command).execute("mvn");
 
         assertEquals(0, exitCode);
-        verify(recipeService).findSourceRepository("git");
+        verify(recipeService).getRecipeStatuses(List.of("mvn", "maven"), false);
     }
 
     @Test
     void shouldHandleNoInstalledResultsWithFilter() {
         when(recipeService.listRecipes("jdk")).thenReturn(List.of("jdk-21"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(false);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21"), false))
+                .thenReturn(List.of(status("jdk-21", false)));
 
         int exitCode = new CommandLine(command).execute("jdk", "--installed");
 
@@ -242,7 +211,8 @@ class ListCommandTest {
     @Test
     void shouldHandleNoAvailableResultsWithoutFilter() {
         when(recipeService.listRecipes(null)).thenReturn(List.of("jdk-21"));
-        when(recipeService.isInstalled("jdk-21")).thenReturn(true);
+        when(recipeService.getRecipeStatuses(List.of("jdk-21"), false))
+                .thenReturn(List.of(status("jdk-21", true)));
 
         int exitCode = new CommandLine(command).execute("--available");
 
@@ -258,4 +228,8 @@ class ListCommandTest {
 
         assertEquals(1, exitCode);
     }
+
+    private static RecipeStatus status(String name, boolean installed) {
+        return new RecipeStatus(name, installed, null, null);
+    }
 }
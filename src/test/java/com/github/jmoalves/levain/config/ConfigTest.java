@@ -415,6 +415,23 @@ class ConfigTest {
         assertTrue(config.isBackupEnabled());
     }
 
+    @Test
+    @DisplayName("Should have default store directory")
+    void shouldHaveDefaultStoreDir() {
+        Path storeDir = config.getStoreDir();
+        assertNotNull(storeDir);
+        assertTrue(storeDir.toString().contains(".levain/store"));
+    }
+
+    @Test
+    @DisplayName("Should have dedupe disabled by default")
+    void shouldHaveDedupeDisabledByDefault() {
+        assertFalse(config.isDedupeEnabled());
+
+        config.setDedupeEnabled(true);
+        assertTrue(config.isDedupeEnabled());
+    }
+
     @Test
     @DisplayName("Should have default backup keep count")
     void shouldHaveDefaultBackupKeepCount() {
@@ -0,0 +1,66 @@
+package com.github.jmoalves.levain.extract;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntryFilterTest {
+
+    @Test
+    void shouldAcceptEverythingWithoutPatterns() {
+        EntryFilter filter = EntryFilter.of(List.of(), null);
+
+        assertSame(EntryFilter.ALL, filter);
+        assertTrue(filter.accepts("docs/index.html"));
+    }
+
+    @Test
+    void shouldMatchIncludeDirectoryAndContents() {
+        EntryFilter filter = EntryFilter.of(List.of("bin/**"), List.of());
+
+        assertTrue(filter.accepts("bin/"));
+        assertTrue(filter.accepts("bin/java"));
+        assertTrue(filter.accepts("bin/sub/tool"));
+        assertFalse(filter.accepts("lib/rt.jar"));
+        assertFalse(filter.accepts("binaries/tool"));
+    }
+
+    @Test
+    void shouldPreferExcludeOverInclude() {
+        EntryFilter filter = EntryFilter.of(List.of("lib/**"), List.of("**/*.src.zip"));
+
+        assertTrue(filter.accepts("lib/modules"));
+        assertFalse(filter.accepts("lib/src.zip.src.zip"));
+        assertFalse(filter.accepts("lib/deep/a.src.zip"));
+    }
+
+    @Test
+    void shouldNotCrossDirectoriesWithSingleStar() {
+        EntryFilter filter = EntryFilter.of(List.of(), List.of("*.txt"));
+
+        assertFalse(filter.accepts("README.txt"));
+        assertTrue(filter.accepts("docs/README.txt"));
+    }
+
+    @Test
+    void shouldMatchAnyDepthWithLeadingDoubleStar() {
+        EntryFilter filter = EntryFilter.of(List.of(), List.of("**/sample?"));
+
+        assertFalse(filter.accepts("sample1"));
+        assertFalse(filter.accepts("a/b/sample2/"));
+        assertTrue(filter.accepts("a/b/samples/x"));
+    }
+
+    @Test
+    void shouldNormalizeEntryNames() {
+        EntryFilter filter = EntryFilter.of(List.of("bin/**"), List.of());
+
+        assertTrue(filter.accepts("./bin/java"));
+        assertTrue(filter.accepts("bin\\java.exe"));
+        assertTrue(filter.accepts(""));
+    }
+}
@@ -10,7 +10,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SevenZipExtractorTest {
@@ -46,4 +48,29 @@ class SevenZipExtractorTest {
         assertTrue(Files.exists(dst.resolve("dir")));
         assertTrue(Files.exists(dst.resolve("dir").resolve("file.txt")));
     }
+
+    @Test
+    void shouldSkipExcludedEntries() throws IOException {
+        Path archive = tempDir.resolve("sdk.7z");
+        try (SevenZOutputFile out = new SevenZOutputFile(archive.toFile())) {
+            byte[] data = "data".getBytes(StandardCharsets.UTF_8);
+            for (String name : List.of("bin/tool", "src/Main.java")) {
+                SevenZArchiveEntry fileEntry = new SevenZArchiveEntry();
+                fileEntry.setName(name);
+                fileEntry.setSize(data.length);
+                out.putArchiveEntry(fileEntry);
+                out.write(data);
+                out.closeArchiveEntry();
+            }
+        }
+
+        Path dst = tempDir.resolve("out");
+        Files.createDirectories(dst);
+
+        SevenZipExtractor extractor = new SevenZipExtractor();
+        extractor.extract(false, archive, dst, null, EntryFilter.of(List.of(), List.of("src/**")));
+
+        assertTrue(Files.exists(dst.resolve("bin").resolve("tool")));
+        assertFalse(Files.exists(dst.resolve("src")));
+    }
 }
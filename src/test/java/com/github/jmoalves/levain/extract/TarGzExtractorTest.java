@@ -11,7 +11,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TarGzExtractorTest {
@@ -46,4 +48,31 @@ class TarGzExtractorTest {
         assertTrue(Files.exists(dst.resolve("dir")));
         assertTrue(Files.exists(dst.resolve("dir").resolve("file.txt")));
     }
+
+    @Test
+    void shouldOnlyExtractIncludedEntries() throws IOException {
+        Path archive = tempDir.resolve("sdk.tar.gz");
+        try (var fos = Files.newOutputStream(archive);
+             var gzos = new GzipCompressorOutputStream(fos);
+             var tos = new TarArchiveOutputStream(gzos)) {
+            byte[] data = "data".getBytes(StandardCharsets.UTF_8);
+            for (String name : List.of("bin/tool", "samples/demo.txt", "lib/core.jar")) {
+                TarArchiveEntry fileEntry = new TarArchiveEntry(name);
+                fileEntry.setSize(data.length);
+                tos.putArchiveEntry(fileEntry);
+                tos.write(data);
+                tos.closeArchiveEntry();
+            }
+        }
+
+        Path dst = tempDir.resolve("out");
+        Files.createDirectories(dst);
+
+        TarGzExtractor extractor = new TarGzExtractor();
+        extractor.extract(false, archive, dst, null, EntryFilter.of(List.of("bin/**", "lib/**"), List.of()));
+
+        assertTrue(Files.exists(dst.resolve("bin").resolve("tool")));
+        assertTrue(Files.exists(dst.resolve("lib").resolve("core.jar")));
+        assertFalse(Files.exists(dst.resolve("samples")));
+    }
 }
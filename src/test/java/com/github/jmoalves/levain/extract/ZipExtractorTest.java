@@ -8,9 +8,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ZipExtractorTest {
@@ -41,4 +43,26 @@ class ZipExtractorTest {
         assertTrue(Files.exists(dst.resolve("dir")));
         assertTrue(Files.exists(dst.resolve("dir").resolve("file.txt")));
     }
+
+    @Test
+    void shouldSkipExcludedEntries() throws IOException {
+        Path zip = tempDir.resolve("sdk.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (String name : List.of("sdk/bin/tool", "sdk/docs/index.html", "sdk/lib/core.jar")) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write("data".getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        Path dst = tempDir.resolve("out");
+        Files.createDirectories(dst);
+
+        ZipExtractor extractor = new ZipExtractor();
+        extractor.extract(true, zip, dst, null, EntryFilter.of(List.of(), List.of("docs/**")));
+
+        assertTrue(Files.exists(dst.resolve("bin").resolve("tool")));
+        assertTrue(Files.exists(dst.resolve("lib").resolve("core.jar")));
+        assertFalse(Files.exists(dst.resolve("docs")));
+    }
 }
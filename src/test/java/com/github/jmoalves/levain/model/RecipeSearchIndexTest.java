@@ -0,0 +1,84 @@
+package com.github.jmoalves.levain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecipeSearchIndexTest {
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(recipe("maven", "Apache Maven build tool", Map.of()));
+        recipes.add(recipe("maven-daemon", "Faster Maven builds", Map.of()));
+        recipes.add(recipe("gradle", "Gradle build automation tool", Map.of()));
+        recipes.add(recipe("jdk-21", "OpenJDK 21 LTS", Map.of()));
+        recipes.add(recipe("jdk-11", "Eclipse Temurin JDK 11 LTS", Map.of()));
+        recipes.add(recipe("openjdk-ea", "Early access builds", Map.of()));
+        recipes.add(recipe("git", "Git distributed version control system",
+                Map.of("tags", List.of("vcs", "scm"))));
+        recipes.add(recipe("nodejs", null, Map.of("homepage", "https://nodejs.org")));
+        index = new RecipeSearchIndex(recipes);
+    }
+
+    @Test
+    void shouldReturnAllRecipesForBlankQuery() {
+        assertEquals(8, index.search(null).size());
+        assertEquals(8, index.search(" ").size());
+    }
+
+    @Test
+    void shouldRankExactThenPrefixThenSubstringThenText() {
+        assertEquals(List.of("maven", "maven-daemon"), names(index.search("maven")));
+        assertEquals(List.of("jdk-11", "jdk-21", "openjdk-ea"), names(index.search("jdk")));
+    }
+
+    @Test
+    void shouldIgnoreCase() {
+        assertEquals(List.of("jdk-11", "jdk-21", "openjdk-ea"), names(index.search("JDK")));
+    }
+
+    @Test
+    void shouldMatchDescriptionsAndCustomAttributes() {
+        assertEquals(List.of("maven", "gradle", "openjdk-ea", "maven-daemon"), names(index.search("build")));
+        assertEquals(List.of("git"), names(index.search("scm")));
+        assertEquals(List.of("nodejs"), names(index.search("nodejs.org")));
+    }
+
+    @Test
+    void shouldFindNamesWithTypos() {
+        assertEquals("maven", index.search("mavne").get(0).getName());
+        assertEquals("gradle", index.search("gradel").get(0).getName());
+    }
+
+    @Test
+    void shouldNotReturnUnrelatedRecipes() {
+        assertTrue(index.search("nonexistent").isEmpty());
+        assertTrue(names(index.search("jdk")).stream().noneMatch("git"::equals));
+    }
+
+    @Test
+    void shouldMatchShortQueries() {
+        assertEquals(List.of("git"), names(index.search("gi")));
+        assertTrue(names(index.search("j")).containsAll(List.of("jdk-11", "jdk-21", "openjdk-ea", "nodejs")));
+    }
+
+    private static List<String> names(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getName).toList();
+    }
+
+    private static Recipe recipe(String name, String description, Map<String, Object> attributes) {
+        Recipe recipe = new Recipe();
+        recipe.setName(name);
+        recipe.setDescription(description);
+        attributes.forEach(recipe::addCustomAttribute);
+        return recipe;
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.jmoalves.levain.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -8,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -166,6 +168,20 @@ class RecipeTreeTest {
         assertEquals("jdk-21", filtered.get(0).getName());
     }
 
+    @Test
+    void shouldFilterRecipesIgnoringCase() {
+        List<Recipe> filtered = tree.filterRecipes("MAVEN");
+        assertEquals(1, filtered.size());
+        assertEquals("maven", filtered.get(0).getName());
+    }
+
+    @Test
+    void shouldFilterRecipesWithTypo() {
+        List<Recipe> filtered = tree.filterRecipes("mavne");
+        assertFalse(filtered.isEmpty());
+        assertEquals("maven", filtered.get(0).getName());
+    }
+
     @Test
     void shouldGetDirectDependencies() {
         List<String> deps = tree.getDependencies("maven");
@@ -179,4 +195,34 @@ class RecipeTreeTest {
         List<String> deps = tree.getDependencies("levain");
         assertEquals(0, deps.size());
     }
+
+    @Test
+    void shouldResolveThroughLookupOnlyVisitingNeededRecipes() {
+        List<String> requested = new ArrayList<>();
+        RecipeTree lazyTree = new RecipeTree(name -> {
+            requested.add(name);
+            return Optional.ofNullable(recipeMap.get(name));
+        });
+
+        List<Recipe> resolved = lazyTree.resolve("maven");
+
+        assertEquals(List.of("levain", "jdk-21", "maven"), resolved.stream().map(Recipe::getName).toList());
+        assertEquals(List.of("maven", "levain", "jdk-21"), requested);
+
+        lazyTree.resolve("maven");
+        assertEquals(3, requested.size());
+    }
+
+    @Test
+    void shouldRetryLookupForMissingRecipes() {
+        Map<String, Recipe> source = new HashMap<>();
+        RecipeTree lazyTree = new RecipeTree(name -> Optional.ofNullable(source.get(name)));
+        assertFalse(lazyTree.hasRecipe("late"));
+
+        Recipe late = new Recipe();
+        late.setName("late");
+        source.put("late", late);
+
+        assertTrue(lazyTree.hasRecipe("late"));
+    }
 }
@@ -3,6 +3,7 @@ package com.github.jmoalves.levain.repository;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -35,6 +36,15 @@ class AbstractRepositoryTest {
         assertTrue(description.contains("TestRepository"));
     }
 
+    @Test
+    void shouldDeriveRecipeNameFromPath() {
+        assertEquals("jdk-21", AbstractRepository.recipeName("jdk-21.levain.yaml"));
+        assertEquals("jdk-21", AbstractRepository.recipeName("pkgs/java/jdk-21.levain.yaml"));
+        assertNull(AbstractRepository.recipeName("pkgs/README.md"));
+        assertNull(AbstractRepository.recipeName("jdk-21.yaml"));
+        assertNull(AbstractRepository.recipeName("jdk-21.levain.yaml.levain.yaml"));
+    }
+
     @Test
     void shouldTrackInitializationState() {
         assertFalse(repository.isInitialized());
@@ -42,6 +52,13 @@ class AbstractRepositoryTest {
         assertTrue(repository.isInitialized());
     }
 
+    @Test
+    void shouldBuildNameFilterWhenInitialized() {
+        assertTrue(repository.nameFilter().mightContain("missing"));
+        repository.init();
+        assertFalse(repository.nameFilter().mightContain("missing"));
+    }
+
     @Test
     void shouldReturnSizeAsListCount() {
         repository.init();
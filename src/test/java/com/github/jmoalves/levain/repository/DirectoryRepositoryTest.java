@@ -127,6 +127,22 @@ class DirectoryRepositoryTest {
         assertTrue(content.get().contains("version"));
     }
 
+    @Test
+    void shouldReadYamlFromFileTheRecipeWasLoadedFrom() throws Exception {
+        Path recipesDir = tempDir.resolve("recipes-dup");
+        Files.createDirectories(recipesDir.resolve("a"));
+        Files.createDirectories(recipesDir.resolve("b"));
+        Files.writeString(recipesDir.resolve("a/tool.levain.yaml"), "version: 1.0.0\n", StandardCharsets.UTF_8);
+        Files.writeString(recipesDir.resolve("b/tool.levain.yaml"), "version: 2.0.0\n", StandardCharsets.UTF_8);
+
+        DirectoryRepository localRepo = new DirectoryRepository("TempRepo", recipesDir.toString());
+        localRepo.init();
+
+        String version = localRepo.resolveRecipe("tool").orElseThrow().getVersion();
+        String content = localRepo.getRecipeYamlContent("tool").orElseThrow();
+        assertTrue(content.contains(version), content + " should be the file of version " + version);
+    }
+
     @Test
     void shouldRejectMultipleLevainExtensions() throws Exception {
         Method method = DirectoryRepository.class.getDeclaredMethod("isValidLevainFilename", String.class);
@@ -194,4 +210,43 @@ class DirectoryRepositoryTest {
         assertTrue(size > 0);
         assertEquals(repository.listRecipes().size(), size);
     }
+
+    @Test
+    void shouldReuseRecipeIndexUntilFilesChange() throws Exception {
+        String originalCache = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.resolve("cache").toString());
+        try {
+            Path recipesDir = tempDir.resolve("recipes");
+            Files.createDirectories(recipesDir.resolve("nested"));
+            Path recipeFile = recipesDir.resolve("nested/tool.levain.yaml");
+            Files.writeString(recipeFile, "version: 1.0.0\n");
+
+            DirectoryRepository first = new DirectoryRepository("first", recipesDir.toString());
+            first.init();
+            assertEquals("1.0.0", first.resolveRecipe("tool").orElseThrow().getVersion());
+
+            // Replace the snapshot to prove the next init reads it instead of the file
+            RecipeIndexCache cache = new RecipeIndexCache(recipesDir.toAbsolutePath().normalize().toString());
+            String key = RecipeIndexCache.fingerprint(recipesDir, List.of(recipeFile));
+            Recipe cachedRecipe = new Recipe();
+            cachedRecipe.setName("tool");
+            cachedRecipe.setVersion("cached");
+            cache.write(key, List.of(RecipeIndexCache.Entry.of("nested/tool.levain.yaml", cachedRecipe)));
+
+            DirectoryRepository second = new DirectoryRepository("second", recipesDir.toString());
+            second.init();
+            assertEquals("cached", second.resolveRecipe("tool").orElseThrow().getVersion());
+
+            Files.writeString(recipeFile, "version: 2.0.10\n");
+            DirectoryRepository third = new DirectoryRepository("third", recipesDir.toString());
+            third.init();
+            assertEquals("2.0.10", third.resolveRecipe("tool").orElseThrow().getVersion());
+        } finally {
+            if (originalCache != null) {
+                System.setProperty("levain.cache.dir", originalCache);
+            } else {
+                System.clearProperty("levain.cache.dir");
+            }
+        }
+    }
 }
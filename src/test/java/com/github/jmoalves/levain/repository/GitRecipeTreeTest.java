@@ -0,0 +1,84 @@
+package com.github.jmoalves.levain.repository;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitRecipeTreeTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldListRecipeBlobsInCommitTree() throws Exception {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.createDirectories(tempDir.resolve("recipes/java"));
+            Files.writeString(tempDir.resolve("recipes/java/jdk-21.levain.yaml"), "version: 21\n");
+            Files.writeString(tempDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+            Files.writeString(tempDir.resolve("broken.levain.yaml.levain.yaml"), "version: 1\n");
+            Files.writeString(tempDir.resolve("README.md"), "docs\n");
+            ObjectId commit = commitAll(git);
+
+            List<GitRecipeTree.RecipeBlob> blobs = GitRecipeTree.listRecipeBlobs(git.getRepository(), commit);
+
+            assertEquals(List.of("maven.levain.yaml", "recipes/java/jdk-21.levain.yaml"),
+                    blobs.stream().map(GitRecipeTree.RecipeBlob::path).toList());
+            assertEquals(List.of("maven", "jdk-21"),
+                    blobs.stream().map(GitRecipeTree.RecipeBlob::name).toList());
+        }
+    }
+
+    @Test
+    void shouldDiffRecipeBlobsBetweenCommits() throws Exception {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.writeString(tempDir.resolve("jdk.levain.yaml"), "version: 21\n");
+            Files.writeString(tempDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+            Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45\n");
+            ObjectId first = commitAll(git);
+
+            Files.writeString(tempDir.resolve("jdk.levain.yaml"), "version: 22\n");
+            Files.delete(tempDir.resolve("maven.levain.yaml"));
+            Files.writeString(tempDir.resolve("node.levain.yaml"), "version: 22.1\n");
+            Files.writeString(tempDir.resolve("README.md"), "docs\n");
+            git.rm().addFilepattern("maven.levain.yaml").call();
+            ObjectId second = commitAll(git);
+
+            GitRecipeTree.TreeDiff diff = GitRecipeTree.diffRecipeBlobs(git.getRepository(), first, second);
+
+            assertEquals(List.of("jdk.levain.yaml", "node.levain.yaml"),
+                    diff.changed().stream().map(GitRecipeTree.RecipeBlob::path).toList());
+            assertEquals(Set.of("jdk.levain.yaml", "maven.levain.yaml"), diff.removed());
+        }
+    }
+
+    @Test
+    void shouldReadFileFromCommitTree() throws Exception {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.writeString(tempDir.resolve("jdk.levain.yaml"), "version: 21\n");
+            ObjectId commit = commitAll(git);
+
+            // The commit is read, not the working tree
+            Files.writeString(tempDir.resolve("jdk.levain.yaml"), "version: 22\n");
+
+            assertEquals(Optional.of("version: 21\n"),
+                    GitRecipeTree.readFile(git.getRepository(), commit, "jdk.levain.yaml"));
+            assertTrue(GitRecipeTree.readFile(git.getRepository(), commit, "missing.levain.yaml").isEmpty());
+        }
+    }
+
+    private static ObjectId commitAll(Git git) throws Exception {
+        git.add().addFilepattern(".").call();
+        return git.commit()
+                .setMessage("recipes")
+                .setAuthor("Test User", "test@example.com")
+                .call();
+    }
+}
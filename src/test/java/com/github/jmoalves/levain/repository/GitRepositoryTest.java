@@ -7,10 +7,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -97,10 +101,12 @@ class GitRepositoryTest {
 
                 Files.writeString(originDir.resolve("maven-3.9.9.levain.yaml"), "name: maven-3.9.9\nversion: 3.9.9\n");
                 commitAll(origin, "add maven");
+                System.setProperty(GitRepository.REFRESH_PROPERTY, "true");
                 localRepo.init();
 
                 assertTrue(localRepo.listRecipes().stream().anyMatch(r -> r.getName().equals("maven-3.9.9")));
             } finally {
+                System.clearProperty(GitRepository.REFRESH_PROPERTY);
                 if (originalCache != null) {
                     System.setProperty("levain.cache.dir", originalCache);
                 } else {
@@ -143,6 +149,48 @@ class GitRepositoryTest {
         }
     }
 
+    @Test
+    void shouldCloneIntoPlaceAndDeleteAbandonedClones() throws Exception {
+        Path originDir = tempDir.resolve("origin-abandoned");
+        Files.createDirectories(originDir);
+        try (Git origin = initRepository(originDir)) {
+            Files.writeString(originDir.resolve("deno.levain.yaml"), "name: deno\nversion: 1.0.0\n");
+            commitAll(origin, "init");
+
+            String originalCache = System.getProperty("levain.cache.dir");
+            Path cacheRoot = tempDir.resolve("cache-abandoned");
+            System.setProperty("levain.cache.dir", cacheRoot.toString());
+            try {
+                String repoName = String.valueOf(Math.abs(originDir.toUri().toString().hashCode()));
+                Path gitCache = Paths.get(cacheRoot.toString(), "git");
+                Path abandoned = gitCache.resolve(repoName + GitRepository.CLONE_SUFFIX + "old");
+                Path running = gitCache.resolve(repoName + GitRepository.CLONE_SUFFIX + "running");
+                Files.createDirectories(abandoned.resolve(".git"));
+                Files.createDirectories(running.resolve(".git"));
+                Files.setLastModifiedTime(abandoned, FileTime.from(
+                        Instant.now().minus(GitRepository.ABANDONED_CLONE_AGE).minus(Duration.ofMinutes(1))));
+
+                GitRepository localRepo = new GitRepository(originDir.toUri().toString());
+                localRepo.init();
+
+                assertTrue(localRepo.listRecipes().stream().anyMatch(r -> r.getName().equals("deno")));
+                assertTrue(Files.exists(gitCache.resolve(repoName).resolve(".git")));
+                assertTrue(Files.exists(gitCache.resolve(repoName).resolve(".git").resolve(GitRepository.REFRESH_MARKER)));
+                assertFalse(Files.exists(abandoned));
+                assertTrue(Files.exists(running));
+                try (var entries = Files.list(gitCache)) {
+                    assertEquals(2, entries.count());
+                }
+            } finally {
+                if (originalCache != null) {
+                    System.setProperty("levain.cache.dir", originalCache);
+                } else {
+                    System.clearProperty("levain.cache.dir");
+                }
+            }
+        }
+    }
+
     @Test
     void shouldHandleInitFailureGracefully() {
         GitRepository badRepo = new GitRepository("file:///nonexistent/levain-pkgs.git");
@@ -180,6 +228,232 @@ class GitRepositoryTest {
         assertTrue(recipes.isEmpty());
     }
 
+    @Test
+    void shouldUseLocalCopyWithinRefreshTtl() throws Exception {
+        Path originDir = tempDir.resolve("origin-ttl");
+        Files.createDirectories(originDir);
+        try (Git origin = initRepository(originDir)) {
+            Files.writeString(originDir.resolve("jdk-21.levain.yaml"), "version: 21.0.0\n");
+            commitAll(origin, "init");
+
+            String originalCache = System.getProperty("levain.cache.dir");
+            System.setProperty("levain.cache.dir", tempDir.resolve("cache-ttl").toString());
+            try {
+                new GitRepository(originDir.toUri().toString()).init();
+
+                Files.writeString(originDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+                commitAll(origin, "add maven");
+
+                GitRepository secondRun = new GitRepository(originDir.toUri().toString());
+                secondRun.init();
+
+                assertTrue(secondRun.resolveRecipe("jdk-21").isPresent());
+                assertTrue(secondRun.resolveRecipe("maven").isEmpty());
+            } finally {
+                if (originalCache != null) {
+                    System.setProperty("levain.cache.dir", originalCache);
+                } else {
+                    System.clearProperty("levain.cache.dir");
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldApplyBackgroundFetchOnNextRun() throws Exception {
+        Path originDir = tempDir.resolve("origin-stale");
+        Files.createDirectories(originDir);
+        try (Git origin = initRepository(originDir)) {
+            Files.writeString(originDir.resolve("jdk-21.levain.yaml"), "version: 21.0.0\n");
+            commitAll(origin, "init");
+
+            String originalCache = System.getProperty("levain.cache.dir");
+            Path cacheRoot = tempDir.resolve("cache-stale");
+            System.setProperty("levain.cache.dir", cacheRoot.toString());
+            System.setProperty("levain.git.refreshTtl", "0");
+            try {
+                new GitRepository(originDir.toUri().toString()).init();
+
+                Files.writeString(originDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+                commitAll(origin, "add maven");
+
+                // Stale: served from the local copy while the fetch runs
+                GitRepository secondRun = new GitRepository(originDir.toUri().toString());
+                secondRun.init();
+                assertTrue(secondRun.resolveRecipe("maven").isEmpty());
+                awaitBackgroundFetch();
+
+                GitRepository thirdRun = new GitRepository(originDir.toUri().toString());
+                thirdRun.init();
+                assertTrue(thirdRun.resolveRecipe("maven").isPresent());
+            } finally {
+                System.clearProperty("levain.git.refreshTtl");
+                if (originalCache != null) {
+                    System.setProperty("levain.cache.dir", originalCache);
+                } else {
+                    System.clearProperty("levain.cache.dir");
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReadRecipesFromBareClone() throws Exception {
+        Path originDir = tempDir.resolve("origin-bare");
+        Files.createDirectories(originDir.resolve("recipes"));
+        try (Git origin = initRepository(originDir)) {
+            Files.writeString(originDir.resolve("recipes/jdk-21.levain.yaml"), "version: 21.0.0\n");
+            Files.writeString(originDir.resolve("README.md"), "recipes\n");
+            commitAll(origin, "init");
+
+            String originalCache = System.getProperty("levain.cache.dir");
+            Path cacheRoot = tempDir.resolve("cache-bare");
+            System.setProperty("levain.cache.dir", cacheRoot.toString());
+            System.setProperty("levain.git.bare", "true");
+            try {
+                GitRepository bareRepo = new GitRepository(originDir.toUri().toString());
+                bareRepo.init();
+
+                assertTrue(bareRepo.resolveRecipe("jdk-21").isPresent());
+                assertEquals(Optional.of("version: 21.0.0\n"), bareRepo.getRecipeYamlContent("jdk-21"));
+                assertTrue(bareRepo.getRecipeYamlContent("missing").isEmpty());
+                assertTrue(bareRepo.describe().endsWith(".git)"));
+
+                Path gitDir = Paths.get(invokeGetDefaultCacheDirectory(bareRepo, originDir.toUri().toString()) + ".git");
+                assertTrue(Files.isRegularFile(gitDir.resolve("HEAD")));
+                assertTrue(Files.isRegularFile(gitDir.resolve("shallow")));
+                assertFalse(Files.exists(gitDir.resolve("recipes")));
+
+                Files.writeString(originDir.resolve("recipes/maven.levain.yaml"), "version: 3.9.9\n");
+                commitAll(origin, "add maven");
+                System.setProperty(GitRepository.REFRESH_PROPERTY, "true");
+                GitRepository refreshed = new GitRepository(originDir.toUri().toString());
+                refreshed.init();
+
+                assertTrue(refreshed.resolveRecipe("maven").isPresent());
+                assertEquals(Optional.of("version: 3.9.9\n"), refreshed.getRecipeYamlContent("maven"));
+            } finally {
+                System.clearProperty(GitRepository.REFRESH_PROPERTY);
+                System.clearProperty("levain.git.bare");
+                if (originalCache != null) {
+                    System.setProperty("levain.cache.dir", originalCache);
+                } else {
+                    System.clearProperty("levain.cache.dir");
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReparseOnlyChangedRecipesAfterPull() throws Exception {
+        Path originDir = tempDir.resolve("origin-incremental");
+        Files.createDirectories(originDir);
+        try (Git origin = initRepository(originDir)) {
+            Files.writeString(originDir.resolve("jdk.levain.yaml"), "version: 21.0.0\n");
+            Files.writeString(originDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+            Files.writeString(originDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+            commitAll(origin, "init");
+
+            String originalCache = System.getProperty("levain.cache.dir");
+            System.setProperty("levain.cache.dir", tempDir.resolve("cache-incremental").toString());
+            try {
+                String url = originDir.toUri().toString();
+                GitRepository firstRun = new GitRepository(url);
+                firstRun.init();
+                assertEquals(3, firstRun.listRecipes().size());
+
+                // Mark the indexed copy of an untouched recipe: it survives only
+                // if that recipe is not parsed again
+                RecipeIndexCache cache = new RecipeIndexCache(
+                        Paths.get(invokeGetDefaultCacheDirectory(firstRun, url)).toAbsolutePath().normalize().toString());
+                RecipeIndexCache.Snapshot snapshot = cache.readSnapshot().orElseThrow();
+                cache.write(snapshot.key(), snapshot.recipes().stream()
+                        .map(entry -> entry.name().equals("git")
+                                ? new RecipeIndexCache.Entry(entry.path(), entry.name(), entry.version(), "from index",
+                                        entry.recipesDir(), entry.dependencies(), entry.commands(), entry.attributes())
+                                : entry)
+                        .toList());
+
+                Files.writeString(originDir.resolve("jdk.levain.yaml"), "version: 22.0.0\n");
+                Files.writeString(originDir.resolve("node.levain.yaml"), "version: 22.1.0\n");
+                origin.rm().addFilepattern("maven.levain.yaml").call();
+                commitAll(origin, "update");
+                System.setProperty(GitRepository.REFRESH_PROPERTY, "true");
+                GitRepository secondRun = new GitRepository(url);
+                secondRun.init();
+
+                assertEquals("from index", secondRun.resolveRecipe("git").orElseThrow().getDescription());
+                assertEquals("22.0.0", secondRun.resolveRecipe("jdk").orElseThrow().getVersion());
+                assertTrue(secondRun.resolveRecipe("node").isPresent());
+                assertTrue(secondRun.resolveRecipe("maven").isEmpty());
+                assertTrue(cache.readSnapshot().orElseThrow().key().startsWith("git:"));
+            } finally {
+                System.clearProperty(GitRepository.REFRESH_PROPERTY);
+                if (originalCache != null) {
+                    System.setProperty("levain.cache.dir", originalCache);
+                } else {
+                    System.clearProperty("levain.cache.dir");
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldTreatCloneWithoutRefreshRecordAsStale() throws Exception {
+        File gitDir = Files.createDirectories(tempDir.resolve("marker/.git")).toFile();
+        assertTrue(GitRepository.isStale(gitDir, Duration.ofHours(1)));
+
+        Files.writeString(gitDir.toPath().resolve(GitRepository.REFRESH_MARKER), "now");
+        assertFalse(GitRepository.isStale(gitDir, Duration.ofHours(1)));
+
+        Files.setLastModifiedTime(gitDir.toPath().resolve(GitRepository.REFRESH_MARKER),
+                FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        assertTrue(GitRepository.isStale(gitDir, Duration.ofHours(1)));
+    }
+
+    @Test
+    void shouldDeleteOnlyStaleRefLocks() throws Exception {
+        Path gitDir = Files.createDirectories(tempDir.resolve("locks/.git"));
+        Path staleRef = Files.createDirectories(gitDir.resolve("refs/remotes/origin")).resolve("main.lock");
+        Path stalePacked = gitDir.resolve("packed-refs.lock");
+        Path freshRef = gitDir.resolve("refs/remotes/origin/dev.lock");
+        Path ref = gitDir.resolve("refs/remotes/origin/main");
+        for (Path file : List.of(staleRef, stalePacked, freshRef, ref)) {
+            Files.writeString(file, "0000000000000000000000000000000000000000");
+        }
+        FileTime old = FileTime.from(Instant.now().minus(GitRepository.STALE_LOCK_AGE).minusSeconds(60));
+        Files.setLastModifiedTime(staleRef, old);
+        Files.setLastModifiedTime(stalePacked, old);
+        Files.setLastModifiedTime(ref, old);
+
+        GitRepository.clearStaleLocks(gitDir.toFile());
+
+        assertFalse(Files.exists(staleRef));
+        assertFalse(Files.exists(stalePacked));
+        assertTrue(Files.exists(freshRef));
+        assertTrue(Files.exists(ref));
+    }
+
+    @Test
+    void shouldReadRefreshTtlFromSystemProperty() {
+        System.setProperty("levain.git.refreshTtl", "5");
+        try {
+            assertEquals(Duration.ofMinutes(5), GitRepository.getRefreshTtl());
+            System.setProperty("levain.git.refreshTtl", "soon");
+            assertEquals(GitRepository.DEFAULT_REFRESH_TTL, GitRepository.getRefreshTtl());
+        } finally {
+            System.clearProperty("levain.git.refreshTtl");
+        }
+    }
+
+    private static void awaitBackgroundFetch() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("levain-git-fetch".equals(thread.getName())) {
+                thread.join(10_000);
+            }
+        }
+    }
+
     private static Git initRepository(Path originDir) throws GitAPIException {
         return Git.init().setDirectory(originDir.toFile()).call();
     }
@@ -0,0 +1,92 @@
+package com.github.jmoalves.levain.repository;
+
+import com.github.jmoalves.levain.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeIndexCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRoundTripRecipes() {
+        RecipeIndexCache cache = new RecipeIndexCache(tempDir, "/repo");
+        Recipe recipe = new Recipe();
+        recipe.setName("maven");
+        recipe.setVersion("3.9.0");
+        recipe.setDescription("Apache Maven");
+        recipe.setDependencies(new ArrayList<>(List.of("jdk-21")));
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        commands.put("install", List.of("extract maven.zip ${baseDir}"));
+        recipe.setCommands(commands);
+        recipe.addCustomAttribute("levain.minVersion", "2.0.0");
+
+        cache.write("key", List.of(RecipeIndexCache.Entry.of("build/maven.levain.yaml", recipe)));
+
+        List<RecipeIndexCache.Entry> entries = cache.read("key").orElseThrow();
+        assertEquals(1, entries.size());
+        assertEquals("build/maven.levain.yaml", entries.get(0).path());
+        Recipe loaded = entries.get(0).toRecipe();
+        assertEquals("maven", loaded.getName());
+        assertEquals("3.9.0", loaded.getVersion());
+        assertEquals("Apache Maven", loaded.getDescription());
+        assertEquals(List.of("jdk-21"), loaded.getDependencies());
+        assertEquals(commands, loaded.getCommands());
+        assertEquals("2.0.0", loaded.getMinVersion());
+    }
+
+    @Test
+    void shouldIgnoreSnapshotWithDifferentKey() {
+        RecipeIndexCache cache = new RecipeIndexCache(tempDir, "/repo");
+        cache.write("old", List.of());
+
+        assertTrue(cache.read("new").isEmpty());
+        assertTrue(cache.read("old").isPresent());
+    }
+
+    @Test
+    void shouldIgnoreMissingOrCorruptSnapshot() throws Exception {
+        RecipeIndexCache cache = new RecipeIndexCache(tempDir, "/repo");
+        assertTrue(cache.read("key").isEmpty());
+
+        Files.writeString(cache.getFile(), "not json");
+        assertTrue(cache.read("key").isEmpty());
+    }
+
+    @Test
+    void shouldKeepSeparateSnapshotsPerLocation() {
+        assertNotEquals(new RecipeIndexCache(tempDir, "/a").getFile(), new RecipeIndexCache(tempDir, "/b").getFile());
+    }
+
+    @Test
+    void shouldChangeFingerprintWhenFileChanges() throws Exception {
+        Path recipe = tempDir.resolve("a.levain.yaml");
+        Files.writeString(recipe, "version: 1.0.0\n");
+        Files.setLastModifiedTime(recipe, FileTime.fromMillis(1_000_000));
+        String original = RecipeIndexCache.fingerprint(tempDir, List.of(recipe));
+
+        assertEquals(original, RecipeIndexCache.fingerprint(tempDir, List.of(recipe)));
+
+        Files.setLastModifiedTime(recipe, FileTime.fromMillis(2_000_000));
+        assertNotEquals(original, RecipeIndexCache.fingerprint(tempDir, List.of(recipe)));
+
+        Files.writeString(recipe, "version: 1.0.10\n");
+        Files.setLastModifiedTime(recipe, FileTime.fromMillis(1_000_000));
+        assertNotEquals(original, RecipeIndexCache.fingerprint(tempDir, List.of(recipe)));
+
+        Path other = tempDir.resolve("b.levain.yaml");
+        Files.writeString(other, "version: 1.0.0\n");
+        assertNotEquals(RecipeIndexCache.fingerprint(tempDir, List.of(recipe)),
+                RecipeIndexCache.fingerprint(tempDir, List.of(recipe, other)));
+    }
+}
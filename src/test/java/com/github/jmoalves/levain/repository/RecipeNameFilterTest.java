@@ -0,0 +1,49 @@
+package com.github.jmoalves.levain.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class RecipeNameFilterTest {
+
+    @Test
+    void shouldAcceptEveryNameItWasBuiltWith() {
+        List<String> names = IntStream.range(0, 1000).mapToObj(i -> "recipe-" + i).toList();
+        RecipeNameFilter filter = RecipeNameFilter.of(names);
+
+        for (String name : names) {
+            assertTrue(filter.mightContain(name), name);
+        }
+    }
+
+    @Test
+    void shouldRejectMostOtherNames() {
+        RecipeNameFilter filter = RecipeNameFilter.of(
+                IntStream.range(0, 1000).mapToObj(i -> "recipe-" + i).toList());
+
+        long falsePositives = IntStream.range(0, 10000)
+                .mapToObj(i -> "other-" + i)
+                .filter(filter::mightContain)
+                .count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void shouldRejectEverythingWhenEmpty() {
+        RecipeNameFilter filter = RecipeNameFilter.of(List.of());
+
+        assertFalse(filter.mightContain("jdk-21"));
+        assertFalse(filter.mightContain(""));
+        assertFalse(filter.mightContain(null));
+    }
+
+    @Test
+    void shouldAcceptEverythingWhenUnknown() {
+        assertTrue(RecipeNameFilter.ALL.mightContain("jdk-21"));
+        assertTrue(RecipeNameFilter.ALL.mightContain("anything"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.jmoalves.levain.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class RegistryIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldBuildAndWriteIndexFromRecipeFiles() throws Exception {
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+        Files.writeString(tempDir.resolve("git.levain.meta"), """
+                {"recipeName":"git","sourceRepository":"Repo","installedAt":"2026-02-03T00:00:00Z"}
+                """);
+        Files.writeString(tempDir.resolve("broken.levain.yaml"), "version: [");
+
+        RegistryIndex index = RegistryIndex.load(tempDir);
+
+        assertTrue(Files.exists(tempDir.resolve(RegistryIndex.FILE_NAME)));
+        assertEquals(2, index.size());
+        RegistryIndex.Entry git = index.get("git").orElseThrow();
+        assertEquals("2.45.0", git.version());
+        assertEquals(64, git.sha256().length());
+        assertEquals("Repo", git.metadata().getSourceRepository());
+        assertEquals("2026-02-03T00:00:00Z", git.metadata().getInstalledAt());
+        assertEquals("git", git.recipe().toRecipe().getName());
+        RegistryIndex.Entry broken = index.get("broken").orElseThrow();
+        assertNull(broken.recipe());
+        assertNull(broken.metadata());
+    }
+
+    @Test
+    void shouldReuseEntriesOfUnchangedFiles() throws Exception {
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+        RegistryIndex.load(tempDir);
+
+        // Only the index says 9.9.9: if it is used, the YAML was not read again
+        Path indexFile = tempDir.resolve(RegistryIndex.FILE_NAME);
+        Files.writeString(indexFile, Files.readString(indexFile).replace("\"version\":\"2.45.0\"",
+                "\"version\":\"9.9.9\""));
+
+        assertEquals("9.9.9", RegistryIndex.load(tempDir).get("git").orElseThrow().version());
+    }
+
+    @Test
+    void shouldPickUpRecipeFilesChangedOutsideTheIndex() throws Exception {
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+        Files.writeString(tempDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+        RegistryIndex.load(tempDir);
+
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.46.10\n");
+        Files.delete(tempDir.resolve("maven.levain.yaml"));
+        Files.writeString(tempDir.resolve("node.levain.yaml"), "version: 22.1.0\n");
+
+        RegistryIndex index = RegistryIndex.load(tempDir);
+
+        assertEquals(List.of("git", "node"), index.entries().stream().map(RegistryIndex.Entry::name).toList());
+        assertEquals("2.46.10", index.get("git").orElseThrow().version());
+        assertTrue(Files.readString(tempDir.resolve(RegistryIndex.FILE_NAME)).contains("22.1.0"));
+    }
+
+    @Test
+    void shouldRebuildUnreadableIndex() throws Exception {
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+        Files.writeString(tempDir.resolve(RegistryIndex.FILE_NAME), "{ not json");
+
+        RegistryIndex index = RegistryIndex.load(tempDir);
+
+        assertEquals("2.45.0", index.get("git").orElseThrow().version());
+        assertTrue(Files.readString(tempDir.resolve(RegistryIndex.FILE_NAME)).contains("2.45.0"));
+    }
+
+    @Test
+    void shouldRefreshSingleEntry() throws Exception {
+        RegistryIndex index = RegistryIndex.load(tempDir);
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+
+        index.refresh("git");
+        assertNotNull(index.get("git").orElseThrow().recipe());
+
+        Files.delete(tempDir.resolve("git.levain.yaml"));
+        index.refresh("git");
+        assertFalse(index.get("git").isPresent());
+        assertEquals(0, RegistryIndex.load(tempDir).size());
+    }
+
+    @Test
+    void shouldKeepChangesMadeThroughAnotherIndex() throws Exception {
+        // Two loaded copies stand for two levain processes on the same registry
+        RegistryIndex first = RegistryIndex.load(tempDir);
+        RegistryIndex second = RegistryIndex.load(tempDir);
+
+        Files.writeString(tempDir.resolve("git.levain.yaml"), "version: 2.45.0\n");
+        first.refresh("git");
+        Files.writeString(tempDir.resolve("maven.levain.yaml"), "version: 3.9.9\n");
+        second.refresh("maven");
+
+        assertEquals(List.of("git", "maven"), second.entries().stream().map(RegistryIndex.Entry::name).toList());
+        Path indexFile = tempDir.resolve(RegistryIndex.FILE_NAME);
+        assertTrue(Files.readString(indexFile).contains("\"git\""));
+        assertTrue(Files.readString(indexFile).contains("\"maven\""));
+    }
+
+    @Test
+    void shouldReturnEmptyIndexWhenDirectoryIsMissing() {
+        RegistryIndex index = RegistryIndex.load(tempDir.resolve("missing"));
+
+        assertEquals(0, index.size());
+        assertFalse(Files.exists(tempDir.resolve("missing")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.jmoalves.levain.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+class RegistryLockTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldCreateLockFilesUnderLockDirectory() throws Exception {
+        try (RegistryLock lock = RegistryLock.recipe(tempDir, "jdk-21")) {
+            assertTrue(Files.exists(tempDir.resolve(".locks/jdk-21.lock")));
+        }
+        try (RegistryLock lock = RegistryLock.registry(tempDir)) {
+            assertTrue(Files.exists(tempDir.resolve(".locks/registry.lock")));
+        }
+    }
+
+    @Test
+    void shouldBeReentrant() throws Exception {
+        try (RegistryLock outer = RegistryLock.registry(tempDir);
+                RegistryLock inner = RegistryLock.registry(tempDir)) {
+            assertTrue(Files.exists(tempDir.resolve(".locks/registry.lock")));
+        }
+        // Released: it can be taken again
+        try (RegistryLock again = RegistryLock.registry(tempDir)) {
+            assertTrue(Files.exists(tempDir.resolve(".locks/registry.lock")));
+        }
+    }
+
+    @Test
+    void shouldBlockOtherThreadsUntilReleased() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        Thread other;
+        try (RegistryLock lock = RegistryLock.recipe(tempDir, "git")) {
+            other = new Thread(() -> {
+                started.countDown();
+                try (RegistryLock otherLock = RegistryLock.recipe(tempDir, "git")) {
+                    acquired.countDown();
+                } catch (Exception e) {
+                    failed.set(true);
+                }
+            });
+            other.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+        assertFalse(failed.get());
+    }
+
+    @Test
+    void shouldNotBlockOnOtherRecipes() throws Exception {
+        try (RegistryLock jdk = RegistryLock.recipe(tempDir, "jdk-21")) {
+            CountDownLatch acquired = new CountDownLatch(1);
+            Thread other = new Thread(() -> {
+                try (RegistryLock git = RegistryLock.recipe(tempDir, "git")) {
+                    acquired.countDown();
+                } catch (Exception e) {
+                    // Left uncounted: the assertion below fails
+                }
+            });
+            other.start();
+            assertTrue(acquired.await(5, TimeUnit.SECONDS));
+            other.join();
+        }
+        try (Stream<Path> locks = Files.list(tempDir.resolve(".locks"))) {
+            assertEquals(2, locks.count());
+        }
+    }
+}
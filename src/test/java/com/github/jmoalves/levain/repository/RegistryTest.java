@@ -14,6 +14,13 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Unit tests for Registry.
@@ -167,6 +174,28 @@ class RegistryTest {
         assertTrue(registry.isInstalled("jdk-21"), "Recipe should be installed after store");
     }
 
+    @Test
+    @DisplayName("Should list installed recipe names sorted")
+    void shouldListInstalledRecipeNamesSorted() {
+        storeTestRecipes();
+
+        assertEquals(List.of("git", "jdk-21"), List.copyOf(registry.getInstalledRecipeNames()));
+    }
+
+    @Test
+    @DisplayName("Should keep name filter in step with installed recipes")
+    void shouldKeepNameFilterInStepWithInstalledRecipes() {
+        assertFalse(registry.nameFilter().mightContain("jdk-21"));
+
+        storeTestRecipes();
+        assertTrue(registry.nameFilter().mightContain("jdk-21"));
+        assertTrue(registry.nameFilter().mightContain("git"));
+
+        registry.remove("jdk-21");
+        assertFalse(registry.nameFilter().mightContain("jdk-21"));
+        assertTrue(registry.nameFilter().mightContain("git"));
+    }
+
     @Test
     @DisplayName("Should get recipe path from registry")
     void shouldGetRecipePathFromRegistry() {
@@ -376,6 +405,54 @@ class RegistryTest {
         assertEquals(0, size);
     }
 
+    @Test
+    @DisplayName("Should share the index between registries on the same directory")
+    void shouldShareIndexBetweenRegistriesOnSameDirectory() {
+        Registry other = new Registry(tempDir.toString());
+        assertFalse(other.isInstalled("jdk-21"));
+
+        registry.store(createRecipe("jdk-21", "21.0.0"), "name: jdk-21\nversion: 21.0.0\n", "Repo", "uri");
+
+        assertTrue(other.isInstalled("jdk-21"));
+        assertEquals("Repo", other.getMetadata("jdk-21").orElseThrow().getSourceRepository());
+        assertTrue(Files.exists(tempDir.resolve(RegistryIndex.FILE_NAME)));
+
+        registry.remove("jdk-21");
+
+        assertFalse(other.isInstalled("jdk-21"));
+        assertTrue(other.getMetadata("jdk-21").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep every recipe stored concurrently")
+    void shouldKeepEveryRecipeStoredConcurrently() throws Exception {
+        List<String> names = IntStream.range(0, 16).mapToObj(i -> "pkg-" + i).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String name : names) {
+                futures.add(executor.submit(() -> registry.store(createRecipe(name, "1.0.0"),
+                        "name: " + name + "\nversion: 1.0.0\n", "Repo", "uri")));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(names.size(), registry.size());
+        RegistryIndex onDisk = RegistryIndex.load(tempDir);
+        assertEquals(names.size(), onDisk.size());
+        for (String name : names) {
+            assertTrue(onDisk.get(name).orElseThrow().metadata() != null, name);
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
     private void storeTestRecipes() {
         Recipe recipe1 = createRecipe("jdk-21", "21.0.0");
         registry.store(recipe1, "name: jdk-21\nversion: 21.0.0\n");
@@ -5,14 +5,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import com.sun.net.httpserver.HttpServer;
 
@@ -83,6 +88,8 @@ class RemoteRepositoryTest {
         });
         server.start();
 
+        String original = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.toString());
         try {
             int port = server.getAddress().getPort();
             RemoteRepository localRepo = new RemoteRepository("http://localhost:" + port);
@@ -90,10 +97,141 @@ class RemoteRepositoryTest {
 
             assertTrue(localRepo.isInitialized());
             assertTrue(localRepo.listRecipes().stream().anyMatch(r -> r.getName().equals("jdk-21")));
-            assertTrue(localRepo.getRecipeYamlContent("jdk-21").isEmpty());
-            assertTrue(localRepo.getRecipeFileName("jdk-21").isEmpty());
+            assertEquals(Optional.of("name: jdk-21\nversion: 21.0.0\n"), localRepo.getRecipeYamlContent("jdk-21"));
+            assertEquals(Optional.of("jdk-21.levain.yaml"), localRepo.getRecipeFileName("jdk-21"));
+            assertTrue(localRepo.getRecipeYamlContent("git").isEmpty());
+        } finally {
+            server.stop(0);
+            restoreCacheDir(original);
+        }
+    }
+
+    @Test
+    void shouldRevalidateCachedRecipesAndServeThemOffline() throws Exception {
+        byte[] jdk = "version: 21.0.0\n".getBytes(StandardCharsets.UTF_8);
+        String manifest = "{\"recipes\": [{\"path\": \"jdk-21.levain.yaml\"}]}";
+        AtomicInteger notModified = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/recipes/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = switch (path) {
+                case "/recipes/index.json" -> manifest.getBytes(StandardCharsets.UTF_8);
+                case "/recipes/jdk-21.levain.yaml" -> jdk;
+                default -> null;
+            };
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String etag = "\"" + path.hashCode() + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        String original = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.toString());
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort();
+            new RemoteRepository(url).init();
+            assertEquals(0, notModified.get());
+
+            RemoteRepository warmRun = new RemoteRepository(url);
+            warmRun.init();
+            assertTrue(warmRun.resolveRecipe("jdk-21").isPresent());
+            assertEquals(2, notModified.get());
+
+            server.stop(0);
+            RemoteRepository offlineRun = new RemoteRepository(url);
+            offlineRun.init();
+            assertTrue(offlineRun.resolveRecipe("jdk-21").isPresent());
+            assertEquals(Optional.of("version: 21.0.0\n"), offlineRun.getRecipeYamlContent("jdk-21"));
+        } finally {
+            server.stop(0);
+            restoreCacheDir(original);
+        }
+    }
+
+    @Test
+    void shouldLoadRecipesFromManifestAndReuseCachedCopies() throws Exception {
+        byte[] jdk = "version: 21.0.0\n".getBytes(StandardCharsets.UTF_8);
+        byte[] maven = "version: 3.9.9\n".getBytes(StandardCharsets.UTF_8);
+        String manifest = "{\"recipes\": ["
+                + "{\"path\": \"java/jdk-21.levain.yaml\", \"sha256\": \"" + sha256(jdk) + "\"},"
+                + "{\"name\": \"maven\", \"path\": \"maven-3.levain.yaml\", \"sha256\": \"" + sha256(maven) + "\"},"
+                + "{\"path\": \"tampered.levain.yaml\", \"sha256\": \""
+                + sha256("version: 1.0.0\n".getBytes(StandardCharsets.UTF_8)) + "\"}"
+                + "]}";
+        AtomicInteger recipeDownloads = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/recipes/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = switch (path) {
+                case "/recipes/index.json" -> manifest.getBytes(StandardCharsets.UTF_8);
+                case "/recipes/java/jdk-21.levain.yaml" -> jdk;
+                case "/recipes/maven-3.levain.yaml" -> maven;
+                case "/recipes/tampered.levain.yaml" -> maven;
+                default -> null;
+            };
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            if (path.endsWith(".levain.yaml")) {
+                recipeDownloads.incrementAndGet();
+            }
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        String original = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.toString());
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort();
+            RemoteRepository firstRun = new RemoteRepository(url);
+            firstRun.init();
+
+            assertEquals(List.of("jdk-21", "maven"), firstRun.listRecipes().stream().map(Recipe::getName).toList());
+            assertEquals(Optional.of("version: 3.9.9\n"), firstRun.getRecipeYamlContent("maven"));
+            assertEquals(Optional.of("maven.levain.yaml"), firstRun.getRecipeFileName("maven"));
+            assertTrue(firstRun.resolveRecipe("tampered").isEmpty());
+            assertEquals(3, recipeDownloads.get());
+
+            RemoteRepository secondRun = new RemoteRepository(url);
+            secondRun.init();
+
+            assertEquals(2, secondRun.size());
+            // Hashes unchanged: only the rejected recipe is downloaded again
+            assertEquals(4, recipeDownloads.get());
         } finally {
             server.stop(0);
+            if (original == null) {
+                System.clearProperty("levain.cache.dir");
+            } else {
+                System.setProperty("levain.cache.dir", original);
+            }
         }
     }
 
@@ -203,6 +341,18 @@ class RemoteRepositoryTest {
         }
     }
 
+    private static void restoreCacheDir(String original) {
+        if (original == null) {
+            System.clearProperty("levain.cache.dir");
+        } else {
+            System.setProperty("levain.cache.dir", original);
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
     private String invokeNormalizeUrl(String url) throws Exception {
         Method method = RemoteRepository.class.getDeclaredMethod("normalizeUrl", String.class);
         method.setAccessible(true);
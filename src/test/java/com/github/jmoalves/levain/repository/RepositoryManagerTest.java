@@ -6,9 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -240,6 +246,28 @@ class RepositoryManagerTest {
         assertFalse(manager.isInstalled("missing"));
     }
 
+    @Test
+    void shouldFindRepositoriesForSeveralRecipes() {
+        Registry registry = new Registry(tempDir.toString());
+        manager.addRepository(registry);
+        registry.store(createRecipe("installed"), "version: 1.0.0\n");
+        MockRepository repo = new MockRepository("mock", List.of(createRecipe("jdk")));
+        manager.addRepository(repo);
+
+        Map<String, Repository> found = manager.findRepositoriesForRecipes(List.of("jdk", "installed", "missing"));
+
+        assertEquals(2, found.size());
+        assertSame(repo, found.get("jdk"));
+        assertSame(registry, found.get("installed"));
+        assertFalse(found.containsKey("missing"));
+        assertEquals(Set.of("installed"), manager.getInstalledRecipeNames());
+    }
+
+    @Test
+    void shouldReturnNoInstalledRecipeNamesWithoutRegistry() {
+        assertTrue(manager.getInstalledRecipeNames().isEmpty());
+    }
+
     @Test
     void shouldReturnFalseWhenRegistryMissing() {
         assertFalse(manager.isInstalled("missing"));
@@ -258,6 +286,246 @@ class RepositoryManagerTest {
         assertEquals(2, manager.getRepositoryCount());
     }
 
+    @Test
+    void shouldPreferEarlierRepositoryForDuplicateNames() {
+        Recipe first = createRecipe("dup");
+        Recipe second = createRecipe("dup");
+        second.setVersion("2.0.0");
+        MockRepository firstRepo = new MockRepository("first", List.of(first));
+        MockRepository secondRepo = new MockRepository("second", List.of(second));
+
+        manager.addRepository(firstRepo);
+        manager.addRepository(secondRepo);
+
+        assertEquals("1.0.0", manager.resolveRecipe("dup").orElseThrow().getVersion());
+        assertSame(firstRepo, manager.findRepositoryForRecipe("dup").orElseThrow());
+        assertEquals(1, manager.listRecipes().size());
+    }
+
+    @Test
+    void shouldSeeRepositoriesAddedAfterFirstLookup() {
+        manager.addRepository(new MockRepository("first", List.of(createRecipe("alpha"))));
+        assertTrue(manager.resolveRecipe("beta").isEmpty());
+
+        manager.addRepository(new MockRepository("second", List.of(createRecipe("beta"))));
+
+        assertTrue(manager.resolveRecipe("beta").isPresent());
+        assertEquals(2, manager.listRecipes().size());
+    }
+
+    @Test
+    void shouldRebuildIndexWhenRepositoryRefreshed() {
+        MockRepository mockRepo = new MockRepository("mock", List.of(createRecipe("alpha")));
+        manager.addRepository(mockRepo);
+        assertTrue(manager.resolveRecipe("alpha").isPresent());
+
+        mockRepo.addRecipe(createRecipe("late"));
+        manager.refresh(mockRepo);
+
+        assertTrue(manager.resolveRecipe("late").isPresent());
+        assertSame(mockRepo, manager.findRepositoryForRecipe("late").orElseThrow());
+    }
+
+    @Test
+    void shouldSkipRepositoriesWhoseNameFilterRejectsRecipe() {
+        FilteredRepository repo = new FilteredRepository(List.of(createRecipe("alpha")));
+        manager.addRepository(repo);
+
+        assertTrue(manager.resolveRecipe("missing").isEmpty());
+        assertTrue(manager.getRecipeYamlContent("missing").isEmpty());
+        assertEquals(0, repo.yamlRequests.get());
+
+        assertEquals("alpha: yaml", manager.getRecipeYamlContent("alpha").orElseThrow());
+        assertEquals(1, repo.yamlRequests.get());
+    }
+
+    @Test
+    void shouldNotWalkChainAgainForMissingRecipe() {
+        FilteredRepository repo = new FilteredRepository(List.of(createRecipe("alpha")));
+        manager.addRepository(repo);
+
+        assertTrue(manager.resolveRecipe("missing").isEmpty());
+        int filterChecks = repo.filterRequests.get();
+        assertTrue(manager.resolveRecipe("missing").isEmpty());
+        assertTrue(manager.findRepositoryForRecipe("missing").isEmpty());
+        assertTrue(manager.findRepositoriesForRecipes(List.of("missing")).isEmpty());
+
+        assertEquals(filterChecks, repo.filterRequests.get());
+    }
+
+    @Test
+    void shouldForgetMissingRecipesWhenRepositoryRefreshed() {
+        FilteredRepository repo = new FilteredRepository(List.of(createRecipe("alpha")));
+        manager.addRepository(repo);
+        assertTrue(manager.resolveRecipe("late").isEmpty());
+
+        repo.recipes.add(createRecipe("late"));
+        manager.refresh(repo);
+
+        assertTrue(manager.resolveRecipe("late").isPresent());
+    }
+
+    @Test
+    void shouldResolveRecipesInstalledAfterIndexWasBuilt() {
+        Registry registry = new Registry(tempDir.toString());
+        manager.addRepository(new MockRepository("mock", List.of(createRecipe("alpha"))));
+        manager.addRepository(registry);
+        assertTrue(manager.resolveRecipe("installed").isEmpty());
+
+        registry.store(createRecipe("installed"), "version: 1.0.0\n");
+
+        assertTrue(manager.resolveRecipe("installed").isPresent());
+        assertSame(registry, manager.findRepositoryForRecipe("installed").orElseThrow());
+        assertTrue(manager.listRecipes().stream().anyMatch(r -> r.getName().equals("installed")));
+    }
+
+    @Test
+    void shouldInitializeAllPendingRepositoriesConcurrentlyWhenListing() {
+        CountDownLatch started = new CountDownLatch(2);
+        MockRepository first = new AwaitingRepository("first", List.of(createRecipe("alpha")), started);
+        MockRepository second = new AwaitingRepository("second", List.of(createRecipe("beta")), started);
+        manager.setInitTimeout(Duration.ofSeconds(10));
+        manager.addRepositories(List.of(first, second));
+
+        assertEquals(2, manager.listRecipes().size());
+
+        assertEquals(0, started.getCount());
+    }
+
+    @Test
+    void shouldNotInitializeRepositoriesUntilLookupReachesThem() {
+        CountingRepository first = new CountingRepository("first", List.of(createRecipe("alpha")));
+        CountingRepository second = new CountingRepository("second", List.of(createRecipe("beta")));
+        manager.addRepositories(List.of(first, second));
+
+        assertEquals(0, first.inits.get());
+        assertTrue(manager.resolveRecipe("alpha").isPresent());
+        assertEquals(1, first.inits.get());
+        assertEquals(0, second.inits.get());
+
+        assertTrue(manager.resolveRecipe("beta").isPresent());
+        assertTrue(manager.resolveRecipe("alpha").isPresent());
+        assertEquals(1, first.inits.get());
+        assertEquals(1, second.inits.get());
+    }
+
+    @Test
+    void shouldNotInitializeRepositoriesForRegistryOnlyOperations() {
+        CountingRepository remote = new CountingRepository("remote", List.of(createRecipe("alpha")));
+        Registry registry = new Registry(tempDir.toString());
+        manager.addRepositories(List.of(remote, registry));
+        registry.store(createRecipe("installed"), "version: 1.0.0\n");
+
+        assertTrue(manager.isInstalled("installed"));
+        assertTrue(manager.getRegistry().isPresent());
+        assertEquals(0, remote.inits.get());
+    }
+
+    @Test
+    void shouldKeepPriorityOrderWhenInitializedConcurrently() {
+        Recipe slowRecipe = createRecipe("dup");
+        Recipe fastRecipe = createRecipe("dup");
+        fastRecipe.setVersion("2.0.0");
+        MockRepository slow = new MockRepository("slow", List.of(slowRecipe)) {
+            @Override
+            public void init() {
+                sleep(200);
+            }
+        };
+        MockRepository fast = new MockRepository("fast", List.of(fastRecipe));
+        manager.addRepositories(List.of(slow, fast));
+
+        manager.init();
+
+        assertSame(slow, manager.findRepositoryForRecipe("dup").orElseThrow());
+        assertEquals("1.0.0", manager.resolveRecipe("dup").orElseThrow().getVersion());
+        assertEquals("1.0.0", manager.listRecipes().get(0).getVersion());
+    }
+
+    @Test
+    void shouldStopWaitingForRepositoryAfterTimeout() {
+        CountDownLatch never = new CountDownLatch(1);
+        MockRepository stuck = new MockRepository("stuck", List.of()) {
+            @Override
+            public void init() {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        MockRepository ok = new MockRepository("ok", List.of(createRecipe("alpha")));
+        manager.setInitTimeout(Duration.ofMillis(200));
+        manager.addRepositories(List.of(stuck, ok));
+
+        long start = System.nanoTime();
+        List<Recipe> recipes = manager.listRecipes();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed < 5000, "listRecipes waited " + elapsed + "ms");
+        assertEquals(2, manager.getRepositoryCount());
+        assertEquals(1, recipes.size());
+    }
+
+    @Test
+    void shouldNeverReadRepositoryWhoseInitTimedOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        MockRepository stuck = new MockRepository("stuck", List.of(createRecipe("late"))) {
+            @Override
+            public void init() {
+                // Blocking I/O does not answer interrupts
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        // keep waiting
+                    }
+                }
+                finished.countDown();
+            }
+
+            @Override
+            public List<Recipe> listRecipes() {
+                reads.incrementAndGet();
+                return super.listRecipes();
+            }
+        };
+        manager.setInitTimeout(Duration.ofMillis(200));
+        manager.addRepositories(List.of(stuck, new MockRepository("ok", List.of(createRecipe("alpha")))));
+
+        assertEquals(1, manager.listRecipes().size());
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertTrue(manager.resolveRecipe("late").isEmpty());
+        assertEquals(1, manager.listRecipes().size());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    void shouldContinueWhenConcurrentInitThrows() {
+        manager.addRepositories(List.of(new ThrowingRepository(), new MockRepository("ok", List.of(createRecipe("alpha")))));
+
+        assertTrue(manager.resolveRecipe("alpha").isPresent());
+        assertEquals(1, manager.listRecipes().size());
+    }
+
+    @Test
+    void shouldReadInitTimeoutFromSystemProperty() {
+        System.setProperty("levain.repository.timeout", "7");
+        try {
+            assertEquals(Duration.ofSeconds(7), RepositoryManager.getInitTimeout());
+            System.setProperty("levain.repository.timeout", "nope");
+            assertEquals(RepositoryManager.DEFAULT_INIT_TIMEOUT, RepositoryManager.getInitTimeout());
+        } finally {
+            System.clearProperty("levain.repository.timeout");
+        }
+    }
+
     private Recipe createRecipe(String name) {
         Recipe recipe = new Recipe();
         recipe.setName(name);
@@ -273,6 +541,47 @@ class RepositoryManagerTest {
         repositories.add(repository);
     }
 
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CountingRepository extends MockRepository {
+        private final AtomicInteger inits = new AtomicInteger();
+
+        private CountingRepository(String name, List<Recipe> recipes) {
+            super(name, recipes);
+        }
+
+        @Override
+        public void init() {
+            inits.incrementAndGet();
+        }
+    }
+
+    private static class AwaitingRepository extends MockRepository {
+        private final CountDownLatch started;
+
+        private AwaitingRepository(String name, List<Recipe> recipes, CountDownLatch started) {
+            super(name, recipes);
+            this.started = started;
+        }
+
+        @Override
+        public void init() {
+            // Only completes if the other repository is initializing at the same time
+            started.countDown();
+            try {
+                started.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private static class ThrowingRepository implements Repository {
         @Override
         public void init() {
@@ -325,6 +634,44 @@ class RepositoryManagerTest {
         }
     }
 
+    private static class FilteredRepository extends AbstractRepository {
+        private final List<Recipe> recipes;
+        private final AtomicInteger yamlRequests = new AtomicInteger();
+        private final AtomicInteger filterRequests = new AtomicInteger();
+
+        private FilteredRepository(List<Recipe> recipes) {
+            super("filtered", "filtered://");
+            this.recipes = new ArrayList<>(recipes);
+        }
+
+        @Override
+        public List<Recipe> listRecipes() {
+            return List.copyOf(recipes);
+        }
+
+        @Override
+        public Optional<Recipe> resolveRecipe(String recipeName) {
+            return recipes.stream().filter(r -> r.getName().equals(recipeName)).findFirst();
+        }
+
+        @Override
+        public Optional<String> getRecipeYamlContent(String recipeName) {
+            yamlRequests.incrementAndGet();
+            return resolveRecipe(recipeName).map(r -> r.getName() + ": yaml");
+        }
+
+        @Override
+        public Optional<String> getRecipeFileName(String recipeName) {
+            return Optional.empty();
+        }
+
+        @Override
+        public RecipeNameFilter nameFilter() {
+            filterRequests.incrementAndGet();
+            return super.nameFilter();
+        }
+    }
+
     private static class InMemoryRepository implements Repository {
         private final Optional<String> yamlContent;
         private final Optional<String> fileName;
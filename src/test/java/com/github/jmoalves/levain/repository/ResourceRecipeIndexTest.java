@@ -0,0 +1,73 @@
+package com.github.jmoalves.levain.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceRecipeIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldWriteIndexOfRecipeFiles() throws Exception {
+        Files.writeString(tempDir.resolve("maven.levain.yaml"), "version: 3.9.9\ndependencies:\n  - jdk-21\n");
+        Files.writeString(tempDir.resolve("jdk-21.levain.yaml"), "version: 21.0.5\ndescription: JDK\n");
+        Files.writeString(tempDir.resolve("broken.levain.yaml"), "version: [");
+        Files.writeString(tempDir.resolve("levain.sh"), "#!/bin/sh\n");
+
+        Path indexFile = ResourceRecipeIndex.write(tempDir);
+
+        assertEquals(tempDir.resolve(ResourceRecipeIndex.FILE_NAME), indexFile);
+        Optional<List<RecipeIndexCache.Entry>> entries = ResourceRecipeIndex.read(tempDir.toUri().toURL());
+        assertTrue(entries.isPresent());
+        assertEquals(List.of("jdk-21.levain.yaml", "maven.levain.yaml"),
+                entries.get().stream().map(RecipeIndexCache.Entry::path).toList());
+        assertEquals("JDK", entries.get().get(0).toRecipe().getDescription());
+        assertEquals("maven", entries.get().get(1).toRecipe().getName());
+        assertEquals(List.of("jdk-21"), entries.get().get(1).toRecipe().getDependencies());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenIndexIsMissing() throws Exception {
+        assertTrue(ResourceRecipeIndex.read(tempDir.toUri().toURL()).isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenIndexIsUnreadable() throws Exception {
+        Files.writeString(tempDir.resolve(ResourceRecipeIndex.FILE_NAME), "{ not json");
+
+        assertTrue(ResourceRecipeIndex.read(tempDir.toUri().toURL()).isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenIndexHasOldFormat() throws Exception {
+        Files.writeString(tempDir.resolve(ResourceRecipeIndex.FILE_NAME),
+                "{\"format\":0,\"key\":\"resources\",\"recipes\":[]}");
+
+        assertTrue(ResourceRecipeIndex.read(tempDir.toUri().toURL()).isEmpty());
+    }
+
+    @Test
+    void shouldResolveFilesUnderRecipesRoot() throws Exception {
+        assertEquals("jar:file:/app/levain.jar!/recipes/index.json",
+                ResourceRecipeIndex.resolve(new java.net.URL("jar:file:/app/levain.jar!/recipes"), "index.json")
+                        .toString());
+        assertEquals("file:/app/classes/recipes/index.json",
+                ResourceRecipeIndex.resolve(new java.net.URL("file:/app/classes/recipes/"), "index.json").toString());
+    }
+
+    @Test
+    void shouldSkipMissingRecipesDirectory() throws Exception {
+        Path missing = tempDir.resolve("missing");
+
+        ResourceRecipeIndex.main(new String[] { missing.toString() });
+
+        assertFalse(Files.exists(missing));
+    }
+}
@@ -193,6 +193,51 @@ class ResourceRepositoryTest {
         assertTrue(recipes.isEmpty());
     }
 
+    @Test
+    void shouldLoadRecipesFromIndexWithoutParsingFiles() throws Exception {
+        Files.writeString(tempDir.resolve("indexed.levain.yaml"), "version: 1.0.0\n");
+        ResourceRecipeIndex.write(tempDir);
+        // The index is used as is: a recipe file changed after the build is not re-read
+        Files.writeString(tempDir.resolve("indexed.levain.yaml"), "version: [");
+
+        List<Recipe> recipes = invokeLoadRecipesFromRoot(tempDir);
+
+        assertEquals(1, recipes.size());
+        assertEquals("indexed", recipes.get(0).getName());
+        assertEquals("1.0.0", recipes.get(0).getVersion());
+    }
+
+    @Test
+    void shouldScanRecipesWhenIndexIsMissing() throws Exception {
+        Files.writeString(tempDir.resolve("scanned.levain.yaml"), "version: 2.0.0\n");
+        Files.writeString(tempDir.resolve("notes.txt"), "not a recipe\n");
+
+        List<Recipe> recipes = invokeLoadRecipesFromRoot(tempDir);
+
+        assertEquals(1, recipes.size());
+        assertEquals("scanned", recipes.get(0).getName());
+    }
+
+    @Test
+    void shouldLoadRecipesFromIndexInJar() throws Exception {
+        Path recipesDir = Files.createDirectories(tempDir.resolve("recipes"));
+        Files.writeString(recipesDir.resolve("first.levain.yaml"), "version: 1.0.0\n");
+        ResourceRecipeIndex.write(recipesDir);
+        Path jarPath = tempDir.resolve("indexed.jar");
+        try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jarPath))) {
+            jarOutputStream.putNextEntry(new JarEntry("recipes/index.json"));
+            jarOutputStream.write(Files.readAllBytes(recipesDir.resolve("index.json")));
+            jarOutputStream.closeEntry();
+        }
+
+        java.net.URL jarUrl = new java.net.URL("jar:" + jarPath.toUri() + "!/recipes");
+        Method method = ResourceRepository.class.getDeclaredMethod("loadRecipesFromRoot", java.net.URL.class);
+        method.setAccessible(true);
+        List<Recipe> recipes = castRecipeList(method.invoke(repository, jarUrl));
+
+        assertEquals(List.of("first"), recipes.stream().map(Recipe::getName).toList());
+    }
+
     private boolean invokeIsRecipeFile(String filename) throws Exception {
         Method method = ResourceRepository.class.getDeclaredMethod("isRecipeFile", String.class);
         method.setAccessible(true);
@@ -229,6 +274,17 @@ class ResourceRepositoryTest {
         return castRecipeOptional(method.invoke(repository, recipeFile.toUri().toURL()));
     }
 
+    private List<Recipe> invokeLoadRecipesFromRoot(Path directory) throws Exception {
+        Method method = ResourceRepository.class.getDeclaredMethod("loadRecipesFromRoot", java.net.URL.class);
+        method.setAccessible(true);
+        return castRecipeList(method.invoke(repository, directory.toUri().toURL()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Recipe> castRecipeList(Object value) {
+        return (List<Recipe>) value;
+    }
+
     @SuppressWarnings("unchecked")
     private List<java.net.URL> castUrlList(Object value) {
         return (List<java.net.URL>) value;
@@ -5,15 +5,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
-import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -85,21 +86,47 @@ class ZipRepositoryTest {
     }
 
     @Test
-    void shouldInitializeWhenCacheAlreadyExtracted() throws Exception {
+    void shouldReadRecipesWithoutExtracting() throws Exception {
         Path zipFile = tempDir.resolve("recipes.zip");
-        createZipWithRecipe(zipFile, "ignored.txt", "data");
+        createZipWithRecipe(zipFile, "recipes/jdk-21.levain.yaml", "name: jdk-21\nversion: 21.0.0\n");
 
         String originalCache = System.getProperty("levain.cache.dir");
         System.setProperty("levain.cache.dir", tempDir.resolve("cache").toString());
         try {
             ZipRepository localRepo = new ZipRepository(zipFile.toString());
-            Path cacheDir = Path.of(getLocalCachePath(localRepo));
-            Files.createDirectories(cacheDir);
-            Files.writeString(cacheDir.resolve("jdk-21.levain.yaml"), "name: jdk-21\nversion: 21.0.0\n");
-
             localRepo.init();
 
-            assertTrue(localRepo.listRecipes().stream().anyMatch(r -> r.getName().equals("jdk-21")));
+            assertTrue(localRepo.resolveRecipe("jdk-21").isPresent());
+            assertEquals(Optional.of("name: jdk-21\nversion: 21.0.0\n"), localRepo.getRecipeYamlContent("jdk-21"));
+            try (var files = Files.list(Path.of(getLocalCachePath(localRepo)))) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            if (originalCache != null) {
+                System.setProperty("levain.cache.dir", originalCache);
+            } else {
+                System.clearProperty("levain.cache.dir");
+            }
+        }
+    }
+
+    @Test
+    void shouldPickUpChangedArchive() throws Exception {
+        Path zipFile = tempDir.resolve("changing.zip");
+        createZipWithRecipe(zipFile, "jdk-21.levain.yaml", "name: jdk-21\nversion: 21.0.0\n");
+
+        String originalCache = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.resolve("cache-changing").toString());
+        try {
+            ZipRepository firstRun = new ZipRepository(zipFile.toString());
+            firstRun.init();
+            assertEquals("21.0.0", firstRun.resolveRecipe("jdk-21").orElseThrow().getVersion());
+
+            createZipWithRecipe(zipFile, "jdk-21.levain.yaml", "name: jdk-21\nversion: 21.0.4\n");
+            ZipRepository secondRun = new ZipRepository(zipFile.toString());
+            secondRun.init();
+
+            assertEquals("21.0.4", secondRun.resolveRecipe("jdk-21").orElseThrow().getVersion());
         } finally {
             if (originalCache != null) {
                 System.setProperty("levain.cache.dir", originalCache);
@@ -192,7 +219,7 @@ class ZipRepositoryTest {
     }
 
     @Test
-    void shouldExtractZipWithDirectoryEntry() throws Exception {
+    void shouldReadZipWithDirectoryEntry() throws Exception {
         Path zipFile = tempDir.resolve("dir.zip");
         Files.deleteIfExists(zipFile);
         try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile.toFile()))) {
@@ -223,7 +250,7 @@ class ZipRepositoryTest {
     }
 
     @Test
-    void shouldExtractWhenCacheDirExistsButEmpty() throws Exception {
+    void shouldLoadWhenCacheDirExistsButEmpty() throws Exception {
         Path zipFile = tempDir.resolve("empty-cache.zip");
         createZipWithRecipe(zipFile, "python.levain.yaml", "name: python\nversion: 3.12.0\n");
 
@@ -247,36 +274,85 @@ class ZipRepositoryTest {
     }
 
     @Test
-    void shouldHandleExtractZipEntryFailure() throws Exception {
+    void shouldSkipEntriesThatFailToParse() throws Exception {
         Path zipFile = tempDir.resolve("broken.zip");
         Files.deleteIfExists(zipFile);
         try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile.toFile()))) {
-            ZipEntry entry = new ZipEntry("file.txt");
-            zos.putNextEntry(entry);
-            zos.write("data".getBytes());
+            zos.putNextEntry(new ZipEntry("broken.levain.yaml"));
+            zos.write("cmd.install: [".getBytes());
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("git.levain.yaml"));
+            zos.write("version: 2.45.0\n".getBytes());
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("README.md"));
+            zos.write("docs".getBytes());
             zos.closeEntry();
         }
 
-        Path targetFile = tempDir.resolve("target-file");
-        Files.writeString(targetFile, "not a dir");
-
-        ZipRepository repo = new ZipRepository(zipFile.toString());
-        java.lang.reflect.Method method = ZipRepository.class.getDeclaredMethod("extractZip", File.class, File.class);
-        method.setAccessible(true);
+        String originalCache = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.resolve("cache-broken").toString());
+        try {
+            ZipRepository localRepo = new ZipRepository(zipFile.toString());
+            localRepo.init();
 
-        assertDoesNotThrow(() -> method.invoke(repo, zipFile.toFile(), targetFile.toFile()));
+            assertEquals(List.of("git"), localRepo.listRecipes().stream().map(Recipe::getName).toList());
+        } finally {
+            if (originalCache != null) {
+                System.setProperty("levain.cache.dir", originalCache);
+            } else {
+                System.clearProperty("levain.cache.dir");
+            }
+        }
     }
 
     @Test
-    void shouldReturnEmptyWhenLocalRepositoryMissing() throws Exception {
-        ZipRepository repo = new ZipRepository("missing.zip");
-        java.lang.reflect.Method method = ZipRepository.class.getDeclaredMethod("loadRecipesFromLocalDirectory");
-        method.setAccessible(true);
+    void shouldRevalidateRemoteZipAndUseItOffline() throws Exception {
+        Path zipFile = tempDir.resolve("remote-etag.zip");
+        createZipWithRecipe(zipFile, "maven.levain.yaml", "name: maven\nversion: 3.9.9\n");
 
-        @SuppressWarnings("unchecked")
-        java.util.Map<String, Recipe> recipes = (java.util.Map<String, Recipe>) method.invoke(repo);
+        AtomicInteger downloads = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/recipes.zip", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            downloads.incrementAndGet();
+            byte[] content = Files.readAllBytes(zipFile);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+        });
+        server.start();
+
+        String originalCache = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.resolve("cache-etag").toString());
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/recipes.zip";
+            new ZipRepository(url).init();
+            ZipRepository warmRun = new ZipRepository(url);
+            warmRun.init();
+
+            assertTrue(warmRun.resolveRecipe("maven").isPresent());
+            assertEquals(1, downloads.get());
+
+            server.stop(0);
+            ZipRepository offlineRun = new ZipRepository(url);
+            offlineRun.init();
 
-        assertTrue(recipes.isEmpty());
+            assertTrue(offlineRun.resolveRecipe("maven").isPresent());
+            assertTrue(offlineRun.getRecipeYamlContent("maven").isPresent());
+        } finally {
+            server.stop(0);
+            if (originalCache != null) {
+                System.setProperty("levain.cache.dir", originalCache);
+            } else {
+                System.clearProperty("levain.cache.dir");
+            }
+        }
     }
 
     @Test
@@ -321,6 +397,43 @@ class ZipRepositoryTest {
         }
     }
 
+    @Test
+    void shouldNotRehashArchiveWithSameSizeAndTime() throws Exception {
+        Path zipFile = tempDir.resolve("stamped.zip");
+        createZipWithRecipe(zipFile, "jdk-21.levain.yaml", "name: jdk-21\nversion: 21.0.0\n");
+        FileTime modified = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.setLastModifiedTime(zipFile, modified);
+
+        String originalCache = System.getProperty("levain.cache.dir");
+        System.setProperty("levain.cache.dir", tempDir.resolve("cache-stamped").toString());
+        try {
+            ZipRepository firstRun = new ZipRepository(zipFile.toString());
+            firstRun.init();
+            assertEquals("21.0.0", firstRun.resolveRecipe("jdk-21").orElseThrow().getVersion());
+
+            // Same size and time: the index is trusted without reading the archive
+            long size = Files.size(zipFile);
+            createZipWithRecipe(zipFile, "jdk-21.levain.yaml", "name: jdk-21\nversion: 21.0.4\n");
+            assertEquals(size, Files.size(zipFile));
+            Files.setLastModifiedTime(zipFile, modified);
+            ZipRepository secondRun = new ZipRepository(zipFile.toString());
+            secondRun.init();
+            assertEquals("21.0.0", secondRun.resolveRecipe("jdk-21").orElseThrow().getVersion());
+
+            // A new time makes it hash the archive again
+            Files.setLastModifiedTime(zipFile, FileTime.fromMillis(modified.toMillis() + 1_000));
+            ZipRepository thirdRun = new ZipRepository(zipFile.toString());
+            thirdRun.init();
+            assertEquals("21.0.4", thirdRun.resolveRecipe("jdk-21").orElseThrow().getVersion());
+        } finally {
+            if (originalCache != null) {
+                System.setProperty("levain.cache.dir", originalCache);
+            } else {
+                System.clearProperty("levain.cache.dir");
+            }
+        }
+    }
+
     private static void createZipWithRecipe(Path zipPath, String entryName, String content) throws Exception {
         Files.deleteIfExists(zipPath);
         try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipPath.toFile()))) {
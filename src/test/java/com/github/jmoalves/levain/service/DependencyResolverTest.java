@@ -13,6 +13,8 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -78,6 +80,22 @@ class DependencyResolverTest {
         assertEquals(List.of("missing"), result.missing());
     }
 
+    @Test
+    void testResolveLooksUpSharedMissingDependencyOnce() {
+        Recipe recipeA = createRecipe("A", "1.0.0", Arrays.asList("missing"));
+        Recipe recipeB = createRecipe("B", "1.0.0", Arrays.asList("missing"));
+
+        when(recipeService.loadRecipe("A")).thenReturn(recipeA);
+        when(recipeService.loadRecipe("B")).thenReturn(recipeB);
+        when(recipeService.loadRecipe("missing")).thenThrow(new RuntimeException("not found"));
+
+        DependencyResolver.ResolutionResult result = resolver.resolveAndSortWithMissing(List.of("A", "B", "missing"));
+
+        assertTrue(result.recipes().isEmpty());
+        assertEquals(List.of("missing"), result.missing());
+        verify(recipeService, times(1)).loadRecipe("missing");
+    }
+
     // ========== Linear Dependency Chain Tests ==========
 
     @Test
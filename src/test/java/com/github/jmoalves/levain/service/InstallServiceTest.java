@@ -5,7 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -479,6 +482,27 @@ class InstallServiceTest {
             org.mockito.Mockito.eq("name: pkg-a\n"), isNull(), isNull());
     }
 
+    @Test
+    void testInstallPlanValidatesEveryRecipeFirst() {
+        Recipe recipeA = new Recipe();
+        recipeA.setName("pkg-a");
+        recipeA.setCommands(Map.of("install", List.of("echo a")));
+        Recipe recipeB = new Recipe();
+        recipeB.setName("pkg-b");
+        recipeB.setCommands(Map.of("install", List.of("copy only-one"), "env", List.of("setVar X 1")));
+
+        lenient().doThrow(new IllegalArgumentException("Invalid commands"))
+                .when(actionExecutor).validateCommands(List.of("copy only-one", "setVar X 1"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> installService.installPlan(List.of(recipeA, recipeB)));
+
+        assertTrue(exception.getMessage().contains("pkg-b"));
+        verify(actionExecutor).validateCommands(List.of("echo a"));
+        verify(actionExecutor, never()).executeCommands(any(), any());
+        verifyNoInteractions(recipeService);
+    }
+
     @Test
     void testInstallSingleRecipeMissingRecipeThrows() throws Exception {
         when(recipeService.loadRecipe("missing")).thenReturn(null);
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -213,4 +214,48 @@ class RecipeLoaderTest {
             }
         }
     }
+
+    @Test
+    void shouldLoadRecipeFilesInGivenOrder() throws IOException {
+        Path tempDir = Files.createTempDirectory("recipes-parallel");
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            Path file = tempDir.resolve("tool-" + i + ".levain.yaml");
+            Files.writeString(file, "version: 1.0." + i + "\ncmd.install:\n  - echo " + i + "\n");
+            files.add(file);
+        }
+
+        Map<Path, Recipe> recipes = recipeLoader.loadRecipeFiles(files);
+
+        assertEquals(files, new ArrayList<>(recipes.keySet()));
+        for (int i = 0; i < files.size(); i++) {
+            Recipe recipe = recipes.get(files.get(i));
+            assertEquals("tool-" + i, recipe.getName());
+            assertEquals("1.0." + i, recipe.getVersion());
+            assertEquals(List.of("echo " + i), recipe.getCommands().get("install"));
+        }
+    }
+
+    @Test
+    void shouldSkipEmptyRecipeFileWithoutDroppingOthers() throws IOException {
+        Path tempDir = Files.createTempDirectory("recipes-empty");
+        Files.writeString(tempDir.resolve("empty.levain.yaml"), "# nothing here\n");
+        Files.writeString(tempDir.resolve("tool.levain.yaml"), "version: 1.0.0\n");
+
+        Map<String, Recipe> recipes = recipeLoader.loadRecipesFromDirectory(tempDir.toString());
+
+        assertEquals(1, recipes.size());
+        assertTrue(recipes.containsKey("tool"));
+    }
+
+    @Test
+    void shouldKeepCommandsInDocumentOrder() {
+        String yaml = "cmd.shell: echo shell\n" +
+                "cmd.install: echo install\n" +
+                "cmd.env: echo env\n";
+
+        Recipe recipe = RecipeLoader.parseRecipeYaml(yaml, "demo");
+
+        assertEquals(List.of("shell", "install", "env"), new ArrayList<>(recipe.getCommands().keySet()));
+    }
 }
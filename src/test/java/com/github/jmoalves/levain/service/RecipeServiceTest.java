@@ -3,9 +3,12 @@ package com.github.jmoalves.levain.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.reflect.Field;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
@@ -17,8 +20,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import com.github.jmoalves.levain.model.Recipe;
+import com.github.jmoalves.levain.repository.Registry;
 import com.github.jmoalves.levain.repository.Repository;
 import com.github.jmoalves.levain.repository.RepositoryFactory;
+import com.github.jmoalves.levain.repository.RepositoryManager;
 import com.github.jmoalves.levain.repository.ResourceRepository;
 
 /**
@@ -186,11 +191,79 @@ class RecipeServiceTest {
     }
 
     @Test
-    void testListRecipesWithFilterCaseSensitive() {
+    void testListRecipesWithFilterIgnoresCase() {
         List<String> recipes = recipeService.listRecipes("JDK");
 
         assertNotNull(recipes);
-        assertTrue(recipes.isEmpty());
+        assertTrue(recipes.contains("jdk-21"));
+    }
+
+    @Test
+    void testListRecipesWithFilterRanksExactNameFirst() {
+        List<String> recipes = recipeService.listRecipes("maven");
+
+        assertFalse(recipes.isEmpty());
+        assertEquals("maven", recipes.get(0));
+    }
+
+    @Test
+    void testGetRecipeStatusesKeepsOrderAndResolvesSources() {
+        List<RecipeService.RecipeStatus> statuses = recipeService.getRecipeStatuses(
+                List.of("maven", "non-existent-recipe-xyz", "jdk-21"), true);
+
+        assertEquals(List.of("maven", "non-existent-recipe-xyz", "jdk-21"),
+                statuses.stream().map(RecipeService.RecipeStatus::name).toList());
+        assertFalse(statuses.get(1).isInstalled());
+        assertEquals("unknown", statuses.get(1).sourceName());
+        assertNotNull(statuses.get(2).sourceName());
+    }
+
+    @Test
+    void testGetRecipeStatusesWithoutSource() {
+        List<RecipeService.RecipeStatus> statuses = recipeService.getRecipeStatuses(List.of("jdk-21"), false);
+
+        assertEquals(1, statuses.size());
+        assertEquals(null, statuses.get(0).sourceName());
+        assertEquals(null, statuses.get(0).sourceUri());
+    }
+
+    @Test
+    void testGetRecipeStatusesForInstalledRecipeMissingFromRepositories() throws Exception {
+        Registry registry = useRegistry(tempDir.resolve("registry"));
+        registry.store(recipe("local-only"), "name: local-only\nversion: 1.0.0\n");
+
+        List<RecipeService.RecipeStatus> statuses = recipeService.getRecipeStatuses(List.of("local-only"), true);
+
+        assertEquals(1, statuses.size());
+        assertTrue(statuses.get(0).isInstalled());
+        assertEquals("unknown", statuses.get(0).sourceName());
+        assertNull(statuses.get(0).sourceUri());
+    }
+
+    @Test
+    void testGetRecipeStatusesForInstalledRecipeWithNullMetadataFields() throws Exception {
+        Path registryDir = tempDir.resolve("registry");
+        Registry registry = useRegistry(registryDir);
+        registry.store(recipe("jdk-21"), "name: jdk-21\nversion: 21.0.0\n");
+        Files.writeString(registryDir.resolve("jdk-21.levain.meta"), "{\"recipeName\":\"jdk-21\"}");
+
+        List<RecipeService.RecipeStatus> statuses = recipeService.getRecipeStatuses(List.of("jdk-21"), true);
+
+        assertTrue(statuses.get(0).isInstalled());
+        assertEquals("unknown", statuses.get(0).sourceName());
+        assertNull(statuses.get(0).sourceUri());
+    }
+
+    @Test
+    void testGetRecipeStatusesForInstalledRecipeUsesRegistryMetadata() throws Exception {
+        Registry registry = useRegistry(tempDir.resolve("registry"));
+        registry.store(recipe("jdk-21"), "name: jdk-21\nversion: 21.0.0\n", "repo1", null);
+
+        List<RecipeService.RecipeStatus> statuses = recipeService.getRecipeStatuses(List.of("jdk-21"), true);
+
+        assertTrue(statuses.get(0).isInstalled());
+        assertEquals("repo1", statuses.get(0).sourceName());
+        assertNull(statuses.get(0).sourceUri());
     }
 
     @Test
@@ -202,4 +275,25 @@ class RecipeServiceTest {
         assertNotNull(nullRecipes);
         assertEquals(allRecipes.size(), nullRecipes.size());
     }
+
+    /**
+     * Point the service at a registry in {@code registryDir}, searched after
+     * the built-in recipes as in production.
+     */
+    private Registry useRegistry(Path registryDir) throws Exception {
+        Registry registry = new Registry(registryDir.toString());
+        RepositoryManager manager = new RepositoryManager();
+        manager.addRepositories(List.of(new ResourceRepository(), registry));
+        Field field = RecipeService.class.getDeclaredField("repositoryManager");
+        field.setAccessible(true);
+        field.set(recipeService, manager);
+        return registry;
+    }
+
+    private static Recipe recipe(String name) {
+        Recipe recipe = new Recipe();
+        recipe.setName(name);
+        recipe.setVersion("1.0.0");
+        return recipe;
+    }
 }
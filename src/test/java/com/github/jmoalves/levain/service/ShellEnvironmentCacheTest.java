@@ -0,0 +1,92 @@
+package com.github.jmoalves.levain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShellEnvironmentCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldKeyOnPackagesRecipesAndStartingEnvironment() {
+        String key = ShellEnvironmentCache.key(List.of("jdk-21", "maven"), List.of("y1", "y2"),
+                Map.of("a", "1"), Map.of("PATH", "/usr/bin"), "/levain");
+
+        assertEquals(key, ShellEnvironmentCache.key(List.of("jdk-21", "maven"), List.of("y1", "y2"),
+                Map.of("a", "1"), Map.of("PATH", "/usr/bin"), "/levain"));
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("maven", "jdk-21"), List.of("y2", "y1"),
+                Map.of("a", "1"), Map.of("PATH", "/usr/bin"), "/levain"));
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("jdk-21", "maven"), List.of("y1", "y3"),
+                Map.of("a", "1"), Map.of("PATH", "/usr/bin"), "/levain"));
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("jdk-21", "maven"), List.of("y1", "y2"),
+                Map.of("a", "2"), Map.of("PATH", "/usr/bin"), "/levain"));
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("jdk-21", "maven"), List.of("y1", "y2"),
+                Map.of("a", "1"), Map.of("PATH", "/bin"), "/levain"));
+    }
+
+    @Test
+    void shouldKeyOnReferencedEnvironmentVariables() {
+        Map<String, String> unset = new HashMap<>();
+        unset.put("PATH", "/usr/bin");
+        unset.put("JDK_ROOT", null);
+        String key = ShellEnvironmentCache.key(List.of("jdk-21"), List.of("y1"), Map.of(), unset, "/levain");
+
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("jdk-21"), List.of("y1"), Map.of(),
+                Map.of("PATH", "/usr/bin", "JDK_ROOT", "/opt/jdk"), "/levain"));
+        assertNotEquals(key, ShellEnvironmentCache.key(List.of("jdk-21"), List.of("y1"), Map.of(),
+                Map.of("PATH", "/usr/bin", "JDK_ROOT", ""), "/levain"));
+    }
+
+    @Test
+    void shouldReadWhatWasWritten() {
+        ShellEnvironmentCache cache = new ShellEnvironmentCache(tempDir.resolve("shell"));
+
+        cache.write("k", List.of("jdk-21"), Map.of("JAVA_HOME", "/levain/jdk-21", "PATH", "/levain/jdk-21/bin"));
+
+        ShellEnvironmentCache.Snapshot snapshot = cache.read("k").orElseThrow();
+        assertEquals(List.of("jdk-21"), snapshot.recipeNames());
+        assertEquals("/levain/jdk-21", snapshot.variables().get("JAVA_HOME"));
+        assertTrue(cache.read("other").isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreUnreadableSnapshot() throws Exception {
+        Path directory = tempDir.resolve("shell");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("k" + ShellEnvironmentCache.EXTENSION), "{not json");
+
+        assertTrue(new ShellEnvironmentCache(directory).read("k").isEmpty());
+    }
+
+    @Test
+    void shouldDropOldestSnapshots() throws Exception {
+        Path directory = tempDir.resolve("shell");
+        ShellEnvironmentCache cache = new ShellEnvironmentCache(directory);
+        Files.createDirectories(directory);
+        for (int i = 0; i < ShellEnvironmentCache.MAX_SNAPSHOTS; i++) {
+            Path file = directory.resolve("old-" + i + ShellEnvironmentCache.EXTENSION);
+            Files.writeString(file, "{}");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(1000L * (i + 1)));
+        }
+
+        cache.write("new", List.of(), Map.of());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(ShellEnvironmentCache.MAX_SNAPSHOTS, files.count());
+        }
+        assertTrue(Files.exists(directory.resolve("new" + ShellEnvironmentCache.EXTENSION)));
+        assertTrue(Files.notExists(directory.resolve("old-0" + ShellEnvironmentCache.EXTENSION)));
+    }
+}
@@ -3,10 +3,13 @@ package com.github.jmoalves.levain.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,9 +26,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
@@ -141,6 +146,28 @@ class ShellServiceTest {
         verify(actionExecutor, never()).executeCommands(any(), any(ActionContext.class));
     }
 
+    @Test
+    @DisplayName("Should reject async levainShell recursion")
+    void testRejectAsyncLevainShellAction() throws Exception {
+        Config config = Mockito.mock(Config.class);
+        when(config.getLevainHome()).thenReturn(Path.of("/tmp/levain"));
+        when(config.getVariables()).thenReturn(new HashMap<>());
+
+        ActionExecutor actionExecutor = Mockito.mock(ActionExecutor.class);
+        RecipeService recipeService = Mockito.mock(RecipeService.class);
+
+        Recipe recipe = new Recipe();
+        recipe.setName("tooling");
+        recipe.setCommands(Map.of("env", List.of("--async levainShell echo nope")));
+
+        when(recipeService.loadRecipe("tooling")).thenReturn(recipe);
+
+        TestShellService service = new TestShellService(config, actionExecutor, recipeService);
+
+        assertThrows(IllegalStateException.class, () -> service.openShell(List.of("tooling")));
+        verify(actionExecutor, never()).executeCommands(any(), any(ActionContext.class));
+    }
+
     @Test
     @DisplayName("Should ignore recipe load failures")
     void testRecipeLoadFailure() throws Exception {
@@ -240,6 +267,8 @@ class ShellServiceTest {
         assertTrue((Boolean) method.invoke(service, "levainShell"));
         assertTrue((Boolean) method.invoke(service, "levainShell echo hi"));
         assertTrue((Boolean) method.invoke(service, "  levainShell echo hi"));
+        assertTrue((Boolean) method.invoke(service, "--async levainShell echo hi"));
+        assertFalse((Boolean) method.invoke(service, "--async levainShellish echo hi"));
     }
 
     @Test
@@ -482,6 +511,85 @@ class ShellServiceTest {
         method.invoke(service, List.of("/bin/true"), new HashMap<>(), null);
     }
 
+    @Test
+    @DisplayName("Should replay the environment snapshot of unchanged packages")
+    void testOpenShellReplaysSnapshot(@TempDir Path tempDir) throws Exception {
+        Recipe recipe = new Recipe();
+        recipe.setName("jdk-21");
+        recipe.setCommands(Map.of("env", List.of("setEnv JAVA_HOME ${baseDir}")));
+
+        RecipeService recipeService = Mockito.mock(RecipeService.class);
+        when(recipeService.loadRecipe("jdk-21")).thenReturn(recipe);
+        when(recipeService.getRecipeYamlContent("jdk-21")).thenReturn(
+                Optional.of("name: jdk-21\ncmd.env:\n  - setEnv JAVA_HOME ${baseDir}\n"));
+        ActionExecutor actionExecutor = Mockito.mock(ActionExecutor.class);
+        doAnswer(invocation -> {
+            ActionContext context = invocation.getArgument(1);
+            context.getConfig().setVariable("JAVA_HOME", "/levain/jdk-21");
+            return null;
+        }).when(actionExecutor).executeCommands(any(), any(ActionContext.class));
+
+        TestShellService first = new TestShellService(createConfig(tempDir), actionExecutor, recipeService);
+        first.openShell(List.of("jdk-21"));
+
+        TestShellService second = new TestShellService(createConfig(tempDir), actionExecutor, recipeService);
+        second.openShell(List.of("jdk-21"));
+
+        verify(actionExecutor, times(1)).executeCommands(any(), any(ActionContext.class));
+        assertEquals("/levain/jdk-21", second.capturedEnv.get("JAVA_HOME"));
+        assertEquals("jdk-21", second.capturedEnv.get("LEVAIN_PKG_NAMES"));
+    }
+
+    @Test
+    @DisplayName("Should key the snapshot on the recipe that runs, not the installed copy")
+    void testOpenShellRunsActionsAgainWhenResolvedRecipeChanges(@TempDir Path tempDir) throws Exception {
+        Recipe recipe = new Recipe();
+        recipe.setName("jdk-21");
+        recipe.setCommands(Map.of("env", List.of("setEnv JAVA_HOME ${baseDir}")));
+
+        RecipeService recipeService = Mockito.mock(RecipeService.class);
+        when(recipeService.loadRecipe("jdk-21")).thenReturn(recipe);
+        // A repository copy shadowing the installed recipe changes between the second and third run
+        when(recipeService.getRecipeYamlContent("jdk-21")).thenReturn(
+                Optional.of("name: jdk-21\nversion: 21.0.1\n"),
+                Optional.of("name: jdk-21\nversion: 21.0.1\n"),
+                Optional.of("name: jdk-21\nversion: 21.0.2\n"));
+        ActionExecutor actionExecutor = Mockito.mock(ActionExecutor.class);
+
+        for (int i = 0; i < 3; i++) {
+            new TestShellService(createConfig(tempDir), actionExecutor, recipeService).openShell(List.of("jdk-21"));
+        }
+
+        verify(actionExecutor, times(2)).executeCommands(any(), any(ActionContext.class));
+    }
+
+    @Test
+    @DisplayName("Should not snapshot actions with effects besides variables")
+    void testOpenShellRunsActionsWithSideEffectsEveryTime(@TempDir Path tempDir) throws Exception {
+        Recipe recipe = new Recipe();
+        recipe.setName("tooling");
+        recipe.setCommands(Map.of("shell", List.of("mkdir ${home}/work", "setEnv HELLO world")));
+
+        RecipeService recipeService = Mockito.mock(RecipeService.class);
+        when(recipeService.loadRecipe("tooling")).thenReturn(recipe);
+        ActionExecutor actionExecutor = Mockito.mock(ActionExecutor.class);
+
+        for (int i = 0; i < 2; i++) {
+            TestShellService service = new TestShellService(createConfig(tempDir), actionExecutor, recipeService);
+            service.openShell(List.of("tooling"));
+        }
+
+        verify(actionExecutor, times(2)).executeCommands(any(), any(ActionContext.class));
+        verify(recipeService, never()).getRecipeYamlContent("tooling");
+    }
+
+    private static Config createConfig(Path tempDir) {
+        Config config = new Config();
+        config.setCacheDir(tempDir.resolve("cache").toString());
+        config.setLevainHome(tempDir.resolve("levain").toString());
+        return config;
+    }
+
     private static void setField(Object target, String name, Object value) throws Exception {
         Field field = ShellService.class.getDeclaredField(name);
         field.setAccessible(true);
@@ -0,0 +1,38 @@
+package com.github.jmoalves.levain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class VariableScopeTest {
+
+    @Test
+    void shouldFindNothingInEmptyScope() {
+        assertNull(VariableScope.empty().get("anything"));
+    }
+
+    @Test
+    void shouldLookUpInnerLayersFirst() {
+        VariableScope global = VariableScope.empty().with(Map.of("name", "global", "home", "/opt/levain"));
+        VariableScope recipe = global.with(Map.of("name", "jdk-21"));
+
+        assertEquals("jdk-21", recipe.get("name"));
+        assertEquals("/opt/levain", recipe.get("home"));
+        assertEquals("global", global.get("name"));
+        assertNull(recipe.get("missing"));
+    }
+
+    @Test
+    void shouldCopyLayers() {
+        Map<String, String> layer = new HashMap<>(Map.of("name", "before"));
+        VariableScope scope = VariableScope.empty().with(layer);
+
+        layer.put("name", "after");
+
+        assertEquals("before", scope.get("name"));
+    }
+}
@@ -19,12 +19,15 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.never;
 import static org.mockito.ArgumentMatchers.anyString;
 import com.github.jmoalves.levain.action.ActionContext;
+import com.github.jmoalves.levain.action.SetEnvAction;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Variable Substitution Service Tests")
@@ -189,6 +192,62 @@ class VariableSubstitutionServiceTest {
         assertEquals("JDK version: 21.0.1", result);
     }
 
+    @Test
+    @DisplayName("Should resolve the variables of a referenced recipe once")
+    void shouldResolveReferencedRecipeVariablesOnce() {
+        Recipe jdk = new Recipe();
+        jdk.setName("jdk-21");
+        jdk.addCustomAttribute("javaHome", "${pkg.base.root}/jdk-21");
+        Recipe base = new Recipe();
+        base.setName("base");
+        base.addCustomAttribute("root", "/opt/base");
+        when(recipeService.loadRecipe("jdk-21")).thenReturn(jdk);
+        when(recipeService.loadRecipe("base")).thenReturn(base);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("/opt/base/jdk-21/bin", service.substitute("${pkg.jdk-21.javaHome}/bin", Map.of()));
+        }
+        verify(recipeService, times(1)).loadRecipe("base");
+
+        service.invalidateRecipeVariables();
+        assertEquals("/opt/base/jdk-21/bin", service.substitute("${pkg.jdk-21.javaHome}/bin", Map.of()));
+        verify(recipeService, times(2)).loadRecipe("base");
+    }
+
+    @Test
+    @DisplayName("Should resolve a referenced recipe again once it was installed")
+    void shouldResolveChangedReferencedRecipeAgain() {
+        Recipe before = new Recipe();
+        before.setName("jdk-21");
+        before.setVersion("21.0.1");
+        Recipe after = new Recipe();
+        after.setName("jdk-21");
+        after.setVersion("21.0.2");
+        when(recipeService.loadRecipe("jdk-21")).thenReturn(before, after);
+
+        assertEquals("21.0.1", service.substitute("${pkg.jdk-21.version}", Map.of()));
+        assertEquals("21.0.1", service.substitute("${pkg.jdk-21.version}", Map.of()));
+        verify(recipeService, times(1)).loadRecipe("jdk-21");
+
+        service.invalidateRecipeVariables();
+        assertEquals("21.0.2", service.substitute("${pkg.jdk-21.version}", Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should stop at circular references between recipes")
+    void shouldStopAtCircularReferencesBetweenRecipes() {
+        Recipe a = new Recipe();
+        a.setName("a");
+        a.addCustomAttribute("x", "${pkg.b.y}");
+        Recipe b = new Recipe();
+        b.setName("b");
+        b.addCustomAttribute("y", "${pkg.a.x}");
+        when(recipeService.loadRecipe("a")).thenReturn(a);
+        when(recipeService.loadRecipe("b")).thenReturn(b);
+
+        assertEquals("${pkg.a.x}", service.substitute("${pkg.a.x}", Map.of()));
+    }
+
     @Test
     @DisplayName("Should return null for undefined indirect variable")
     void shouldHandleUndefinedIndirectVariable() {
@@ -479,6 +538,39 @@ class VariableSubstitutionServiceTest {
         assertEquals("Value=customValue", result);
     }
 
+    @Test
+    @DisplayName("Should build the variables of an ActionContext once")
+    void shouldBuildActionContextVariablesOnce() {
+        Recipe recipe = new Recipe();
+        recipe.setName("test");
+        recipe.addCustomAttribute("toolHome", "${baseDir}/tool");
+        ActionContext context = new ActionContext(config, recipe, Paths.get("/tmp"), Paths.get("/tmp"));
+
+        assertEquals("/tmp/tool", service.substitute("${toolHome}", context));
+        context.setRecipeVariable("toolHome", "/override");
+        assertEquals("/override for test", service.substitute("${toolHome} for ${name}", context));
+        assertEquals("/opt/levain", service.substitute("${levainHome}", context));
+
+        verify(config, times(1)).getLevainHome();
+    }
+
+    @Test
+    @DisplayName("Should see config variables set while the recipe runs")
+    void shouldSeeConfigVariablesSetByEarlierCommands() throws Exception {
+        Map<String, String> configVars = new HashMap<>();
+        lenient().when(config.getVariables()).thenReturn(configVars);
+        doAnswer(invocation -> configVars.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(config).setVariable(anyString(), anyString());
+        Recipe recipe = new Recipe();
+        recipe.setName("test");
+        ActionContext context = new ActionContext(config, recipe, Paths.get("/tmp"), Paths.get("/tmp"));
+
+        assertEquals("test", service.substitute("${name}", context));
+        new SetEnvAction().execute(context, List.of("LEVAIN_TEST_JAVA_HOME", "/opt/jdk-21"));
+
+        assertEquals("/opt/jdk-21/bin", service.substitute("${LEVAIN_TEST_JAVA_HOME}/bin", context));
+    }
+
     @Test
     @DisplayName("Should handle empty recipeVariables in ActionContext")
     void shouldHandleEmptyRecipeVariablesInActionContext() {
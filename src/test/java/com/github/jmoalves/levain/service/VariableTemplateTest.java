@@ -0,0 +1,78 @@
+package com.github.jmoalves.levain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class VariableTemplateTest {
+    private static final Map<String, String> VALUES = Map.of(
+            "a", "1",
+            "b", "two",
+            "a${b", "odd",
+            "dollar", "$1\\x");
+
+    @Test
+    void shouldReturnTextWithoutReferencesAsIs() {
+        String text = "echo hello";
+        VariableTemplate template = VariableTemplate.compile(text);
+
+        assertTrue(template.isConstant());
+        assertSame(text, template.render(VALUES::get));
+    }
+
+    @Test
+    void shouldRenderLiteralsAndVariables() {
+        VariableTemplate template = VariableTemplate.compile("x=${a}, y=${b}!");
+
+        assertFalse(template.isConstant());
+        assertEquals(List.of("a", "b"), template.variables());
+        assertEquals("x=1, y=two!", template.render(VALUES::get));
+    }
+
+    @Test
+    void shouldKeepUnresolvedReferences() {
+        assertEquals("${missing}/1", VariableTemplate.compile("${missing}/${a}").render(VALUES::get));
+    }
+
+    @Test
+    void shouldInsertValuesLiterally() {
+        assertEquals("[$1\\x]", VariableTemplate.compile("[${dollar}]").render(VALUES::get));
+    }
+
+    @Test
+    void shouldParseLikeTheVariablePattern() {
+        List<String> texts = List.of(
+                "", "$", "${", "${}", "${}${a}", "${a", "a}", "${a}}", "${${a}", "${a${b}",
+                "$${a}", "${a}${b}", "pre ${a} mid ${b} post", "${ a }", "${a}\n${b}", "}${a}{");
+        Pattern pattern = Pattern.compile("\\$\\{([^}]+)\\}");
+        Function<String, String> resolver = name -> name.equals(" a ") ? null : VALUES.getOrDefault(name, "<" + name + ">");
+
+        for (String text : texts) {
+            StringBuilder expected = new StringBuilder();
+            Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                String value = resolver.apply(matcher.group(1));
+                matcher.appendReplacement(expected, Matcher.quoteReplacement(value != null ? value : matcher.group(0)));
+            }
+            matcher.appendTail(expected);
+
+            assertEquals(expected.toString(), VariableTemplate.compile(text).render(resolver), text);
+        }
+    }
+
+    @Test
+    void shouldCacheCompiledTemplates() {
+        String text = "cached ${a} " + System.nanoTime();
+
+        assertSame(VariableTemplate.of(text), VariableTemplate.of(new String(text)));
+    }
+}
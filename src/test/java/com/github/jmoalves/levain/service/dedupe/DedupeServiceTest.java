@@ -0,0 +1,113 @@
+package com.github.jmoalves.levain.service.dedupe;
+
+import com.github.jmoalves.levain.config.Config;
+import com.github.jmoalves.levain.service.dedupe.DedupeService.DedupeResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("DedupeService Tests")
+class DedupeServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config config;
+    private DedupeService dedupeService;
+
+    @BeforeEach
+    void setUp() {
+        config = new Config();
+        config.setStoreDir(tempDir.resolve("store").toString());
+        config.setLevainHome(tempDir.resolve("home").toString());
+        dedupeService = new DedupeService(config);
+    }
+
+    @Test
+    @DisplayName("Should hardlink identical files across packages")
+    void shouldLinkIdenticalFiles() throws IOException {
+        byte[] content = payload('a');
+        Path first = write("home/jdk-17/lib/tools.jar", content);
+        Path second = write("home/jdk-21/lib/tools.jar", content);
+        write("home/jdk-21/lib/other.jar", payload('b'));
+
+        DedupeResult result = dedupeService.dedupe(config.getLevainHome());
+
+        assertEquals(3, result.scannedFiles());
+        assertEquals(1, result.linkedFiles());
+        assertEquals(content.length, result.savedBytes());
+        assertTrue(Files.isSameFile(first, second));
+        assertArrayEquals(content, Files.readAllBytes(second));
+    }
+
+    @Test
+    @DisplayName("Should be idempotent")
+    void shouldNotRelinkAlreadyLinkedFiles() throws IOException {
+        byte[] content = payload('a');
+        write("home/a/file.bin", content);
+        write("home/b/file.bin", content);
+
+        dedupeService.dedupe(config.getLevainHome());
+        DedupeResult second = dedupeService.dedupe(config.getLevainHome());
+
+        assertEquals(0, second.linkedFiles());
+    }
+
+    @Test
+    @DisplayName("Should skip small files")
+    void shouldSkipSmallFiles() throws IOException {
+        Path first = write("home/a/small.txt", "tiny".getBytes());
+        Path second = write("home/b/small.txt", "tiny".getBytes());
+
+        dedupeService.dedupe(config.getLevainHome());
+
+        assertFalse(Files.isSameFile(first, second));
+    }
+
+    @Test
+    @DisplayName("Should only store new files when enabled")
+    void shouldRespectEnabledFlag() throws IOException {
+        byte[] content = payload('c');
+        Path first = write("home/a/file.bin", content);
+        Path second = write("home/b/file.bin", content);
+
+        dedupeService.storeIfEnabled(List.of(first, second));
+        assertFalse(Files.isSameFile(first, second));
+
+        config.setDedupeEnabled(true);
+        dedupeService.storeIfEnabled(List.of(first, second));
+        assertTrue(Files.isSameFile(first, second));
+    }
+
+    @Test
+    @DisplayName("Should keep executable and plain copies apart")
+    void shouldSeparateExecutableFiles() {
+        assertEquals(config.getStoreDir().resolve("ab").resolve("abcdef"), dedupeService.storePath("abcdef", false));
+        assertEquals(config.getStoreDir().resolve("ab").resolve("abcdef.x"), dedupeService.storePath("abcdef", true));
+    }
+
+    private Path write(String relative, byte[] content) throws IOException {
+        Path file = tempDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return file;
+    }
+
+    private static byte[] payload(char fill) {
+        byte[] bytes = new byte[4096];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
@@ -28,6 +28,10 @@ import java.util.List;
 import java.util.Map;
 import java.lang.reflect.Method;
 import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -297,6 +301,40 @@ class FileCacheTest {
         }
     }
 
+    @Test
+    void testConcurrentGetsDownloadOnce() throws Exception {
+        AtomicReference<byte[]> content = new AtomicReference<>("hello".getBytes());
+        AtomicReference<String> lastModified = new AtomicReference<>(
+                OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(10).format(DateTimeFormatter.RFC_1123_DATE_TIME));
+        AtomicReference<Integer> headStatus = new AtomicReference<>(200);
+        AtomicReference<Integer> getStatus = new AtomicReference<>(200);
+        AtomicInteger headCount = new AtomicInteger(0);
+        AtomicInteger getCount = new AtomicInteger(0);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/file.txt", new TestHandler(content, lastModified, headStatus, getStatus, headCount, getCount));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/file.txt";
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> fileCache.get(url)));
+            }
+            for (Future<Path> result : results) {
+                assertEquals("hello", Files.readString(result.get()));
+            }
+            assertEquals(1, getCount.get());
+            try (var files = Files.list(tempDir.resolve("cache").resolve("downloads"))) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+    }
+
     @Test
     void testCacheInvalidWhenContentLengthChanges() throws Exception {
         AtomicReference<byte[]> content = new AtomicReference<>("aaa".getBytes());
@@ -7,6 +7,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -203,4 +210,45 @@ class FileUtilsTest {
     void testIsFileSystemUrlWithFileProtocol() {
         assertTrue(FileUtils.isFileSystemUrl("file:///tmp/file.txt"));
     }
+
+    @Test
+    void testWriteAtomicallyDoesNotTouchHardLinkedCopies() throws IOException {
+        Path original = tempDir.resolve("original.txt");
+        Files.writeString(original, "shared");
+        Path linked = tempDir.resolve("linked.txt");
+        Files.createLink(linked, original);
+
+        FileUtils.writeAtomically(linked, "changed".getBytes());
+
+        assertEquals("changed", Files.readString(linked));
+        assertEquals("shared", Files.readString(original));
+        assertFalse(Files.exists(tempDir.resolve("linked.txt.tmp")));
+    }
+
+    @Test
+    void testWriteAtomicallyWithConcurrentWriters() throws Exception {
+        Path target = tempDir.resolve("shared.txt");
+        List<String> contents = IntStream.range(0, 8).mapToObj(i -> ("writer-" + i).repeat(1000)).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(contents.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String content : contents) {
+                futures.add(executor.submit(() -> {
+                    FileUtils.writeAtomically(target, content.getBytes());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(contents.contains(Files.readString(target)));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(target), files.toList());
+        }
+    }
 }
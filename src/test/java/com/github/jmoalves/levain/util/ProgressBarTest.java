@@ -326,4 +326,24 @@ class ProgressBarTest {
     private static void restoreEnv(String key, String original) throws Exception {
         updateEnv(key, original);
     }
+
+    @Test
+    @DisplayName("Should print a single line when running line-only")
+    void testRunLineOnly() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            ProgressBar.runLineOnly(() -> {
+                ProgressBar bar = new ProgressBar("Async", 10);
+                bar.update(5);
+                bar.finish();
+            });
+        } finally {
+            System.setOut(originalOut);
+        }
+        String printed = out.toString();
+        assertTrue(printed.contains("Async"));
+        assertTrue(!printed.contains("\r"));
+    }
 }